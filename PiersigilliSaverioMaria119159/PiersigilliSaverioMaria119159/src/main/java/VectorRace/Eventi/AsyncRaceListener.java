@@ -0,0 +1,296 @@
+package VectorRace.Eventi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AsyncRaceListener disaccoppia il motore di gioco da un listener lento
+ * (scrittura su file, rendering, metriche).
+ * <p>
+ * - Il motore (unico produttore) inserisce gli eventi in un buffer circolare
+ *   preallocato, senza lock, e prosegue subito con la simulazione.
+ * - Un thread dedicato (unico consumatore) svuota il buffer e consegna
+ *   gli eventi al listener incapsulato, nello stesso ordine in cui sono stati pubblicati.
+ * - Se il buffer  pieno si applica la {@link BackpressurePolicy} scelta;
+ *   gli eventi critici (vedi {@link RaceEventType#isCritical()}) non vengono mai scartati.
+ * - Quando il buffer resta vuoto il thread consumatore si sospende senza consumare CPU
+ *   e viene risvegliato dal produttore alla pubblicazione successiva.
+ * - Il thread consumatore termina da solo dopo aver consegnato l'evento di fine gara,
+ *   oppure alla chiamata di {@link #close()}.
+ * <p>
+ * Va usato solo per listener che non leggono lo stato del motore durante la consegna
+ * (non, ad esempio, per la stampa su console della plancia).
+ */
+public class AsyncRaceListener implements RaceListener, AutoCloseable {
+
+    /**
+     * Comportamento del produttore quando il buffer  pieno.
+     */
+    public enum BackpressurePolicy {
+        /** Il motore attende che il consumatore liberi spazio: nessun evento viene perso. */
+        BLOCK,
+        /** Gli eventi non critici che non trovano posto vengono scartati. */
+        DROP,
+        /**
+         * Quando il buffer  pieno oltre la met viene inoltrato solo un evento
+         * non critico ogni {@code sampleInterval}; a buffer pieno gli altri vengono scartati.
+         */
+        SAMPLE
+    }
+
+    /**
+     * Intervallo di campionamento predefinito per la politica SAMPLE.
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 8;
+
+    /**
+     * Cicli di attesa attiva prima di cedere il processore e, poi, di sospendere il thread
+     * (il consumatore fino al risveglio, il produttore in attesa di spazio per PARK_NANOS).
+     */
+    private static final int SPIN_LIMIT = 100;
+    private static final int YIELD_LIMIT = 200;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final RaceListener delegate;
+    private final BackpressurePolicy policy;
+    private final int sampleInterval;
+
+    /**
+     * Buffer circolare con dimensione potenza di due (l'indice si ottiene con una maschera).
+     */
+    private final RaceEvent[] ring;
+    private final int mask;
+
+    /**
+     * Sequenza del prossimo evento da leggere (scritta solo dal consumatore).
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Sequenza del prossimo evento da scrivere (scritta solo dal produttore).
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Ultimo valore di head letto dal produttore: evita una lettura volatile a ogni evento.
+     */
+    private long cachedHead;
+
+    /**
+     * Contatore degli eventi non critici considerati dalla politica SAMPLE.
+     */
+    private long sampleCounter;
+
+    /**
+     * Numero di eventi scartati per backpressure.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean closed;
+    private final Thread consumer;
+
+    /**
+     * true mentre il consumatore  (o sta per essere) sospeso in attesa di eventi:
+     * il produttore lo risveglia solo in questo caso.
+     */
+    private volatile boolean consumerParked;
+
+    /**
+     * Costruttore di AsyncRaceListener con l'intervallo di campionamento predefinito.
+     *
+     * @param delegate Listener a cui consegnare gli eventi.
+     * @param capacity Numero minimo di eventi che il buffer pu contenere.
+     * @param policy   Politica da applicare a buffer pieno.
+     */
+    public AsyncRaceListener(RaceListener delegate, int capacity, BackpressurePolicy policy) {
+        this(delegate, capacity, policy, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Costruttore di AsyncRaceListener.
+     *
+     * @param delegate       Listener a cui consegnare gli eventi.
+     * @param capacity       Numero minimo di eventi che il buffer pu contenere
+     *                       (arrotondato alla potenza di due successiva).
+     * @param policy         Politica da applicare a buffer pieno.
+     * @param sampleInterval Per la politica SAMPLE, uno ogni quanti eventi non critici inoltrare.
+     */
+    public AsyncRaceListener(RaceListener delegate, int capacity,
+                             BackpressurePolicy policy, int sampleInterval) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacit deve essere almeno 1.");
+        }
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("L'intervallo di campionamento deve essere almeno 1.");
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.sampleInterval = sampleInterval;
+
+        int size = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new RaceEvent[size];
+        this.mask = size - 1;
+
+        this.consumer = new Thread(this::drainLoop, "race-events-" + delegate.getClass().getSimpleName());
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Pubblica un evento nel buffer (chiamato dal thread del motore).
+     *
+     * @param event L'evento da pubblicare.
+     */
+    @Override
+    public void onEvent(RaceEvent event) {
+        if (closed) {
+            return;
+        }
+        long sequence = tail.get();
+
+        if (!event.getType().isCritical() && policy != BackpressurePolicy.BLOCK) {
+            if (policy == BackpressurePolicy.SAMPLE
+                    && sequence - head.get() >= ring.length / 2
+                    && sampleCounter++ % sampleInterval != 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (isFull(sequence)) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+
+        // Politica BLOCK o evento critico: attende che si liberi un posto.
+        int idle = 0;
+        while (isFull(sequence)) {
+            if (!consumer.isAlive()) {
+                return;
+            }
+            backoff(++idle);
+        }
+
+        ring[(int) sequence & mask] = event;
+        // Pubblicazione ordinata: il consumatore vede l'evento solo dopo che  stato scritto.
+        // La scrittura volatile di tail precede la lettura di consumerParked, cos un
+        // consumatore che si sta sospendendo vede l'evento oppure viene risvegliato.
+        tail.set(sequence + 1);
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Verifica se il buffer  pieno, rileggendo head solo quando la copia locale non basta.
+     */
+    private boolean isFull(long sequence) {
+        if (sequence - cachedHead < ring.length) {
+            return false;
+        }
+        cachedHead = head.get();
+        return sequence - cachedHead >= ring.length;
+    }
+
+    /**
+     * Ciclo del thread consumatore: consegna gli eventi fino alla fine della gara o alla chiusura.
+     */
+    private void drainLoop() {
+        long next = head.get();
+        int idle = 0;
+        while (true) {
+            long available = tail.get();
+            if (next == available) {
+                if (closed && next == tail.get()) {
+                    return;
+                }
+                if (++idle < YIELD_LIMIT) {
+                    backoff(idle);
+                } else {
+                    // Buffer vuoto da tempo: sospensione fino alla prossima pubblicazione o a close().
+                    consumerParked = true;
+                    if (tail.get() == next && !closed) {
+                        LockSupport.park(this);
+                    }
+                    consumerParked = false;
+                }
+                continue;
+            }
+            idle = 0;
+            while (next < available) {
+                int index = (int) next & mask;
+                RaceEvent event = ring[index];
+                ring[index] = null;
+                next++;
+                head.lazySet(next);
+                deliver(event);
+                if (event.getType() == RaceEventType.RACE_END) {
+                    closed = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Consegna un evento al listener incapsulato: un errore del listener
+     * non deve interrompere la consegna degli eventi successivi.
+     */
+    private void deliver(RaceEvent event) {
+        try {
+            delegate.onEvent(event);
+        } catch (RuntimeException e) {
+            System.err.println("Errore nel listener " + delegate.getClass().getSimpleName()
+                    + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Attesa progressiva: prima attiva, poi cedendo il processore, infine sospendendo il thread.
+     */
+    private static void backoff(int idle) {
+        if (idle < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (idle < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Smette di accettare eventi, attende che il consumatore abbia consegnato
+     * quelli gi pubblicati e ne termina il thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Restituisce il numero di eventi scartati per backpressure.
+     *
+     * @return Eventi non consegnati al listener.
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * Restituisce la capacit effettiva del buffer.
+     *
+     * @return Numero di eventi che il buffer pu contenere.
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+}
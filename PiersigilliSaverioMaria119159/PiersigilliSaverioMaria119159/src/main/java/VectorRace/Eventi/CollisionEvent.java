@@ -0,0 +1,26 @@
+package VectorRace.Eventi;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+
+/**
+ * Evento pubblicato quando un giocatore tenta di entrare in una cella occupata da un altro giocatore e salta il turno.
+ */
+public class CollisionEvent extends PlayerEvent {
+
+    /**
+     * Costruttore di CollisionEvent.
+     *
+     * @param turn     Turno dell'evento.
+     * @param player   Giocatore coinvolto.
+     * @param position Cella occupata che il giocatore ha tentato di raggiungere.
+     */
+    public CollisionEvent(int turn, IPlayer player, Position position) {
+        super(turn, player, position);
+    }
+
+    @Override
+    public RaceEventType getType() {
+        return RaceEventType.COLLISION;
+    }
+}
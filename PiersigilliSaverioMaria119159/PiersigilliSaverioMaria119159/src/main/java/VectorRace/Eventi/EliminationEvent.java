@@ -0,0 +1,26 @@
+package VectorRace.Eventi;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+
+/**
+ * Evento pubblicato quando un giocatore colpisce un ostacolo e viene eliminato dalla gara.
+ */
+public class EliminationEvent extends PlayerEvent {
+
+    /**
+     * Costruttore di EliminationEvent.
+     *
+     * @param turn     Turno dell'evento.
+     * @param player   Giocatore coinvolto.
+     * @param position Cella dell'ostacolo colpito.
+     */
+    public EliminationEvent(int turn, IPlayer player, Position position) {
+        super(turn, player, position);
+    }
+
+    @Override
+    public RaceEventType getType() {
+        return RaceEventType.ELIMINATION;
+    }
+}
@@ -0,0 +1,26 @@
+package VectorRace.Eventi;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+
+/**
+ * Evento pubblicato quando un giocatore raggiunge il traguardo.
+ */
+public class FinishEvent extends PlayerEvent {
+
+    /**
+     * Costruttore di FinishEvent.
+     *
+     * @param turn     Turno dell'evento.
+     * @param player   Giocatore coinvolto.
+     * @param position Cella del traguardo raggiunta.
+     */
+    public FinishEvent(int turn, IPlayer player, Position position) {
+        super(turn, player, position);
+    }
+
+    @Override
+    public RaceEventType getType() {
+        return RaceEventType.FINISH;
+    }
+}
@@ -0,0 +1,65 @@
+package VectorRace.Eventi;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+
+/**
+ * Evento pubblicato quando un giocatore completa la sua mossa.
+ * Se il giocatore non aveva direzioni sicure la direzione  null
+ * e la posizione di partenza coincide con quella di arrivo.
+ */
+public class MoveEvent extends PlayerEvent {
+
+    private final Position from;
+    private final VectorDirection.CardinalDirection direction;
+    private final int velocity;
+
+    /**
+     * Costruttore di MoveEvent.
+     *
+     * @param turn      Turno della mossa.
+     * @param player    Giocatore che si  mosso.
+     * @param from      Posizione di partenza.
+     * @param to        Posizione di arrivo.
+     * @param direction Direzione scelta (null se il giocatore  rimasto fermo).
+     * @param velocity  Velocit dopo la mossa.
+     */
+    public MoveEvent(int turn, IPlayer player, Position from, Position to,
+                     VectorDirection.CardinalDirection direction, int velocity) {
+        super(turn, player, to);
+        this.from = from;
+        this.direction = direction;
+        this.velocity = velocity;
+    }
+
+    public Position getFrom() {
+        return from;
+    }
+
+    public Position getTo() {
+        return getPosition();
+    }
+
+    public VectorDirection.CardinalDirection getDirection() {
+        return direction;
+    }
+
+    public int getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Indica se il giocatore  rimasto fermo perch non aveva direzioni sicure.
+     *
+     * @return true se nel turno il giocatore non si  mosso.
+     */
+    public boolean isStationary() {
+        return direction == null;
+    }
+
+    @Override
+    public RaceEventType getType() {
+        return RaceEventType.MOVE;
+    }
+}
@@ -0,0 +1,35 @@
+package VectorRace.Eventi;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+
+/**
+ * PlayerEvent  la base degli eventi che riguardano un singolo giocatore
+ * in una determinata posizione del tracciato.
+ */
+public abstract class PlayerEvent extends RaceEvent {
+
+    private final IPlayer player;
+    private final Position position;
+
+    /**
+     * Costruttore di PlayerEvent.
+     *
+     * @param turn     Turno in cui si  verificato l'evento.
+     * @param player   Giocatore coinvolto.
+     * @param position Posizione in cui si  verificato l'evento.
+     */
+    protected PlayerEvent(int turn, IPlayer player, Position position) {
+        super(turn);
+        this.player = player;
+        this.position = position;
+    }
+
+    public IPlayer getPlayer() {
+        return player;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,31 @@
+package VectorRace.Eventi;
+
+import VectorRace.Motore.RaceResult;
+
+/**
+ * Evento pubblicato una sola volta, al termine della gara, con il suo risultato.
+ */
+public class RaceEndEvent extends RaceEvent {
+
+    private final RaceResult result;
+
+    /**
+     * Costruttore di RaceEndEvent.
+     *
+     * @param turn   Ultimo turno giocato.
+     * @param result Risultato della gara.
+     */
+    public RaceEndEvent(int turn, RaceResult result) {
+        super(turn);
+        this.result = result;
+    }
+
+    public RaceResult getResult() {
+        return result;
+    }
+
+    @Override
+    public RaceEventType getType() {
+        return RaceEventType.RACE_END;
+    }
+}
@@ -0,0 +1,36 @@
+package VectorRace.Eventi;
+
+/**
+ * RaceEvent  la classe base di tutti gli eventi di gara.
+ * Ogni evento conosce il proprio tipo e il turno in cui si  verificato.
+ * <p>
+ * Gli eventi sono immutabili: possono essere consegnati ai listener
+ * anche su thread diversi da quello del motore di gioco.
+ */
+public abstract class RaceEvent {
+
+    /**
+     * Turno in cui si  verificato l'evento.
+     */
+    private final int turn;
+
+    /**
+     * Costruttore di RaceEvent.
+     *
+     * @param turn Turno in cui si  verificato l'evento.
+     */
+    protected RaceEvent(int turn) {
+        this.turn = turn;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Restituisce il tipo dell'evento, usato per smistarlo al metodo giusto del listener.
+     *
+     * @return Il tipo dell'evento.
+     */
+    public abstract RaceEventType getType();
+}
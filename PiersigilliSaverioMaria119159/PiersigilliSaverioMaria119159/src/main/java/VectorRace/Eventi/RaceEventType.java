@@ -0,0 +1,38 @@
+package VectorRace.Eventi;
+
+/**
+ * Tipi di evento pubblicati da {@link VectorRace.Motore.GameEngine} durante una gara.
+ * <p>
+ * Gli eventi "critici" cambiano l'esito della gara (eliminazioni, traguardo, fine gara)
+ * e non vengono mai scartati, nemmeno da un consumatore asincrono che applica
+ * una politica di backpressure.
+ */
+public enum RaceEventType {
+    /** Inizio di un nuovo turno. */
+    TURN_START(false),
+    /** Un giocatore ha completato la sua mossa (o  rimasto fermo). */
+    MOVE(false),
+    /** Un giocatore ha tentato di entrare in una cella occupata e salta il turno. */
+    COLLISION(false),
+    /** Un giocatore ha colpito un ostacolo ed  stato eliminato. */
+    ELIMINATION(true),
+    /** Un giocatore ha raggiunto il traguardo. */
+    FINISH(true),
+    /** La gara  terminata. */
+    RACE_END(true);
+
+    private final boolean critical;
+
+    RaceEventType(boolean critical) {
+        this.critical = critical;
+    }
+
+    /**
+     * Indica se l'evento deve essere sempre consegnato ai listener.
+     *
+     * @return true per gli eventi che non possono essere scartati.
+     */
+    public boolean isCritical() {
+        return critical;
+    }
+}
@@ -0,0 +1,46 @@
+package VectorRace.Eventi;
+
+/**
+ * RaceListener riceve gli eventi pubblicati da {@link VectorRace.Motore.GameEngine}.
+ * <p>
+ * Ogni tipo di evento ha un proprio metodo con implementazione vuota:
+ * un listener ridefinisce solo quelli che gli interessano.
+ * Il motore chiama {@link #onEvent(RaceEvent)}, che smista l'evento in base al tipo;
+ * un listener generico (es. un registratore) pu ridefinire direttamente quest'ultimo.
+ */
+public interface RaceListener {
+
+    default void onTurnStart(TurnStartEvent event) {
+    }
+
+    default void onMove(MoveEvent event) {
+    }
+
+    default void onCollision(CollisionEvent event) {
+    }
+
+    default void onElimination(EliminationEvent event) {
+    }
+
+    default void onFinish(FinishEvent event) {
+    }
+
+    default void onRaceEnd(RaceEndEvent event) {
+    }
+
+    /**
+     * Riceve un evento qualsiasi e lo inoltra al metodo corrispondente al suo tipo.
+     *
+     * @param event L'evento da gestire.
+     */
+    default void onEvent(RaceEvent event) {
+        switch (event.getType()) {
+            case TURN_START:  onTurnStart((TurnStartEvent) event); break;
+            case MOVE:        onMove((MoveEvent) event); break;
+            case COLLISION:   onCollision((CollisionEvent) event); break;
+            case ELIMINATION: onElimination((EliminationEvent) event); break;
+            case FINISH:      onFinish((FinishEvent) event); break;
+            case RACE_END:    onRaceEnd((RaceEndEvent) event); break;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package VectorRace.Eventi;
+
+/**
+ * Evento pubblicato all'inizio di ogni turno.
+ */
+public class TurnStartEvent extends RaceEvent {
+
+    public TurnStartEvent(int turn) {
+        super(turn);
+    }
+
+    @Override
+    public RaceEventType getType() {
+        return RaceEventType.TURN_START;
+    }
+}
@@ -2,7 +2,7 @@ package VectorRace.Fisica;
 
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.*;
+import java.util.List;
 
 /**
  * DefaultInertiaManager  unimplementazione base di IInertiaManager che,
@@ -13,12 +13,40 @@ import java.util.*;
  * - velocit <= 1: si possono scegliere tutte le direzioni.
  * - velocit == 2: si limita la scelta a direzioni entro 90 rispetto alla direzione precedente.
  * - velocit >= 3: si limita la scelta a direzioni entro 45 rispetto alla direzione precedente.
+ *
+ * Le direzioni ammesse per ogni fascia di velocit e direzione precedente sono calcolate
+ * una sola volta in una tabella di maschere ({@link DirectionMask}): ogni richiesta  una lettura
+ * della tabella e non crea oggetti. Un giocatore che non si  ancora mosso (direzione precedente
+ * null) pu scegliere qualunque direzione.
  */
 public class DefaultInertiaManager implements IInertiaManager {
 
+    /**
+     * MASKS[fascia][direzione]: maschera delle direzioni ammesse per fascia di velocit
+     * (0: velocit <= 1, 1: velocit 2, 2: velocit >= 3) e ordinale della direzione
+     * precedente (8: nessuna direzione precedente).
+     */
+    private static final byte[][] MASKS = new byte[3][9];
+
+    static {
+        VectorDirection.CardinalDirection[] directions = VectorDirection.CardinalDirection.values();
+        for (int band = 0; band < MASKS.length; band++) {
+            MASKS[band][directions.length] = DirectionMask.ALL;
+        }
+        for (VectorDirection.CardinalDirection previous : directions) {
+            // Velocit 0 o 1: tutte le direzioni possibili
+            MASKS[0][previous.ordinal()] = DirectionMask.ALL;
+            // Velocit 2: entro 90 dalla direzione precedente
+            MASKS[1][previous.ordinal()] = getDirectionsWithinAngle(previous, 90);
+            // Velocit 3 o superiore: entro 45 dalla direzione precedente
+            MASKS[2][previous.ordinal()] = getDirectionsWithinAngle(previous, 45);
+        }
+    }
+
     /**
      * Restituisce la lista di direzioni cardinale ammesse,
      * calcolate in base alla velocit e alla direzione precedente.
+     * La lista  immutabile e condivisa tra le chiamate.
      *
      * @param currentVelocity       Velocit corrente del giocatore.
      * @param previousDirection     Direzione seguita dal giocatore al turno precedente.
@@ -26,22 +54,21 @@ public class DefaultInertiaManager implements IInertiaManager {
      */
     @Override
     public List<VectorDirection.CardinalDirection> allowedDirections(int currentVelocity, VectorDirection.CardinalDirection previousDirection) {
-        // Lista delle direzioni finali ammesse
-        List<VectorDirection.CardinalDirection> directions = new ArrayList<>();
+        return DirectionMask.toList(allowedDirectionMask(currentVelocity, previousDirection));
+    }
 
-        // Se la velocit  0 o 1, consentiamo tutte le direzioni possibili
-        if (currentVelocity <= 1) {
-            directions.addAll(Arrays.asList(VectorDirection.CardinalDirection.values()));
-        }
-        // Se la velocit  esattamente 2, limitiamo a 90 dalla direzione precedente
-        else if (currentVelocity == 2) {
-            directions.addAll(getDirectionsWithinAngle(previousDirection, 90));
-        }
-        // Se la velocit  3 o superiore, limitiamo a 45 dalla direzione precedente
-        else if (currentVelocity >= 3) {
-            directions.addAll(getDirectionsWithinAngle(previousDirection, 45));
-        }
-        return directions;
+    /**
+     * Restituisce la maschera delle direzioni ammesse, letta dalla tabella precalcolata.
+     *
+     * @param currentVelocity   Velocit corrente del giocatore.
+     * @param previousDirection Direzione seguita dal giocatore al turno precedente.
+     * @return Maschera delle direzioni consentite.
+     */
+    @Override
+    public byte allowedDirectionMask(int currentVelocity, VectorDirection.CardinalDirection previousDirection) {
+        int band = currentVelocity <= 1 ? 0 : currentVelocity == 2 ? 1 : 2;
+        int heading = previousDirection == null ? MASKS[band].length - 1 : previousDirection.ordinal();
+        return MASKS[band][heading];
     }
 
     /**
@@ -50,34 +77,27 @@ public class DefaultInertiaManager implements IInertiaManager {
      *
      * @param baseDir     Direzione di base da cui calcolare langolo.
      * @param angleRange  Intervallo di gradi consentito (es. 45 o 90).
-     * @return Lista di direzioni entro langolo specificato rispetto a baseDir.
+     * @return Maschera delle direzioni entro langolo specificato rispetto a baseDir.
      */
-    private List<VectorDirection.CardinalDirection> getDirectionsWithinAngle(VectorDirection.CardinalDirection baseDir, int angleRange) {
-        List<VectorDirection.CardinalDirection> nearby = new ArrayList<>();
-
-        // Mappa di direzioni -> angoli (riferiti allasse orizzontale, in senso orario/antiorario)
-        Map<VectorDirection.CardinalDirection, Double> directionAngles = new HashMap<>();
-        for (VectorDirection.CardinalDirection dir : VectorDirection.CardinalDirection.values()) {
-            directionAngles.put(dir, getAngle(dir));
-        }
+    private static byte getDirectionsWithinAngle(VectorDirection.CardinalDirection baseDir, int angleRange) {
+        int nearby = DirectionMask.NONE;
 
         // Angolo di base corrispondente alla direzione precedente
-        double baseAngle = directionAngles.get(baseDir);
+        double baseAngle = getAngle(baseDir);
 
         // Per ciascuna direzione, confronta langolo con quello di base e calcola la differenza
         for (VectorDirection.CardinalDirection dir : VectorDirection.CardinalDirection.values()) {
-            double angle = directionAngles.get(dir);
-            double diff = Math.abs(baseAngle - angle);
+            double diff = Math.abs(baseAngle - getAngle(dir));
 
             // Minimizziamo la differenza, tenendo conto che langolo pu "avvolgersi" intorno a 360
             diff = Math.min(diff, 360 - diff);
 
-            // Se la differenza rientra nel range specificato, aggiungiamo la direzione alla lista
+            // Se la differenza rientra nel range specificato, aggiungiamo la direzione alla maschera
             if (diff <= angleRange) {
-                nearby.add(dir);
+                nearby |= DirectionMask.of(dir);
             }
         }
-        return nearby;
+        return (byte) nearby;
     }
 
     /**
@@ -89,7 +109,7 @@ public class DefaultInertiaManager implements IInertiaManager {
      * @param dir Direzione cardinale.
      * @return Angolo corrispondente in gradi (tra 0 e 360).
      */
-    private double getAngle(VectorDirection.CardinalDirection dir) {
+    private static double getAngle(VectorDirection.CardinalDirection dir) {
         switch (dir) {
             case N:  return 90;
             case NE: return 45;
@@ -0,0 +1,144 @@
+package VectorRace.Fisica;
+
+import VectorRace.Posizione.VectorDirection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * DirectionMask raccoglie le operazioni sulle maschere di direzioni: un insieme di
+ * {@link VectorDirection.CardinalDirection} rappresentato da un byte, in cui il bit i
+ * indica la direzione di ordinale i (N = bit 0, NE = bit 1, ..., NW = bit 7).
+ * <p>
+ * Le liste corrispondenti a ciascuna delle 256 maschere sono precalcolate e immutabili,
+ * quindi passare da una maschera alla lista non crea oggetti. Chi deve solo scorrere
+ * le direzioni pu farlo direttamente sui bit, senza liste:
+ * <pre>
+ * for (int bits = mask &amp; 0xFF; bits != 0; bits &amp;= bits - 1) {
+ *     VectorDirection.CardinalDirection direction = DirectionMask.lowest(bits);
+ *     ...
+ * }
+ * </pre>
+ */
+public final class DirectionMask {
+
+    /**
+     * Maschera vuota: nessuna direzione.
+     */
+    public static final byte NONE = 0;
+
+    /**
+     * Maschera con tutte le 8 direzioni.
+     */
+    public static final byte ALL = (byte) 0xFF;
+
+    private static final VectorDirection.CardinalDirection[] DIRECTIONS = VectorDirection.CardinalDirection.values();
+
+    private static final List<List<VectorDirection.CardinalDirection>> LISTS = new ArrayList<>(256);
+
+    static {
+        for (int mask = 0; mask < 256; mask++) {
+            List<VectorDirection.CardinalDirection> list = new ArrayList<>(Integer.bitCount(mask));
+            for (VectorDirection.CardinalDirection direction : DIRECTIONS) {
+                if ((mask & (1 << direction.ordinal())) != 0) {
+                    list.add(direction);
+                }
+            }
+            LISTS.add(Collections.unmodifiableList(list));
+        }
+    }
+
+    private DirectionMask() {
+    }
+
+    /**
+     * @param direction Direzione.
+     * @return Maschera che contiene solo la direzione indicata.
+     */
+    public static byte of(VectorDirection.CardinalDirection direction) {
+        return (byte) (1 << direction.ordinal());
+    }
+
+    /**
+     * @param directions Direzioni (eventuali duplicati sono ignorati).
+     * @return Maschera che contiene tutte le direzioni indicate.
+     */
+    public static byte of(Iterable<VectorDirection.CardinalDirection> directions) {
+        int mask = NONE;
+        for (VectorDirection.CardinalDirection direction : directions) {
+            mask |= 1 << direction.ordinal();
+        }
+        return (byte) mask;
+    }
+
+    /**
+     * @param mask      Maschera.
+     * @param direction Direzione da cercare (null non  mai contenuta).
+     * @return true se la maschera contiene la direzione.
+     */
+    public static boolean contains(byte mask, VectorDirection.CardinalDirection direction) {
+        return direction != null && (mask & (1 << direction.ordinal())) != 0;
+    }
+
+    /**
+     * @param mask Maschera.
+     * @return Numero di direzioni nella maschera.
+     */
+    public static int size(byte mask) {
+        return Integer.bitCount(mask & 0xFF);
+    }
+
+    /**
+     * @param bits Maschera non vuota (anche come int, es. durante una scansione dei bit).
+     * @return La direzione con l'ordinale pi basso tra quelle della maschera.
+     */
+    public static VectorDirection.CardinalDirection lowest(int bits) {
+        return DIRECTIONS[Integer.numberOfTrailingZeros(bits)];
+    }
+
+    /**
+     * Restituisce la direzione di posto index nella maschera, nell'ordine delle costanti
+     * di {@link VectorDirection.CardinalDirection} (come toList(mask).get(index)).
+     *
+     * @param mask  Maschera.
+     * @param index Posto della direzione, da 0 a size(mask) - 1.
+     * @return La direzione richiesta.
+     * @throws IndexOutOfBoundsException Se la maschera ha meno di index + 1 direzioni.
+     */
+    public static VectorDirection.CardinalDirection get(byte mask, int index) {
+        int bits = mask & 0xFF;
+        if (index < 0 || index >= Integer.bitCount(bits)) {
+            throw new IndexOutOfBoundsException("Direzione " + index + " di " + Integer.bitCount(bits));
+        }
+        for (int i = 0; i < index; i++) {
+            bits &= bits - 1;
+        }
+        return lowest(bits);
+    }
+
+    /**
+     * Sceglie a caso, con probabilit uniforme, una direzione della maschera.
+     * Estrae un solo numero casuale, come random.nextInt(toList(mask).size()).
+     *
+     * @param mask   Maschera.
+     * @param random Generatore di numeri casuali.
+     * @return Una direzione della maschera, oppure null se la maschera  vuota.
+     */
+    public static VectorDirection.CardinalDirection pick(byte mask, SplittableRandom random) {
+        int size = size(mask);
+        return size == 0 ? null : get(mask, random.nextInt(size));
+    }
+
+    /**
+     * Restituisce le direzioni della maschera, nell'ordine delle costanti di
+     * {@link VectorDirection.CardinalDirection}.
+     *
+     * @param mask Maschera.
+     * @return Lista immutabile e condivisa delle direzioni.
+     */
+    public static List<VectorDirection.CardinalDirection> toList(byte mask) {
+        return LISTS.get(mask & 0xFF);
+    }
+}
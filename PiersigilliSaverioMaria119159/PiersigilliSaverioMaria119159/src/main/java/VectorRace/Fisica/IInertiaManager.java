@@ -26,4 +26,18 @@ public interface IInertiaManager {
      */
     List<VectorDirection.CardinalDirection> allowedDirections(int currentVelocity,
                                                               VectorDirection.CardinalDirection previousDirection);
+
+    /**
+     * Restituisce le direzioni consentite come maschera di bit (vedi {@link DirectionMask}),
+     * senza creare liste. L'implementazione di default converte il risultato di
+     * {@link #allowedDirections}; le implementazioni con regole fisse possono
+     * restituire direttamente un valore precalcolato.
+     *
+     * @param currentVelocity   Velocit attuale del giocatore.
+     * @param previousDirection Direzione seguita al turno precedente.
+     * @return Maschera delle direzioni ammesse per il turno in corso.
+     */
+    default byte allowedDirectionMask(int currentVelocity, VectorDirection.CardinalDirection previousDirection) {
+        return DirectionMask.of(allowedDirections(currentVelocity, previousDirection));
+    }
 }
@@ -0,0 +1,401 @@
+package VectorRace.Fisica;
+
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ChunkedTrack;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.VectorDirection;
+
+/**
+ * TransitionGraph raccoglie in un'unica struttura compilata tutte le mosse possibili
+ * su un tracciato, secondo le stesse regole del motore di gioco:
+ * <ul>
+ *     <li>le direzioni ammesse dipendono da velocit e direzione precedente ({@link IInertiaManager});</li>
+ *     <li>l'accelerazione va da -1 a +1 e la velocit resta tra 0 e {@link #MAX_VELOCITY};</li>
+ *     <li>ci si sposta di tante celle quanto vale la nuova velocit, nella direzione scelta;</li>
+ *     <li>l'arrivo su un ostacolo  una collisione, fuori dal tracciato un'uscita.</li>
+ * </ul>
+ * Gli stati esistono solo sulle celle percorribili: ognuna ha un indice progressivo
+ * (nell'ordine per righe, saltando gli ostacoli) e ogni stato (cella, velocit,
+ * direzione precedente) ha l'identificativo intero denso (indice * 4 + velocit) * 8 + direzione.
+ * Un giocatore che non si  ancora mosso ha la direzione {@link #INITIAL_HEADING},
+ * come nel motore di gioco. Le mosse uscenti da ogni stato sono memorizzate
+ * in formato CSR: gli archi dello stato s sono quelli con indice da
+ * {@link #getFirstEdge(int)} (incluso) a {@link #getEndEdge(int)} (escluso), e per ciascuno
+ * sono noti stato di arrivo, esito, direzione e accelerazione. Un passo di simulazione
+ *  quindi una serie di letture su array, senza creare oggetti.
+ * <p>
+ * Le collisioni tra giocatori dipendono dalla gara in corso e non fanno parte del grafo.
+ *  immutabile e pu essere letto da pi thread.
+ */
+public final class TransitionGraph {
+
+    /**
+     * Chiave con cui il grafo  conservato tra i dati derivati di un {@link Track}.
+     */
+    private static final Track.DerivedKey<TransitionGraph> DERIVED_KEY =
+            new Track.DerivedKey<>("TransitionGraph", TransitionGraph.class);
+
+    /**
+     * Direzione precedente assegnata a un giocatore che non si  ancora mosso
+     * (la stessa impostata da {@link VectorRace.Motore.GameEngine#addPlayer}).
+     */
+    public static final VectorDirection.CardinalDirection INITIAL_HEADING = VectorDirection.CardinalDirection.E;
+
+    /**
+     * Velocit massima di un giocatore (e quindi passo massimo per turno).
+     */
+    public static final int MAX_VELOCITY = 3;
+
+    /**
+     * Accelerazioni ammesse a ogni turno.
+     */
+    public static final int MIN_ACCELERATION = -1;
+    public static final int MAX_ACCELERATION = 1;
+
+    /**
+     * Esito di una mossa: arrivo su una cella libera.
+     */
+    public static final byte FREE = 0;
+
+    /**
+     * Esito di una mossa: arrivo su un ostacolo (il giocatore viene eliminato).
+     */
+    public static final byte CRASH = 1;
+
+    /**
+     * Esito di una mossa: arrivo su un traguardo (la gara  vinta).
+     */
+    public static final byte FINISH = 2;
+
+    /**
+     * Esito di una mossa: arrivo fuori dal tracciato.
+     */
+    public static final byte OUT_OF_BOUNDS = 3;
+
+    /**
+     * Stato di arrivo delle mosse che terminano con una collisione o un'uscita.
+     */
+    public static final int NO_STATE = -1;
+
+    private static final int VELOCITIES = MAX_VELOCITY + 1;
+    private static final int HEADINGS = 8;
+    private static final int ACCELERATIONS = MAX_ACCELERATION - MIN_ACCELERATION + 1;
+    private static final VectorDirection.CardinalDirection[] DIRECTIONS = VectorDirection.CardinalDirection.values();
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Indice di ogni cella del tracciato (y * larghezza + x) tra quelle percorribili, -1 per gli ostacoli.
+     */
+    private final int[] slots;
+
+    /**
+     * Cella (y * larghezza + x) corrispondente a ogni indice di cella percorribile.
+     */
+    private final int[] slotCells;
+
+    /**
+     * offsets[s]  l'indice del primo arco dello stato s; offsets[stati]  il numero di archi.
+     */
+    private final int[] offsets;
+
+    /**
+     * Stato di arrivo di ogni arco, oppure {@link #NO_STATE}.
+     */
+    private final int[] targets;
+
+    /**
+     * Esito di ogni arco.
+     */
+    private final byte[] outcomes;
+
+    /**
+     * Mossa di ogni arco: direzione * 3 + (accelerazione - MIN_ACCELERATION).
+     */
+    private final byte[] moves;
+
+    private TransitionGraph(int width, int height, int[] slots, int[] slotCells,
+                            int[] offsets, int[] targets, byte[] outcomes, byte[] moves) {
+        this.width = width;
+        this.height = height;
+        this.slots = slots;
+        this.slotCells = slotCells;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.outcomes = outcomes;
+        this.moves = moves;
+    }
+
+    /**
+     * Restituisce il grafo di un tracciato con le regole di {@link DefaultInertiaManager}.
+     * Per un {@link Track} viene compilato una sola volta e condiviso da tutti i suoi utilizzatori;
+     * per le altre implementazioni viene compilato a ogni chiamata.
+     *
+     * @param track Tracciato.
+     * @return Il grafo delle transizioni.
+     */
+    public static TransitionGraph of(ITrack track) {
+        if (track instanceof Track) {
+            return ((Track) track).getDerived(DERIVED_KEY,
+                    t -> compile(t, new DefaultInertiaManager()));
+        }
+        return compile(track, new DefaultInertiaManager());
+    }
+
+    /**
+     * Compila il grafo delle transizioni di un tracciato.
+     *
+     * @param track          Tracciato.
+     * @param inertiaManager Regole sulle direzioni ammesse.
+     * @return Il grafo delle transizioni.
+     * @throws IllegalArgumentException Se il tracciato ha troppi stati o archi per degli array.
+     * @throws UnsupportedOperationException Per un {@link ChunkedTrack} troppo grande
+     *                                       (vedi {@link ChunkedTrack#checkDenseSupported}).
+     */
+    public static TransitionGraph compile(ITrack track, IInertiaManager inertiaManager) {
+        ChunkedTrack.checkDenseSupported(track, "TransitionGraph");
+        int width = track.getWidth();
+        int height = track.getHeight();
+        if ((long) width * height >= Integer.MAX_VALUE - 8) {
+            throw tooLarge(width, height);
+        }
+        int cellCount = width * height;
+
+        // Le mosse dipendono solo da velocit e direzione precedente: uno schema per coppia
+        byte[][] patterns = new byte[VELOCITIES * HEADINGS][];
+        int edgesPerCell = 0;
+        for (int velocity = 0; velocity < VELOCITIES; velocity++) {
+            for (int heading = 0; heading < HEADINGS; heading++) {
+                byte[] pattern = pattern(inertiaManager, velocity, heading);
+                patterns[velocity * HEADINGS + heading] = pattern;
+                edgesPerCell += pattern.length;
+            }
+        }
+
+        byte[] cells = new byte[cellCount];
+        int[] slots = new int[cellCount];
+        int freeCells = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                byte cell = track.getCellType(x, y);
+                cells[y * width + x] = cell;
+                slots[y * width + x] = cell == CellType.OBSTACLE ? -1 : freeCells++;
+            }
+        }
+        long stateCount = (long) freeCells * VELOCITIES * HEADINGS;
+        long edgeCount = (long) freeCells * edgesPerCell;
+        if (stateCount >= Integer.MAX_VALUE - 8 || edgeCount > Integer.MAX_VALUE - 8) {
+            throw tooLarge(width, height);
+        }
+        int[] slotCells = new int[freeCells];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (slots[cell] >= 0) {
+                slotCells[slots[cell]] = cell;
+            }
+        }
+
+        int[] offsets = new int[(int) stateCount + 1];
+        int[] targets = new int[(int) edgeCount];
+        byte[] outcomes = new byte[(int) edgeCount];
+        byte[] moves = new byte[(int) edgeCount];
+        int edge = 0;
+        int state = 0;
+        for (int cell : slotCells) {
+            int x = cell % width;
+            int y = cell / width;
+            for (int velocity = 0; velocity < VELOCITIES; velocity++) {
+                for (int heading = 0; heading < HEADINGS; heading++, state++) {
+                    offsets[state] = edge;
+                    for (byte move : patterns[velocity * HEADINGS + heading]) {
+                        VectorDirection.CardinalDirection direction = DIRECTIONS[move / ACCELERATIONS];
+                        int nextVelocity = clampVelocity(velocity + move % ACCELERATIONS + MIN_ACCELERATION);
+                        int nx = x + direction.getDx() * nextVelocity;
+                        int ny = y + direction.getDy() * nextVelocity;
+                        if (nx < 0 || nx >= width || ny < 0 || ny >= height) {
+                            targets[edge] = NO_STATE;
+                            outcomes[edge] = OUT_OF_BOUNDS;
+                        } else if (cells[ny * width + nx] == CellType.OBSTACLE) {
+                            targets[edge] = NO_STATE;
+                            outcomes[edge] = CRASH;
+                        } else {
+                            targets[edge] = (slots[ny * width + nx] * VELOCITIES + nextVelocity) * HEADINGS
+                                    + direction.ordinal();
+                            outcomes[edge] = cells[ny * width + nx] == CellType.FINISH ? FINISH : FREE;
+                        }
+                        moves[edge] = move;
+                        edge++;
+                    }
+                }
+            }
+        }
+        offsets[state] = edge;
+        return new TransitionGraph(width, height, slots, slotCells, offsets, targets, outcomes, moves);
+    }
+
+    /**
+     * Elenca le mosse (direzione, accelerazione) ammesse con una certa velocit e direzione precedente.
+     */
+    private static byte[] pattern(IInertiaManager inertiaManager, int velocity, int heading) {
+        byte allowed = inertiaManager.allowedDirectionMask(velocity, DIRECTIONS[heading]);
+        byte[] pattern = new byte[DirectionMask.size(allowed) * ACCELERATIONS];
+        int i = 0;
+        for (VectorDirection.CardinalDirection direction : DirectionMask.toList(allowed)) {
+            for (int a = 0; a < ACCELERATIONS; a++) {
+                pattern[i++] = (byte) (direction.ordinal() * ACCELERATIONS + a);
+            }
+        }
+        return pattern;
+    }
+
+    private static IllegalArgumentException tooLarge(int width, int height) {
+        return new IllegalArgumentException("Tracciato troppo grande per il grafo delle transizioni: "
+                + width + "x" + height + " celle.");
+    }
+
+    private static int clampVelocity(int velocity) {
+        return Math.max(0, Math.min(MAX_VELOCITY, velocity));
+    }
+
+    /**
+     * Restituisce l'identificativo di uno stato.
+     *
+     * @param x        Coordinata x.
+     * @param y        Coordinata y.
+     * @param velocity Velocit (da 0 a {@link #MAX_VELOCITY}).
+     * @param heading  Direzione precedente, oppure null se il giocatore non si  ancora mosso
+     *                 (equivale a {@link #INITIAL_HEADING}).
+     * @return L'identificativo dello stato, oppure {@link #NO_STATE} fuori dal tracciato o su un ostacolo.
+     * @throws IllegalArgumentException Se la velocit non  valida.
+     */
+    public int stateId(int x, int y, int velocity, VectorDirection.CardinalDirection heading) {
+        if (velocity < 0 || velocity > MAX_VELOCITY) {
+            throw new IllegalArgumentException("Velocit non valida: " + velocity);
+        }
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return NO_STATE;
+        }
+        int slot = slots[y * width + x];
+        if (slot < 0) {
+            return NO_STATE;
+        }
+        return (slot * VELOCITIES + velocity) * HEADINGS
+                + (heading == null ? INITIAL_HEADING : heading).ordinal();
+    }
+
+    /**
+     * @return Numero di stati (8 direzioni per 4 velocit per ogni cella percorribile).
+     */
+    public int getStateCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return Numero totale di mosse.
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param state Identificativo dello stato.
+     * @return Coordinata x della cella dello stato.
+     */
+    public int getX(int state) {
+        return slotCells[state / (VELOCITIES * HEADINGS)] % width;
+    }
+
+    /**
+     * @param state Identificativo dello stato.
+     * @return Coordinata y della cella dello stato.
+     */
+    public int getY(int state) {
+        return slotCells[state / (VELOCITIES * HEADINGS)] / width;
+    }
+
+    /**
+     * @param state Identificativo dello stato.
+     * @return Velocit dello stato.
+     */
+    public int getVelocity(int state) {
+        return state / HEADINGS % VELOCITIES;
+    }
+
+    /**
+     * @param state Identificativo dello stato.
+     * @return Direzione precedente dello stato.
+     */
+    public VectorDirection.CardinalDirection getHeading(int state) {
+        return DIRECTIONS[state % HEADINGS];
+    }
+
+    /**
+     * @param state Identificativo dello stato.
+     * @return Indice della prima mossa dello stato.
+     */
+    public int getFirstEdge(int state) {
+        return offsets[state];
+    }
+
+    /**
+     * @param state Identificativo dello stato.
+     * @return Indice successivo all'ultima mossa dello stato.
+     */
+    public int getEndEdge(int state) {
+        return offsets[state + 1];
+    }
+
+    /**
+     * @param edge Indice della mossa.
+     * @return Stato di arrivo, oppure {@link #NO_STATE} per collisioni e uscite.
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * @param edge Indice della mossa.
+     * @return Esito della mossa ({@link #FREE}, {@link #CRASH}, {@link #FINISH} o {@link #OUT_OF_BOUNDS}).
+     */
+    public byte getOutcome(int edge) {
+        return outcomes[edge];
+    }
+
+    /**
+     * @param edge Indice della mossa.
+     * @return Direzione scelta con la mossa.
+     */
+    public VectorDirection.CardinalDirection getDirection(int edge) {
+        return DIRECTIONS[moves[edge] / ACCELERATIONS];
+    }
+
+    /**
+     * @param edge Indice della mossa.
+     * @return Accelerazione scelta con la mossa.
+     */
+    public int getAcceleration(int edge) {
+        return moves[edge] % ACCELERATIONS + MIN_ACCELERATION;
+    }
+
+    /**
+     * Cerca la mossa di uno stato con la direzione e l'accelerazione indicate.
+     *
+     * @param state        Identificativo dello stato.
+     * @param direction    Direzione scelta.
+     * @param acceleration Accelerazione scelta.
+     * @return Indice della mossa, oppure -1 se la mossa non  ammessa.
+     */
+    public int findEdge(int state, VectorDirection.CardinalDirection direction, int acceleration) {
+        if (acceleration < MIN_ACCELERATION || acceleration > MAX_ACCELERATION) {
+            return -1;
+        }
+        byte move = (byte) (direction.ordinal() * ACCELERATIONS + acceleration - MIN_ACCELERATION);
+        for (int edge = offsets[state]; edge < offsets[state + 1]; edge++) {
+            if (moves[edge] == move) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+}
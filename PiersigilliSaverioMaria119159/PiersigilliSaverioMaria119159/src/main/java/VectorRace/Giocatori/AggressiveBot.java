@@ -1,12 +1,9 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
 /**
  * La classe AggressiveBot estende BasePlayer e rappresenta
  * un giocatore "aggressivo" all'interno del gioco VectorRace.
@@ -15,9 +12,6 @@ import java.util.Random;
  */
 public class AggressiveBot extends BasePlayer {
 
-    // Istanza di Random usata per selezionare le direzioni in modo aleatorio.
-    private Random random = new Random();
-
     /**
      * Costruttore di AggressiveBot.
      * @param name Nome del bot.
@@ -35,13 +29,17 @@ public class AggressiveBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        // Copia tutte le direzioni ammesse in una lista.
-        List<VectorDirection.CardinalDirection> options = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            options.add(dir);
-        }
-        // Seleziona in modo casuale un indice tra gli elementi della lista.
-        return options.get(random.nextInt(options.size()));
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Sceglie una direzione in modo casuale tra quelle della maschera.
+     * @param allowedDirections Maschera delle direzioni consentite in questo turno.
+     * @return Una delle direzioni ammesse, oppure null se la maschera  vuota.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
+        return DirectionMask.pick(allowedDirections, random);
     }
 
     /**
@@ -2,6 +2,8 @@ package VectorRace.Giocatori;
 
 import VectorRace.Posizione.Position;
 
+import java.util.SplittableRandom;
+
 /**
  * BasePlayer fornisce unimplementazione parziale dellinterfaccia IPlayer.
  *  una classe astratta, quindi non pu essere istanziata direttamente,
@@ -16,13 +18,23 @@ public abstract class BasePlayer implements IPlayer {
 
     /**
      * Posizione attuale del giocatore sulla mappa o tracciato.
+     *  volatile perch il motore la aggiorna dal proprio thread mentre le decisioni
+     * degli altri giocatori, calcolate su altri thread, possono leggerla.
      */
-    protected Position currentPosition;
+    protected volatile Position currentPosition;
 
     /**
-     * Velocit attuale del giocatore, con un limite minimo di 0 e massimo di 3.
+     * Velocit attuale del giocatore, con un limite minimo di 0 e massimo di 3
+     * (volatile per lo stesso motivo di {@link #currentPosition}).
      */
-    protected int velocity;
+    protected volatile int velocity;
+
+    /**
+     * Generatore di numeri casuali usato dalle sottoclassi per le scelte aleatorie.
+     * Di default ha un seme casuale; il motore di gioco lo sostituisce con un flusso
+     * derivato dal seme della gara tramite {@link #setRandom(SplittableRandom)}.
+     */
+    protected SplittableRandom random = new SplittableRandom();
 
     /**
      * Costruttore di BasePlayer.
@@ -92,6 +104,16 @@ public abstract class BasePlayer implements IPlayer {
 
         this.velocity = velocity;
     }
+
+    /**
+     * Sostituisce il generatore di numeri casuali del giocatore (implementazione di IPlayer).
+     *
+     * @param random Flusso di numeri casuali riservato a questo giocatore.
+     */
+    @Override
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
 }
 
 
@@ -1,23 +1,15 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
 /**
  * BotPlayer  una semplice implementazione di un bot che sceglie
  * una direzione e unaccelerazione in modo completamente casuale.
  */
 public class BotPlayer extends BasePlayer {
 
-    /**
-     * Istanza di Random utilizzata per effettuare scelte pseudo-casuali.
-     */
-    private Random random = new Random();
-
     /**
      * Costruttore di BotPlayer.
      *
@@ -38,14 +30,18 @@ public class BotPlayer extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        // Trasforma l'Iterable in una List per semplificare la selezione casuale.
-        List<VectorDirection.CardinalDirection> options = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            options.add(dir);
-        }
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
 
-        // Sceglie e restituisce una direzione casuale dalla lista.
-        return options.get(random.nextInt(options.size()));
+    /**
+     * Sceglie casualmente una direzione fra quelle della maschera, senza costruire liste.
+     *
+     * @param allowedDirections Maschera delle direzioni ammesse in questo turno.
+     * @return Una direzione selezionata a caso, oppure null se la maschera  vuota.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
+        return DirectionMask.pick(allowedDirections, random);
     }
 
     /**
@@ -1,12 +1,12 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
+import VectorRace.Posizione.PositionCache;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
  * ChaserBot si concentra sull'inseguimento di un avversario (per impostazione predefinita,
@@ -16,7 +16,11 @@ public class ChaserBot extends BasePlayer {
 
     private ITrack track;
     private List<IPlayer> players; // Riferimento a tutti i giocatori in partita
-    private Random random = new Random();
+
+    /**
+     * Posizioni condivise delle celle del tracciato, usate per le celle vicine.
+     */
+    private PositionCache positions;
 
     /**
      * Costruttore di ChaserBot.
@@ -37,6 +41,14 @@ public class ChaserBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Come {@link #chooseDirection(Iterable)}, scorrendo direttamente i bit della maschera.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
         // Trova il giocatore bersaglio (il pi vicino).
         IPlayer target = findClosestPlayer();
         if (target == null) {
@@ -50,7 +62,8 @@ public class ChaserBot extends BasePlayer {
         VectorDirection.CardinalDirection bestDir = null;
         double bestDist = Double.MAX_VALUE; // vogliamo minimizzare la distanza
 
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
+        for (int bits = allowedDirections & 0xFF; bits != 0; bits &= bits - 1) {
+            VectorDirection.CardinalDirection dir = DirectionMask.lowest(bits);
             // Calcola la prossima cella in questa direzione
             Position nextPos = getNextPosition(this.currentPosition, dir);
 
@@ -114,18 +127,16 @@ public class ChaserBot extends BasePlayer {
     /**
      * Sceglie casualmente una direzione fra quelle ammesse e sicure.
      */
-    private VectorDirection.CardinalDirection randomSafeDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        List<VectorDirection.CardinalDirection> safeDirs = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
+    private VectorDirection.CardinalDirection randomSafeDirection(byte allowedDirections) {
+        int safeDirs = DirectionMask.NONE;
+        for (int bits = allowedDirections & 0xFF; bits != 0; bits &= bits - 1) {
+            VectorDirection.CardinalDirection dir = DirectionMask.lowest(bits);
             Position nextPos = getNextPosition(this.currentPosition, dir);
             if (track.isFree(nextPos)) {
-                safeDirs.add(dir);
+                safeDirs |= DirectionMask.of(dir);
             }
         }
-        if (safeDirs.isEmpty()) {
-            return null;
-        }
-        return safeDirs.get(random.nextInt(safeDirs.size()));
+        return DirectionMask.pick((byte) safeDirs, random);
     }
 
     /**
@@ -139,20 +150,9 @@ public class ChaserBot extends BasePlayer {
      * Calcola la prossima posizione, spostandosi di 1 cella nella direzione specificata.
      */
     private Position getNextPosition(Position current, VectorDirection.CardinalDirection direction) {
-        int x = current.getX();
-        int y = current.getY();
-
-        switch (direction) {
-            case N:  y -= 1; break;
-            case NE: x += 1; y -= 1; break;
-            case E:  x += 1; break;
-            case SE: x += 1; y += 1; break;
-            case S:  y += 1; break;
-            case SW: x -= 1; y += 1; break;
-            case W:  x -= 1; break;
-            case NW: x -= 1; y -= 1; break;
+        if (positions == null) {
+            positions = PositionCache.of(track);
         }
-
-        return new Position(x, y);
+        return positions.offset(current, direction, 1);
     }
 }
@@ -1,13 +1,13 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Fisica.DirectionMask;
+import VectorRace.Posizione.ClearanceTable;
+import VectorRace.Posizione.DistanceField;
 import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
+import VectorRace.Posizione.PositionCache;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
 /**
  * GreedyBot rappresenta un bot "goloso" (o avido) che sceglie la direzione
  * cercando di avvicinarsi il pi possibile al traguardo e allo stesso tempo
@@ -16,20 +16,32 @@ import java.util.Random;
  * - Se non c' un traguardo definito, si comporta come un bot casuale "sicuro".
  * - Quando c' un traguardo, valuta ciascuna direzione sicura
  *   combinando due fattori:
- *       1. Distanza Manhattan dal traguardo (pi  piccola, meglio ).
- *       2. Distanza fino al prossimo ostacolo nella direzione scelta (pi  grande, meglio ).
+ *       1. Distanza dal traguardo lungo il tracciato (pi  piccola, meglio ),
+ *          letta dal {@link DistanceField} condiviso del tracciato.
+ *       2. Distanza fino al prossimo ostacolo nella direzione scelta (pi  grande, meglio ),
+ *          letta dalla {@link ClearanceTable} condivisa del tracciato.
  */
 public class GreedyBot extends BasePlayer {
 
     /**
-     * Generatore di numeri casuali per scelte aleatorie nelle situazioni di parit.
+     * Riferimento al tracciato (ITrack) su cui si muove il bot.
      */
-    private Random random = new Random();
+    private ITrack track;
 
     /**
-     * Riferimento al tracciato (ITrack) su cui si muove il bot.
+     * Posizioni condivise delle celle del tracciato, usate per le celle vicine.
      */
-    private ITrack track;
+    private PositionCache positions;
+
+    /**
+     * Distanze dal traguardo, calcolate alla prima scelta di direzione.
+     */
+    private DistanceField distanceField;
+
+    /**
+     * Distanze dagli ostacoli nelle 8 direzioni, calcolate alla prima scelta di direzione.
+     */
+    private ClearanceTable clearanceTable;
 
     /**
      * Costruttore di GreedyBot.
@@ -55,6 +67,17 @@ public class GreedyBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Come {@link #chooseDirection(Iterable)}, scorrendo direttamente i bit della maschera.
+     *
+     * @param allowedDirections Maschera delle direzioni consentite in questo turno.
+     * @return La direzione selezionata dal bot, oppure null se nessuna  sicura.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
         Position finish = track.getFinishPosition();
         // Se non esiste una posizione di traguardo, comportati come bot casuale sicuro.
         if (finish == null) {
@@ -65,7 +88,8 @@ public class GreedyBot extends BasePlayer {
         double bestScore = Double.NEGATIVE_INFINITY;
 
         // Valuta ogni direzione consentita
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
+        for (int bits = allowedDirections & 0xFF; bits != 0; bits &= bits - 1) {
+            VectorDirection.CardinalDirection dir = DirectionMask.lowest(bits);
             Position nextPos = getNextPosition(this.currentPosition, dir);
 
             // Salta la direzione se la cella non  libera
@@ -73,8 +97,8 @@ public class GreedyBot extends BasePlayer {
                 continue;
             }
 
-            // Distanza dal traguardo (Manhattan)
-            int distanceToFinish = manhattanDistance(nextPos, finish);
+            // Distanza dal traguardo (lungo il tracciato, aggirando gli ostacoli)
+            int distanceToFinish = finishDistances().rankDistance(nextPos);
 
             // Distanza fino al prossimo ostacolo in questa direzione
             int distanceToObstacle = distanceToNextObstacle(nextPos, dir);
@@ -113,63 +137,46 @@ public class GreedyBot extends BasePlayer {
      * Se non  definito alcun traguardo, sceglie in modo casuale una direzione
      * che non porti immediatamente a un ostacolo.
      *
-     * @param allowedDirections Direzioni consentite in questo turno.
+     * @param allowedDirections Maschera delle direzioni consentite in questo turno.
      * @return Una direzione "sicura" scelta a caso, o null se non ce ne sono.
      */
-    private VectorDirection.CardinalDirection randomSafeDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        List<VectorDirection.CardinalDirection> safeDirs = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
+    private VectorDirection.CardinalDirection randomSafeDirection(byte allowedDirections) {
+        int safeDirs = DirectionMask.NONE;
+        for (int bits = allowedDirections & 0xFF; bits != 0; bits &= bits - 1) {
+            VectorDirection.CardinalDirection dir = DirectionMask.lowest(bits);
             Position nextPos = getNextPosition(this.currentPosition, dir);
             // Aggiunge la direzione se porta a una cella libera
             if (track.isFree(nextPos)) {
-                safeDirs.add(dir);
+                safeDirs |= DirectionMask.of(dir);
             }
         }
         // Se non ci sono direzioni sicure, ritorna null
-        return safeDirs.isEmpty() ? null : safeDirs.get(random.nextInt(safeDirs.size()));
+        return DirectionMask.pick((byte) safeDirs, random);
     }
 
     /**
-     * Calcola la distanza Manhattan tra due posizioni,
-     * cio la somma della differenza assoluta sulle coordinate x e y.
-     *
-     * @param p1 Prima posizione.
-     * @param p2 Seconda posizione.
-     * @return Distanza Manhattan tra p1 e p2.
+     * Restituisce il campo di distanze dal traguardo del tracciato, calcolato alla prima richiesta.
      */
-    private int manhattanDistance(Position p1, Position p2) {
-        return Math.abs(p1.getX() - p2.getX()) + Math.abs(p1.getY() - p2.getY());
+    private DistanceField finishDistances() {
+        if (distanceField == null) {
+            distanceField = DistanceField.of(track);
+        }
+        return distanceField;
     }
 
     /**
-     * Calcola la distanza (in celle) fino al prossimo ostacolo nella direzione specificata,
-     * partendo da una posizione iniziale.
+     * Restituisce la distanza (in celle) fino al prossimo ostacolo nella direzione specificata,
+     * partendo da una posizione iniziale. Il valore  letto in O(1) dalla tabella del tracciato.
      *
      * @param start     Posizione di partenza.
      * @param direction Direzione da seguire.
      * @return Numero di celle "libere" prima di incontrare un ostacolo o uscire dai confini.
      */
     private int distanceToNextObstacle(Position start, VectorDirection.CardinalDirection direction) {
-        int distance = 0;
-        Position current = start;
-
-        while (true) {
-            // Calcola la prossima cella nella direzione scelta
-            Position next = getNextPosition(current, direction);
-
-            // Controlla se  fuori dai confini
-            boolean outOfBounds = next.getX() < 0 || next.getX() >= track.getWidth()
-                    || next.getY() < 0 || next.getY() >= track.getHeight();
-            // Se siamo fuori dal tracciato o la cella non  libera, interrompe il conteggio.
-            if (outOfBounds || !track.isFree(next)) {
-                break;
-            }
-
-            distance++;
-            current = next;
+        if (clearanceTable == null) {
+            clearanceTable = ClearanceTable.of(track);
         }
-
-        return distance;
+        return clearanceTable.clearance(start, direction);
     }
 
     /**
@@ -181,20 +188,9 @@ public class GreedyBot extends BasePlayer {
      * @return          Nuova posizione dopo essersi spostati di una cella.
      */
     private Position getNextPosition(Position current, VectorDirection.CardinalDirection direction) {
-        int x = current.getX();
-        int y = current.getY();
-
-        switch (direction) {
-            case N:  y -= 1; break;
-            case NE: x += 1; y -= 1; break;
-            case E:  x += 1; break;
-            case SE: x += 1; y += 1; break;
-            case S:  y += 1; break;
-            case SW: x -= 1; y += 1; break;
-            case W:  x -= 1; break;
-            case NW: x -= 1; y -= 1; break;
+        if (positions == null) {
+            positions = PositionCache.of(track);
         }
-
-        return new Position(x, y);
+        return positions.offset(current, direction, 1);
     }
 }
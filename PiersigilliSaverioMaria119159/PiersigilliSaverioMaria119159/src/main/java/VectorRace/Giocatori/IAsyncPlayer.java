@@ -0,0 +1,42 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Fisica.DirectionMask;
+import VectorRace.Posizione.VectorDirection;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * IAsyncPlayer  il contratto dei giocatori che decidono in modo asincrono,
+ * ad esempio perch attendono un input da console o una risposta dalla rete.
+ * <p>
+ * Invece di bloccare il thread del motore, il giocatore restituisce subito
+ * un {@link CompletableFuture} che verr completato con la decisione del turno
+ * (direzione e accelerazione insieme). Il motore attende tutte le decisioni
+ * in sospeso, eventualmente entro un tempo limite.
+ * <p>
+ * Un giocatore asincrono implementa anche {@link IPlayer}, che resta il contratto
+ * per posizione e velocit; i giocatori sincroni esistenti vengono adattati
+ * tramite {@link SyncPlayerAdapter}.
+ */
+public interface IAsyncPlayer {
+
+    /**
+     * Avvia la decisione del turno.
+     *
+     * @param allowedDirections Direzioni consentite in questo turno.
+     * @return Future completato con la decisione del giocatore.
+     */
+    CompletableFuture<PlayerDecision> decide(Iterable<VectorDirection.CardinalDirection> allowedDirections);
+
+    /**
+     * Avvia la decisione del turno a partire dalla maschera delle direzioni consentite
+     * ({@link DirectionMask}), come la passa il motore di gioco. L'implementazione di default
+     * passa la lista immutabile corrispondente a {@link #decide(Iterable)}.
+     *
+     * @param allowedDirections Maschera delle direzioni consentite in questo turno.
+     * @return Future completato con la decisione del giocatore.
+     */
+    default CompletableFuture<PlayerDecision> decide(byte allowedDirections) {
+        return decide(DirectionMask.toList(allowedDirections));
+    }
+}
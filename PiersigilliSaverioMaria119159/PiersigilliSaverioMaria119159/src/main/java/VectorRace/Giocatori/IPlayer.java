@@ -1,8 +1,11 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
+import java.util.SplittableRandom;
+
 /**
  * L'interfaccia IPlayer definisce le operazioni di base richieste
  * a un "giocatore" (umano o bot) all'interno del gioco VectorRace.
@@ -51,6 +54,19 @@ public interface IPlayer {
      */
     VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections);
 
+    /**
+     * Sceglie una direzione tra quelle di una maschera ({@link DirectionMask}).
+     *  la variante usata dal motore di gioco: i bot la ridefiniscono per scorrere
+     * direttamente i bit della maschera; l'implementazione di default passa
+     * la lista immutabile corrispondente a {@link #chooseDirection(Iterable)}.
+     *
+     * @param allowedDirections Maschera delle direzioni consentite in questo turno.
+     * @return La direzione selezionata per il turno.
+     */
+    default VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
+        return chooseDirection(DirectionMask.toList(allowedDirections));
+    }
+
     /**
      * Sceglie l'accelerazione (variazione di velocit).
      * Il contratto prevede tre valori possibili:
@@ -59,4 +75,15 @@ public interface IPlayer {
      * @return Un intero compreso tra -1 e +1.
      */
     int chooseAcceleration();
+
+    /**
+     * Assegna al giocatore il generatore di numeri casuali da usare nelle sue scelte.
+     * Il motore di gioco lo invoca all'avvio della gara con un flusso dedicato,
+     * derivato dal seme della gara, cos che le partite siano riproducibili.
+     * L'implementazione di default lo ignora (giocatori deterministici o umani).
+     *
+     * @param random Flusso di numeri casuali riservato a questo giocatore.
+     */
+    default void setRandom(SplittableRandom random) {
+    }
 }
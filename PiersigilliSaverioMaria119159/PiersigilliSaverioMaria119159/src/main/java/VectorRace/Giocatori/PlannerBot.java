@@ -0,0 +1,204 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Fisica.DirectionMask;
+import VectorRace.Fisica.TransitionGraph;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+
+/**
+ * PlannerBot pianifica l'intera corsa sul {@link TransitionGraph} del tracciato:
+ * con una visita in ampiezza sugli stati (cella, velocit, direzione precedente)
+ * trova la sequenza pi breve di mosse, in turni, che porta al traguardo senza
+ * collisioni n uscite, e la segue mossa per mossa.
+ * <p>
+ * Se lo stato reale non  quello previsto dal piano (es. il turno  stato saltato
+ * per una cella occupata) il piano viene ricalcolato. Se il traguardo non 
+ * raggiungibile sceglie una mossa che non porti fuori pista, altrimenti resta fermo.
+ * Gli altri giocatori non fanno parte del grafo e vengono ignorati.
+ */
+public class PlannerBot extends BasePlayer {
+
+    private ITrack track;
+
+    /**
+     * Grafo delle transizioni del tracciato, compilato alla prima scelta di direzione.
+     */
+    private TransitionGraph graph;
+
+    /**
+     * Direzione precedente del bot, tenuta aggiornata come fa il motore di gioco.
+     */
+    private VectorDirection.CardinalDirection heading = TransitionGraph.INITIAL_HEADING;
+
+    /**
+     * Mosse (indici di arco) del piano corrente; planStep  la prossima da eseguire.
+     */
+    private int[] plan = new int[0];
+    private int planStep;
+
+    /**
+     * Stato in cui il piano prevede di trovarsi al prossimo turno.
+     */
+    private int expectedState = TransitionGraph.NO_STATE;
+
+    /**
+     * Accelerazione della mossa scelta in {@link #chooseDirection}.
+     */
+    private int plannedAcceleration;
+
+    /**
+     * Strutture della visita, riusate tra un ricalcolo e l'altro: arco e stato
+     * da cui ogni stato  stato raggiunto, numero della visita che l'ha raggiunto e coda.
+     */
+    private int[] reachedBy;
+    private int[] reachedFrom;
+    private int[] visitedIn;
+    private int[] queue;
+    private int visit;
+
+    /**
+     * Costruttore di PlannerBot.
+     *
+     * @param name  Nome del bot.
+     * @param start Posizione di partenza.
+     * @param track Tracciato di gioco.
+     */
+    public PlannerBot(String name, Position start, ITrack track) {
+        super(name, start);
+        this.track = track;
+    }
+
+    /**
+     * Restituisce la direzione della prossima mossa del piano, ricalcolandolo se necessario.
+     *
+     * @param allowedDirections Direzioni consentite in questo turno.
+     * @return La direzione scelta, oppure null se ogni mossa porta a una collisione.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Come {@link #chooseDirection(Iterable)}, con la maschera delle direzioni consentite.
+     *
+     * @param allowed Maschera delle direzioni consentite in questo turno.
+     * @return La direzione scelta, oppure null se ogni mossa porta a una collisione.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(byte allowed) {
+        if (graph == null) {
+            graph = TransitionGraph.of(track);
+        }
+        Position position = getCurrentPosition();
+        int velocity = Math.max(0, Math.min(TransitionGraph.MAX_VELOCITY, getVelocity()));
+        int state = graph.stateId(position.getX(), position.getY(), velocity, heading);
+        if (state == TransitionGraph.NO_STATE) {
+            return null;
+        }
+
+        if (planStep >= plan.length || state != expectedState
+                || !DirectionMask.contains(allowed, graph.getDirection(plan[planStep]))) {
+            replan(state, allowed);
+        }
+
+        int edge = planStep < plan.length ? plan[planStep++] : safeEdge(state, allowed);
+        if (edge < 0) {
+            expectedState = TransitionGraph.NO_STATE;
+            return null;
+        }
+        expectedState = graph.getTarget(edge);
+        plannedAcceleration = graph.getAcceleration(edge);
+        heading = graph.getDirection(edge);
+        return heading;
+    }
+
+    /**
+     * Restituisce l'accelerazione della mossa scelta da {@link #chooseDirection}.
+     *
+     * @return Un intero tra -1 e +1.
+     */
+    @Override
+    public int chooseAcceleration() {
+        return plannedAcceleration;
+    }
+
+    /**
+     * Calcola il piano pi breve dallo stato indicato a un traguardo con una visita
+     * in ampiezza; la prima mossa deve avere una delle direzioni consentite.
+     * Se il traguardo non  raggiungibile il piano resta vuoto.
+     */
+    private void replan(int start, byte allowed) {
+        int states = graph.getStateCount();
+        if (reachedBy == null) {
+            reachedBy = new int[states];
+            reachedFrom = new int[states];
+            visitedIn = new int[states];
+            queue = new int[states];
+        }
+        visit++;
+        plan = new int[0];
+        planStep = 0;
+
+        visitedIn[start] = visit;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int edge = graph.getFirstEdge(state); edge < graph.getEndEdge(state); edge++) {
+                if (state == start && !DirectionMask.contains(allowed, graph.getDirection(edge))) {
+                    continue;
+                }
+                byte outcome = graph.getOutcome(edge);
+                if (outcome == TransitionGraph.FINISH) {
+                    plan = pathTo(start, state, edge);
+                    return;
+                }
+                int target = graph.getTarget(edge);
+                if (outcome == TransitionGraph.FREE && visitedIn[target] != visit) {
+                    visitedIn[target] = visit;
+                    reachedBy[target] = edge;
+                    reachedFrom[target] = state;
+                    queue[tail++] = target;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ricostruisce le mosse dallo stato di partenza fino all'arco che tocca il traguardo.
+     */
+    private int[] pathTo(int start, int last, int finishEdge) {
+        int length = 1;
+        for (int state = last; state != start; state = reachedFrom[state]) {
+            length++;
+        }
+        int[] path = new int[length];
+        path[--length] = finishEdge;
+        for (int state = last; state != start; state = reachedFrom[state]) {
+            path[--length] = reachedBy[state];
+        }
+        return path;
+    }
+
+    /**
+     * Sceglie a caso una mossa consentita che non porti a una collisione o fuori pista.
+     *
+     * @return L'indice della mossa, oppure -1 se non ce ne sono.
+     */
+    private int safeEdge(int state, byte allowed) {
+        int chosen = -1;
+        int candidates = 0;
+        for (int edge = graph.getFirstEdge(state); edge < graph.getEndEdge(state); edge++) {
+            byte outcome = graph.getOutcome(edge);
+            if ((outcome == TransitionGraph.FREE || outcome == TransitionGraph.FINISH)
+                    && DirectionMask.contains(allowed, graph.getDirection(edge))
+                    && random.nextInt(++candidates) == 0) {
+                chosen = edge;
+            }
+        }
+        return chosen;
+    }
+}
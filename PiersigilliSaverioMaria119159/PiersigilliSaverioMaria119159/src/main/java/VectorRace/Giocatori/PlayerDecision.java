@@ -0,0 +1,93 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Posizione.VectorDirection;
+
+/**
+ * PlayerDecision rappresenta la scelta completa di un giocatore per un turno:
+ * la direzione e l'accelerazione.
+ * <p>
+ * Una direzione null indica che il giocatore resta fermo
+ * (ad esempio perch non ha direzioni sicure); in quel caso l'accelerazione  0.
+ *  un oggetto immutabile, quindi pu essere prodotto su un thread
+ * e applicato dal motore di gioco su un altro.
+ */
+public class PlayerDecision {
+
+    /**
+     * Decisione di restare fermi.
+     */
+    private static final PlayerDecision STAY = new PlayerDecision(null, 0);
+
+    private final VectorDirection.CardinalDirection direction;
+    private final int acceleration;
+
+    /**
+     * Costruttore di PlayerDecision.
+     *
+     * @param direction    Direzione scelta (null per restare fermi).
+     * @param acceleration Accelerazione scelta (-1, 0 o +1).
+     */
+    public PlayerDecision(VectorDirection.CardinalDirection direction, int acceleration) {
+        this.direction = direction;
+        this.acceleration = acceleration;
+    }
+
+    /**
+     * Restituisce la decisione di restare fermi.
+     *
+     * @return Una decisione senza direzione e con accelerazione 0.
+     */
+    public static PlayerDecision stay() {
+        return STAY;
+    }
+
+    /**
+     * Chiede a un giocatore sincrono la decisione del turno:
+     * prima la direzione e, solo se il giocatore si muove, l'accelerazione.
+     *
+     * @param player            Il giocatore che deve decidere.
+     * @param allowedDirections Direzioni consentite in questo turno.
+     * @return La decisione del giocatore.
+     */
+    public static PlayerDecision of(IPlayer player,
+                                    Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        VectorDirection.CardinalDirection direction = player.chooseDirection(allowedDirections);
+        if (direction == null) {
+            return STAY;
+        }
+        return new PlayerDecision(direction, player.chooseAcceleration());
+    }
+
+    /**
+     * Come {@link #of(IPlayer, Iterable)}, ma con la maschera delle direzioni consentite
+     * ({@link VectorRace.Fisica.DirectionMask}), passata al giocatore senza convertirla in lista.
+     *
+     * @param player            Il giocatore che deve decidere.
+     * @param allowedDirections Maschera delle direzioni consentite in questo turno.
+     * @return La decisione del giocatore.
+     */
+    public static PlayerDecision of(IPlayer player, byte allowedDirections) {
+        VectorDirection.CardinalDirection direction = player.chooseDirection(allowedDirections);
+        if (direction == null) {
+            return STAY;
+        }
+        return new PlayerDecision(direction, player.chooseAcceleration());
+    }
+
+    public VectorDirection.CardinalDirection getDirection() {
+        return direction;
+    }
+
+    public int getAcceleration() {
+        return acceleration;
+    }
+
+    /**
+     * Indica se il giocatore ha deciso di restare fermo.
+     *
+     * @return true se non  stata scelta alcuna direzione.
+     */
+    public boolean isStay() {
+        return direction == null;
+    }
+}
@@ -1,23 +1,34 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Fisica.DirectionMask;
+import VectorRace.Posizione.DistanceField;
 import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
+import VectorRace.Posizione.PositionCache;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
  * SafeRunnerBot cerca di correre verso il traguardo,
  * ma allo stesso tempo evita di avvicinarsi troppo agli altri giocatori.
- * Score = -(distanceToFinish) + alpha * (distanceToClosestPlayer).
+ * Score = -(distanceToFinish) + alpha * (distanceToClosestPlayer),
+ * dove distanceToFinish  letta dal {@link DistanceField} condiviso del tracciato.
  */
 public class SafeRunnerBot extends BasePlayer {
 
     private ITrack track;
     private List<IPlayer> players;
-    private Random random = new Random();
+
+    /**
+     * Posizioni condivise delle celle del tracciato, usate per le celle vicine.
+     */
+    private PositionCache positions;
+
+    /**
+     * Distanze dal traguardo, calcolate alla prima scelta di direzione.
+     */
+    private DistanceField distanceField;
 
     // Fattore di bilanciamento tra "vicinanza al traguardo" e "lontananza dagli altri"
     private double alpha = 0.5;
@@ -45,6 +56,17 @@ public class SafeRunnerBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Come {@link #chooseDirection(Iterable)}, scorrendo direttamente i bit della maschera.
+     *
+     * @param allowedDirections Maschera delle direzioni ammesse in questo turno.
+     * @return La direzione con score migliore o null se nessuna  sicura.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
         Position finish = track.getFinishPosition();
         if (finish == null) {
             // Se non esiste traguardo, comportati come un bot casuale "sicuro".
@@ -54,7 +76,8 @@ public class SafeRunnerBot extends BasePlayer {
         double bestScore = Double.NEGATIVE_INFINITY;
         VectorDirection.CardinalDirection bestDir = null;
 
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
+        for (int bits = allowedDirections & 0xFF; bits != 0; bits &= bits - 1) {
+            VectorDirection.CardinalDirection dir = DirectionMask.lowest(bits);
             Position nextPos = getNextPosition(this.currentPosition, dir);
 
             // Deve essere libera
@@ -62,8 +85,8 @@ public class SafeRunnerBot extends BasePlayer {
                 continue;
             }
 
-            // Calcoliamo la distanza al traguardo (Manhattan)
-            int distFinish = manhattanDistance(nextPos, finish);
+            // Calcoliamo la distanza al traguardo (lungo il tracciato, aggirando gli ostacoli)
+            int distFinish = finishDistances().rankDistance(nextPos);
 
             // Distanza minima dagli altri giocatori
             double distPlayers = distanceToClosestPlayer(nextPos);
@@ -124,18 +147,16 @@ public class SafeRunnerBot extends BasePlayer {
      * Ritorna la direzione libera scelta a caso fra quelle permesse.
      * Restituisce null se non ne esistono.
      */
-    private VectorDirection.CardinalDirection randomSafeDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        List<VectorDirection.CardinalDirection> safeDirs = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
+    private VectorDirection.CardinalDirection randomSafeDirection(byte allowedDirections) {
+        int safeDirs = DirectionMask.NONE;
+        for (int bits = allowedDirections & 0xFF; bits != 0; bits &= bits - 1) {
+            VectorDirection.CardinalDirection dir = DirectionMask.lowest(bits);
             Position nextPos = getNextPosition(this.currentPosition, dir);
             if (track.isFree(nextPos)) {
-                safeDirs.add(dir);
+                safeDirs |= DirectionMask.of(dir);
             }
         }
-        if (safeDirs.isEmpty()) {
-            return null;
-        }
-        return safeDirs.get(random.nextInt(safeDirs.size()));
+        return DirectionMask.pick((byte) safeDirs, random);
     }
 
     /**
@@ -155,6 +176,16 @@ public class SafeRunnerBot extends BasePlayer {
         return minDist;
     }
 
+    /**
+     * Campo di distanze dal traguardo del tracciato, calcolato alla prima richiesta.
+     */
+    private DistanceField finishDistances() {
+        if (distanceField == null) {
+            distanceField = DistanceField.of(track);
+        }
+        return distanceField;
+    }
+
     /**
      * Distanza Manhattan.
      */
@@ -166,19 +197,10 @@ public class SafeRunnerBot extends BasePlayer {
      * Calcola la prossima posizione spostandosi di una cella in una delle direzioni cardinali.
      */
     private Position getNextPosition(Position current, VectorDirection.CardinalDirection dir) {
-        int x = current.getX();
-        int y = current.getY();
-        switch (dir) {
-            case N:  y -= 1; break;
-            case NE: x += 1; y -= 1; break;
-            case E:  x += 1; break;
-            case SE: x += 1; y += 1; break;
-            case S:  y += 1; break;
-            case SW: x -= 1; y += 1; break;
-            case W:  x -= 1; break;
-            case NW: x -= 1; y -= 1; break;
+        if (positions == null) {
+            positions = PositionCache.of(track);
         }
-        return new Position(x, y);
+        return positions.offset(current, dir, 1);
     }
 }
 
@@ -1,13 +1,11 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
+import VectorRace.Posizione.PositionCache;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
 /**
  * SpeedControlBot  un bot che cerca una direzione sicura in modo casuale
  * ma controlla la velocit in modo da non superare un certo limite (3).
@@ -16,17 +14,17 @@ import java.util.Random;
  */
 public class SpeedControlBot extends BasePlayer {
 
-    /**
-     * Generatore di numeri casuali per la scelta tra pi opzioni sicure.
-     */
-    private Random random = new Random();
-
     /**
      * Riferimento al tracciato di gioco (ITrack), utilizzato per controllare
      * se una posizione  libera o meno.
      */
     private ITrack track;
 
+    /**
+     * Posizioni condivise delle celle del tracciato, usate per le celle vicine.
+     */
+    private PositionCache positions;
+
     /**
      * Costruttore di SpeedControlBot.
      *
@@ -48,22 +46,34 @@ public class SpeedControlBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        // Raccoglie in una lista tutte le direzioni consentite
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Come {@link #chooseDirection(Iterable)}, scorrendo direttamente i bit della maschera.
+     *
+     * @param allowedDirections Maschera delle direzioni permesse in questo turno.
+     * @return Una direzione sicura (random) o null se non ne esistono.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
+        // Raccoglie in una maschera tutte le direzioni consentite
         // che portano a una cella libera.
-        List<VectorDirection.CardinalDirection> safeDirs = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
+        int safeDirs = DirectionMask.NONE;
+        for (int bits = allowedDirections & 0xFF; bits != 0; bits &= bits - 1) {
+            VectorDirection.CardinalDirection dir = DirectionMask.lowest(bits);
             // Calcola la posizione futura in base alla direzione.
             Position nextPos = getNextPosition(this.currentPosition, dir);
 
             // Se la posizione  libera sul tracciato, la aggiunge alle direzioni sicure.
             if (track.isFree(nextPos)) {
-                safeDirs.add(dir);
+                safeDirs |= DirectionMask.of(dir);
             }
         }
 
         // Se non ci sono direzioni sicure, restituisce null (non si muove).
         // Altrimenti, sceglie a caso fra quelle disponibili.
-        return safeDirs.isEmpty() ? null : safeDirs.get(random.nextInt(safeDirs.size()));
+        return DirectionMask.pick((byte) safeDirs, random);
     }
 
     /**
@@ -93,22 +103,9 @@ public class SpeedControlBot extends BasePlayer {
      * @return La prossima posizione dopo essersi spostati di una cella.
      */
     private Position getNextPosition(Position current, VectorDirection.CardinalDirection direction) {
-        int x = current.getX();
-        int y = current.getY();
-
-        // Aggiorna (x, y) secondo la direzione scelta.
-        switch (direction) {
-            case N:  y -= 1; break;
-            case NE: x += 1; y -= 1; break;
-            case E:  x += 1; break;
-            case SE: x += 1; y += 1; break;
-            case S:  y += 1; break;
-            case SW: x -= 1; y += 1; break;
-            case W:  x -= 1; break;
-            case NW: x -= 1; y -= 1; break;
+        if (positions == null) {
+            positions = PositionCache.of(track);
         }
-
-        // Restituisce la nuova posizione.
-        return new Position(x, y);
+        return positions.offset(current, direction, 1);
     }
 }
@@ -0,0 +1,42 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Posizione.VectorDirection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * SyncPlayerAdapter permette di usare un giocatore sincrono ({@link IPlayer})
+ * dove  richiesto un {@link IAsyncPlayer}: le chiamate a chooseDirection e
+ * chooseAcceleration vengono eseguite su un executor, senza bloccare il chiamante.
+ */
+public class SyncPlayerAdapter implements IAsyncPlayer {
+
+    private final IPlayer player;
+    private final Executor executor;
+
+    /**
+     * Costruttore di SyncPlayerAdapter.
+     *
+     * @param player   Giocatore sincrono da adattare.
+     * @param executor Executor su cui calcolare le decisioni.
+     */
+    public SyncPlayerAdapter(IPlayer player, Executor executor) {
+        this.player = player;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<PlayerDecision> decide(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return CompletableFuture.supplyAsync(() -> PlayerDecision.of(player, allowedDirections), executor);
+    }
+
+    @Override
+    public CompletableFuture<PlayerDecision> decide(byte allowedDirections) {
+        return CompletableFuture.supplyAsync(() -> PlayerDecision.of(player, allowedDirections), executor);
+    }
+
+    public IPlayer getPlayer() {
+        return player;
+    }
+}
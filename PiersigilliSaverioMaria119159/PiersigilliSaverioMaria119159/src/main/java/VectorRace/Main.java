@@ -8,17 +8,25 @@ import VectorRace.Giocatori.*;
 import VectorRace.Posizione.GameBoard;
 import VectorRace.Motore.GameEngine;
 import VectorRace.Posizione.ITrack;
-import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Torneo.Tournament;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
-        ITrack track = new Track();
+        // Modalit torneo: --torneo <numeroGare> [tracciato1 tracciato2 ...]
+        if (args.length > 0 && args[0].equals("--torneo")) {
+            runTournament(args);
+            return;
+        }
+
+        ITrack track;
         try {
-            track.loadFromFile("track.txt");
+            track = TrackRegistry.shared().getResource("track.txt");
         } catch (IOException e) {
             System.err.println("Errore nel caricamento del tracciato: " + e.getMessage());
             return;
@@ -49,4 +57,30 @@ public class Main {
 
         engine.startRace();
     }
-}
\ No newline at end of file
+
+    /**
+     * Esegue un torneo headless tra i bot principali e stampa le statistiche aggregate.
+     *
+     * @param args Argomenti da riga di comando: --torneo [numeroGare] [tracciati...].
+     */
+    private static void runTournament(String[] args) {
+        int races = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        List<String> trackFiles = args.length > 2
+                ? Arrays.asList(args).subList(2, args.length)
+                : List.of("track.txt");
+
+        Tournament tournament = new Tournament(trackFiles, races, 20);
+        tournament.addBot("g", (name, track, players) -> new GreedyBot(name, track.getStartPosition(), track));
+        tournament.addBot("c", (name, track, players) -> new ChaserBot(name, track.getStartPosition(), track, players));
+        tournament.addBot("s", (name, track, players) -> new SafeRunnerBot(name, track.getStartPosition(), track, players));
+        tournament.addBot("p", (name, track, players) -> new PlannerBot(name, track.getStartPosition(), track));
+
+        try {
+            long start = System.nanoTime();
+            tournament.run().print(System.out);
+            System.out.printf("Tempo totale: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            System.err.println("Errore nel caricamento del tracciato: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package VectorRace.Motore;
+
+import VectorRace.Posizione.CellValues;
+import VectorRace.Posizione.Position;
+
+import java.util.Arrays;
+
+/**
+ * CellMarks associa un intero a ogni cella del tracciato, usato dal {@link GameEngine}
+ * per risolvere i conflitti dei turni a mosse simultanee (celle contese, celle di chi
+ * resta fermo, celle occupate).
+ * <p>
+ * I valori stanno in un {@link CellValues}, allocato per tile, e vengono azzerati
+ * da {@link #clear()} visitando solo le celle modificate: il costo di un turno dipende
+ * dal numero di giocatori e la memoria dalle regioni visitate, non dalle dimensioni del tracciato.
+ */
+final class CellMarks {
+
+    /**
+     * Valore di ogni cella (0 se non  stata modificata).
+     */
+    private final CellValues marks;
+
+    /**
+     * Coordinate codificate delle celle modificate dall'ultimo {@link #clear()}.
+     */
+    private long[] touched = new long[16];
+    private int touchedCount;
+
+    /**
+     * @param width  Larghezza del tracciato.
+     * @param height Altezza del tracciato.
+     */
+    CellMarks(int width, int height) {
+        this.marks = new CellValues(width, height);
+    }
+
+    /**
+     * @param cell Coordinate della cella, codificate con {@link Position#pack(int, int)}.
+     * @return Valore della cella (0 se non  stata modificata).
+     */
+    int get(long cell) {
+        return marks.get(Position.unpackX(cell), Position.unpackY(cell));
+    }
+
+    /**
+     * Imposta il valore di una cella.
+     *
+     * @param cell  Coordinate della cella, codificate con {@link Position#pack(int, int)}.
+     * @param value Nuovo valore.
+     */
+    void set(long cell, int value) {
+        int x = Position.unpackX(cell);
+        int y = Position.unpackY(cell);
+        if (marks.get(x, y) == 0) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = cell;
+        }
+        marks.set(x, y, value);
+    }
+
+    /**
+     * Riporta a 0 il valore di tutte le celle modificate.
+     */
+    void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            long packed = touched[i];
+            marks.set(Position.unpackX(packed), Position.unpackY(packed), 0);
+        }
+        touchedCount = 0;
+    }
+}
@@ -1,23 +1,103 @@
 package VectorRace.Motore;
 
+import VectorRace.Eventi.AsyncRaceListener;
+import VectorRace.Eventi.CollisionEvent;
+import VectorRace.Eventi.EliminationEvent;
+import VectorRace.Eventi.FinishEvent;
+import VectorRace.Eventi.MoveEvent;
+import VectorRace.Eventi.RaceEndEvent;
+import VectorRace.Eventi.RaceEvent;
+import VectorRace.Eventi.RaceListener;
+import VectorRace.Eventi.TurnStartEvent;
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Fisica.IInertiaManager;
 import VectorRace.Fisica.IVelocityCalculator;
+import VectorRace.Fisica.TransitionGraph;
 import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Giocatori.IAsyncPlayer;
 import VectorRace.Giocatori.IPlayer;
+import VectorRace.Giocatori.PlayerDecision;
+import VectorRace.Giocatori.SyncPlayerAdapter;
 import VectorRace.Posizione.GameBoard;
 import VectorRace.Posizione.Position;
+import VectorRace.Posizione.PositionCache;
 import VectorRace.Posizione.VectorDirection;
+import VectorRace.Visualizzazione.ConsoleRaceListener;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * GameEngine si occupa di gestire il flusso di gioco:
  * - Tiene traccia dei turni e di un limite massimo.
  * - Coordina i giocatori, gestisce spostamenti, controlla ostacoli e condizioni di vittoria.
- * - Visualizza lo stato del gioco dopo ogni azione.
+ * - Accetta giocatori sincroni ({@link IPlayer}) e asincroni ({@link IAsyncPlayer}),
+ *   attendendone le decisioni eventualmente entro un tempo limite.
+ * - Pubblica gli eventi di gara (turni, mosse, collisioni, eliminazioni, traguardo, fine gara)
+ *   ai {@link RaceListener} registrati; la stampa su console  uno di questi listener.
+ * <p>
+ * Ogni giocatore riceve un identificativo denso (0, 1, 2, ... in ordine di iscrizione):
+ * posizioni, velocit e direzioni sono conservate in array paralleli indicizzati per
+ * identificativo, e i giocatori vengono interpellati solo per decidere la mossa.
+ * Lo stato viene ricopiato nei giocatori prima di ogni richiesta di decisione, prima di
+ * pubblicare un evento e a fine gara, cos che i giocatori possano leggere posizione e
+ * velocit proprie e altrui; non viene mai scritto in un giocatore che sta ancora
+ * calcolando una decisione (ad esempio dopo aver superato il tempo limite).
  */
 public class GameEngine {
 
+    /**
+     * Valore di {@link #headings} per un giocatore senza direzione precedente (eliminato).
+     */
+    private static final byte NO_HEADING = -1;
+
+    /**
+     * Direzioni cardinali indicizzate per ordinale.
+     */
+    private static final VectorDirection.CardinalDirection[] DIRECTIONS = VectorDirection.CardinalDirection.values();
+
+    /**
+     * Bit di {@link CellMarks} usati nei turni a mosse simultanee: cella di un giocatore
+     * che resta fermo, cella occupata da un giocatore attivo a inizio turno; i bit
+     * restanti contano quanti giocatori puntano alla cella.
+     */
+    private static final int STAY_CELL = 1 << 30;
+    private static final int OCCUPIED_CELL = 1 << 29;
+    private static final int CLAIMS = OCCUPIED_CELL - 1;
+
+    /**
+     * Numero massimo di thread del pool delle decisioni.
+     */
+    private static final int DECISION_THREADS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Pool condiviso su cui vengono calcolate le decisioni asincrone dei giocatori.
+     * Ha al pi {@link #DECISION_THREADS} thread: le decisioni in eccesso attendono in coda
+     * (e il tempo limite continua a valere). I thread inattivi terminano dopo 30 secondi
+     * e sono daemon: un giocatore bloccato per sempre (es. in attesa di input)
+     * non impedisce la chiusura del programma.
+     */
+    private static final ExecutorService DECISION_POOL = createDecisionPool();
+
+    private static ExecutorService createDecisionPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(DECISION_THREADS, DECISION_THREADS,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "player-decision");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
     /**
      * Numero massimo di turni consentiti prima che la partita finisca automaticamente.
      */
@@ -29,6 +109,11 @@ public class GameEngine {
      */
     private GameBoard board;
 
+    /**
+     * Posizioni condivise delle celle del tracciato: gli spostamenti non creano nuovi oggetti.
+     */
+    private final PositionCache positions;
+
     /**
      * IVelocityCalculator (per calcolare velocit pi complesse).
      */
@@ -41,15 +126,136 @@ public class GameEngine {
     private IInertiaManager inertiaManager;
 
     /**
-     * Lista dei giocatori in partita (IPlayer).
+     * Vista dei giocatori in gara restituita da {@link #getPlayers()}: viene ricostruita
+     * da {@link #active} solo alla prima richiesta dopo un'iscrizione o un'eliminazione.
+     */
+    private List<IPlayer> playersView = Collections.emptyList();
+    private boolean playersViewStale;
+
+    /**
+     * Elenco completo dei giocatori iscritti, compresi quelli eliminati:
+     * la posizione di un giocatore nell'elenco  il suo identificativo.
+     */
+    private List<IPlayer> roster;
+
+    /**
+     * Identificativo di ogni giocatore iscritto, usato solo dai metodi pubblici
+     * che ricevono un IPlayer (la mappa confronta i giocatori per identit).
+     */
+    private final Map<IPlayer, Integer> playerIds = new IdentityHashMap<>();
+
+    /**
+     * Identificativi dei giocatori ancora in gara, in ordine di iscrizione
+     * (validi i primi {@link #activeCount}).
      */
-    List<IPlayer> players;
+    private int[] active = new int[8];
+    private int activeCount;
 
     /**
-     * Mappa per ricordare la direzione precedente di ogni giocatore,
-     * utile per calcolare le direzioni ammesse al turno successivo.
+     * Posizione di ogni giocatore, codificata con {@link Position#pack(int, int)}.
      */
-    private Map<IPlayer, VectorDirection.CardinalDirection> previousDirections;
+    private long[] packedPositions = new long[8];
+
+    /**
+     * Velocit di ogni giocatore (da 0 a {@link TransitionGraph#MAX_VELOCITY}).
+     */
+    private byte[] velocities = new byte[8];
+
+    /**
+     * Direzione precedente di ogni giocatore (ordinale di CardinalDirection, oppure
+     * {@link #NO_HEADING}), utile per calcolare le direzioni ammesse al turno successivo.
+     */
+    private byte[] headings = new byte[8];
+
+    /**
+     * true per i giocatori eliminati.
+     */
+    private boolean[] removed = new boolean[8];
+
+    /**
+     * Numero di volte in cui ciascun giocatore ha superato il tempo limite.
+     */
+    private int[] decisionOverruns = new int[8];
+
+    /**
+     * Giocatori il cui stato  cambiato dall'ultima copia nel rispettivo oggetto
+     * (validi i primi {@link #unsyncedCount}; un giocatore vi compare al pi una volta).
+     */
+    private int[] unsynced = new int[8];
+    private int unsyncedCount;
+
+    /**
+     * Campi cambiati dall'ultima copia nel giocatore ({@link #POSITION_CHANGED},
+     * {@link #VELOCITY_CHANGED}); 0 se il giocatore  aggiornato.
+     */
+    private byte[] changed = new byte[8];
+    private static final byte POSITION_CHANGED = 1;
+    private static final byte VELOCITY_CHANGED = 2;
+
+    /**
+     * Giocatori eliminati durante la gara, in ordine di eliminazione.
+     */
+    private List<IPlayer> eliminated;
+
+    /**
+     * Giocatore che ha raggiunto il traguardo (null finch nessuno ha vinto).
+     */
+    private IPlayer winner;
+
+    /**
+     * Se true la gara viene simulata senza stampe e senza visualizzare la plancia:
+     *  la modalit usata per eseguire molte gare in batch nello stesso processo.
+     */
+    private boolean headless;
+
+    /**
+     * Se true tutti i giocatori decidono in parallelo sullo stesso stato del turno precedente
+     * e le mosse vengono applicate insieme (modalit a mosse simultanee).
+     */
+    private boolean simultaneousMoves;
+
+    /**
+     * Executor su cui vengono calcolate le decisioni in modalit a mosse simultanee
+     * o quando  attivo un tempo limite.
+     */
+    private Executor decisionExecutor = DECISION_POOL;
+
+    /**
+     * Tempo massimo (in millisecondi) concesso a un giocatore per decidere la mossa;
+     * 0 significa nessun limite.
+     */
+    private long decisionTimeoutMillis;
+
+    /**
+     * Decisioni ancora in corso per ciascun giocatore (per identificativo): finch la
+     * precedente non termina, al giocatore non viene chiesta una nuova decisione.
+     */
+    private final List<CompletableFuture<PlayerDecision>> pendingDecisions = new ArrayList<>();
+
+    /**
+     * Adattatori asincroni dei giocatori sincroni (per identificativo), creati al primo utilizzo.
+     */
+    private final List<IAsyncPlayer> asyncAdapters = new ArrayList<>();
+
+    /**
+     * Celle contese, occupate o ferme nei turni a mosse simultanee, create al primo utilizzo.
+     */
+    private CellMarks cellMarks;
+
+    /**
+     * Listener che ricevono gli eventi della gara, nell'ordine di registrazione.
+     */
+    private final List<RaceListener> listeners = new ArrayList<>();
+
+    /**
+     * Listener che stampa la gara su console, registrato fuori dalla modalit headless.
+     */
+    private final RaceListener consoleListener;
+
+    /**
+     * Fornitore dei generatori casuali dei giocatori, derivati dal seme della gara.
+     */
+    private RandomProvider randomProvider = RandomProvider.unseeded();
 
     /**
      * Costruttore di GameEngine.
@@ -62,56 +268,253 @@ public class GameEngine {
     public GameEngine(GameBoard board, IVelocityCalculator velocityCalculator,
                       IInertiaManager inertiaManager, int maxTurns) {
         this.board = board;
+        this.positions = PositionCache.of(board.getTrack());
         this.velocityCalculator = velocityCalculator;
         this.inertiaManager = inertiaManager;
-        this.players = new ArrayList<>();
-        this.previousDirections = new HashMap<>();
+        this.roster = new ArrayList<>();
+        this.eliminated = new ArrayList<>();
         this.maxTurns = maxTurns;
+        this.consoleListener = new ConsoleRaceListener(this, board, System.out);
+        this.listeners.add(consoleListener);
+    }
+
+    /**
+     * Attiva o disattiva la modalit headless (nessuna stampa, nessuna visualizzazione).
+     * In modalit headless il listener della console viene rimosso: se non restano
+     * altri listener, il motore non crea nemmeno gli oggetti evento.
+     *
+     * @param headless true per simulare la gara senza output su console.
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+        listeners.remove(consoleListener);
+        if (!headless) {
+            listeners.add(0, consoleListener);
+        }
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Attiva o disattiva la modalit a mosse simultanee:
+     * - tutti i giocatori scelgono direzione e accelerazione in parallelo,
+     *   osservando le posizioni di fine turno precedente;
+     * - le mosse vengono poi risolte insieme: chi colpisce un ostacolo  eliminato,
+     *   se pi giocatori puntano alla stessa cella saltano tutti il turno,
+     *   e chi punta alla cella di un giocatore che resta fermo salta a sua volta il turno.
+     * La durata di un turno diventa quella del giocatore pi lento, non la somma di tutti.
+     *
+     * @param simultaneousMoves true per attivare le mosse simultanee.
+     */
+    public void setSimultaneousMoves(boolean simultaneousMoves) {
+        this.simultaneousMoves = simultaneousMoves;
+    }
+
+    public boolean isSimultaneousMoves() {
+        return simultaneousMoves;
+    }
+
+    /**
+     * Imposta l'executor su cui calcolare le decisioni in modalit a mosse simultanee
+     * o con tempo limite (di default un pool condiviso di thread daemon).
+     *
+     * @param decisionExecutor Executor per le decisioni dei giocatori.
+     */
+    public void setDecisionExecutor(Executor decisionExecutor) {
+        this.decisionExecutor = decisionExecutor;
+        Collections.fill(asyncAdapters, null);
+    }
+
+    /**
+     * Imposta il tempo limite per le decisioni dei giocatori.
+     * Se un giocatore non decide in tempo gli viene applicata una mossa di default:
+     * mantiene la direzione precedente (se ancora ammessa) senza accelerare,
+     * altrimenti resta fermo. Ogni sforamento viene conteggiato nel {@link RaceResult}.
+     * In modalit a mosse simultanee il limite vale per l'intera fase di decisione del turno.
+     *
+     * @param millis Tempo limite in millisecondi (0 per nessun limite).
+     */
+    public void setDecisionTimeout(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Il tempo limite non pu essere negativo.");
+        }
+        this.decisionTimeoutMillis = millis;
+    }
+
+    public long getDecisionTimeout() {
+        return decisionTimeoutMillis;
+    }
+
+    /**
+     * Restituisce quante volte un giocatore ha superato il tempo limite di decisione.
+     *
+     * @param player Il giocatore.
+     * @return Numero di sforamenti.
+     */
+    public int getDecisionOverruns(IPlayer player) {
+        Integer id = playerIds.get(player);
+        return id == null ? 0 : decisionOverruns[id];
+    }
+
+    /**
+     * Fissa il seme della gara: a parit di seme e di giocatori iscritti
+     * la gara si ripete identica.
+     *
+     * @param seed Seme da cui derivano i generatori casuali di tutti i giocatori.
+     */
+    public void setSeed(long seed) {
+        this.randomProvider = new RandomProvider(seed);
+    }
+
+    public long getSeed() {
+        return randomProvider.getSeed();
+    }
+
+    /**
+     * Registra un listener che ricever tutti gli eventi della gara.
+     *
+     * @param listener Il listener da registrare.
+     */
+    public void addListener(RaceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registra un listener lento (file, metriche, spettatori) dietro un buffer circolare:
+     * il motore vi pubblica gli eventi senza attendere, mentre un thread dedicato
+     * li consegna al listener applicando la politica di backpressure indicata.
+     *
+     * @param listener Il listener da registrare.
+     * @param capacity Capacit minima del buffer.
+     * @param policy   Comportamento a buffer pieno.
+     * @return Il listener asincrono registrato, da chiudere con close() se la gara
+     *         viene interrotta prima della sua fine.
+     */
+    public AsyncRaceListener addAsyncListener(RaceListener listener, int capacity,
+                                              AsyncRaceListener.BackpressurePolicy policy) {
+        AsyncRaceListener async = new AsyncRaceListener(listener, capacity, policy);
+        listeners.add(async);
+        return async;
+    }
+
+    /**
+     * Rimuove un listener registrato in precedenza.
+     *
+     * @param listener Il listener da rimuovere.
+     */
+    public void removeListener(RaceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Restituisce i giocatori ancora in gara.
+     *
+     * @return Vista non modificabile dei giocatori attivi.
+     */
+    public List<IPlayer> getPlayers() {
+        if (playersViewStale) {
+            List<IPlayer> inRace = new ArrayList<>(activeCount);
+            for (int i = 0; i < activeCount; i++) {
+                int id = active[i];
+                // Gli eliminati restano tra gli attivi fino alla fine del turno
+                if (!removed[id]) {
+                    inRace.add(roster.get(id));
+                }
+            }
+            playersView = Collections.unmodifiableList(inRace);
+            playersViewStale = false;
+        }
+        return playersView;
+    }
+
+    /**
+     * Restituisce la direzione precedente di ogni giocatore ancora in gara.
+     * La mappa viene costruita a ogni chiamata dallo stato interno del motore.
+     *
+     * @return Mappa non modificabile giocatore -> direzione.
+     */
+    public Map<IPlayer, VectorDirection.CardinalDirection> getPreviousDirections() {
+        Map<IPlayer, VectorDirection.CardinalDirection> directions = new IdentityHashMap<>(activeCount);
+        for (int i = 0; i < activeCount; i++) {
+            int id = active[i];
+            directions.put(roster.get(id), heading(id));
+        }
+        return Collections.unmodifiableMap(directions);
     }
 
     /**
      * Aggiunge un nuovo giocatore alla partita, assegnandogli
      * una posizione di partenza tramite GameBoard e memorizzandolo
-     * nella lista interna di players.
+     * tra i giocatori attivi.
      *
      * @param player Il giocatore da aggiungere.
      */
     public void addPlayer(IPlayer player) {
-        players.add(player);
+        int id = roster.size();
+        if (id == packedPositions.length) {
+            int capacity = id * 2;
+            packedPositions = Arrays.copyOf(packedPositions, capacity);
+            velocities = Arrays.copyOf(velocities, capacity);
+            headings = Arrays.copyOf(headings, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+            decisionOverruns = Arrays.copyOf(decisionOverruns, capacity);
+            active = Arrays.copyOf(active, capacity);
+            unsynced = Arrays.copyOf(unsynced, capacity);
+            changed = Arrays.copyOf(changed, capacity);
+        }
+        roster.add(player);
+        playerIds.put(player, id);
+        pendingDecisions.add(null);
+        asyncAdapters.add(null);
+        active[activeCount++] = id;
+        playersViewStale = true;
         board.addPlayer(player);
-        // Imposta la direzione iniziale come Est (E) per default
-        previousDirections.put(player, VectorDirection.CardinalDirection.E);
+        // Direzione iniziale: Est (E), la stessa degli stati di partenza di TransitionGraph
+        headings[id] = (byte) TransitionGraph.INITIAL_HEADING.ordinal();
     }
 
     /**
      * Avvia la corsa, iterando sui turni fino al raggiungimento del maxTurns
      * o finch non si stabilisce la fine della gara (es. tutti eliminati o uno ha vinto).
+     * <p>
+     * La gara non termina pi il processo: al traguardo il metodo ritorna normalmente,
+     * cos che nello stesso processo si possano eseguire pi gare in sequenza.
+     *
+     * @return Il {@link RaceResult} con vincitore, turni giocati, eliminati e stato finale.
      */
-    public void startRace() {
-        boolean raceFinished = false;
+    public RaceResult startRace() {
+        // Ogni giocatore riceve un flusso casuale indipendente, nell'ordine di iscrizione.
+        // Posizione e velocit di partenza vengono lette dai giocatori, che possono
+        // essere stati spostati dopo l'iscrizione.
+        for (int id = 0; id < roster.size(); id++) {
+            IPlayer player = roster.get(id);
+            player.setRandom(randomProvider.nextStream());
+            packedPositions[id] = player.getCurrentPosition().pack();
+            velocities[id] = (byte) clampVelocity(player.getVelocity());
+        }
+
         int turn = 0;
 
-        // Continua finch la gara non  finita o non superiamo i turni massimi.
-        while (!raceFinished && turn < maxTurns) {
+        // Continua finch nessuno ha vinto e non superiamo i turni massimi.
+        while (winner == null && turn < maxTurns) {
             turn++;
             processTurn(turn);
 
             // Verifica se tutti i giocatori sono stati eliminati, condizione di fine gara.
-            if (players.isEmpty()) {
-                System.out.println("Tutti i giocatori sono stati eliminati. La partita finisce.");
+            if (activeCount == 0) {
                 break;
             }
         }
 
-        // Se non si  conclusa entro maxTurns, terminiamo la gara.
-        // Stampa il messaggio del limite max turni solo se ci sono ancora giocatori attivi.
-        if (!raceFinished && !players.isEmpty()) {
-            System.out.println("Limite di " + maxTurns + " turni raggiunto. La partita termina.");
+        // Il motivo della fine (traguardo, eliminazioni o limite di turni)  nel risultato.
+        syncPlayers();
+        RaceResult result = buildResult(turn);
+        if (!listeners.isEmpty()) {
+            publish(new RaceEndEvent(turn, result));
         }
-
-        // Forza la terminazione dell'applicazione
-        //System.exit(0); //errore connection peer sui test
-
+        return result;
     }
 
     /**
@@ -120,14 +523,34 @@ public class GameEngine {
      * @param turn Numero del turno corrente.
      */
     private void processTurn(int turn) {
-        System.out.println("Turno: " + turn);
+        if (!listeners.isEmpty()) {
+            publish(new TurnStartEvent(turn));
+        }
 
-        // Utilizziamo un iterator per poter rimuovere i giocatori eliminati durante il ciclo.
-        Iterator<IPlayer> iterator = players.iterator();
-        while (iterator.hasNext()) {
-            IPlayer player = iterator.next();
-            processPlayerTurn(player, iterator);
+        if (simultaneousMoves) {
+            processSimultaneousTurn(turn);
+            return;
         }
+
+        // Appena un giocatore taglia il traguardo il turno si interrompe.
+        for (int i = 0; i < activeCount && winner == null; i++) {
+            processPlayerTurn(turn, active[i]);
+        }
+        compactActive();
+    }
+
+    /**
+     * Toglie dagli identificativi attivi quelli dei giocatori eliminati nel turno,
+     * mantenendo l'ordine di iscrizione.
+     */
+    private void compactActive() {
+        int kept = 0;
+        for (int i = 0; i < activeCount; i++) {
+            if (!removed[active[i]]) {
+                active[kept++] = active[i];
+            }
+        }
+        activeCount = kept;
     }
 
     /**
@@ -137,54 +560,400 @@ public class GameEngine {
      * - Calcola l'accelerazione e aggiorna la velocit.
      * - Determina la nuova posizione e verifica collisioni, ostacoli e traguardo.
      *
-     * @param player   Il giocatore da processare.
-     * @param iterator Literator sui giocatori, usato per eventuale rimozione (eliminazione).
+     * @param turn Numero del turno corrente.
+     * @param id   Identificativo del giocatore da processare.
      */
-    private void processPlayerTurn(IPlayer player, Iterator<IPlayer> iterator) {
-        // Recupera la direzione precedente da previousDirections.
-        VectorDirection.CardinalDirection previousDirection = previousDirections.get(player);
+    private void processPlayerTurn(int turn, int id) {
+        IPlayer player = roster.get(id);
+        int velocity = velocities[id];
 
-        // Calcola quali direzioni sono permesse in base all'inertiaManager.
-        List<VectorDirection.CardinalDirection> allowed =
-                inertiaManager.allowedDirections(player.getVelocity(), previousDirection);
+        // Calcola quali direzioni sono permesse in base all'inertiaManager, come maschera di bit.
+        byte allowedMask = inertiaManager.allowedDirectionMask(velocity, heading(id));
 
-        // Chiede al giocatore di scegliere una direzione tra quelle consentite.
-        VectorDirection.CardinalDirection chosenDirection = player.chooseDirection(allowed);
+        // Chiede al giocatore di scegliere direzione e accelerazione (entro il tempo limite, se impostato).
+        // Un giocatore sincrono senza tempo limite viene interpellato direttamente su questo thread,
+        // a meno che non stia ancora elaborando una decisione chiesta con un limite impostato in precedenza.
+        PlayerDecision decision;
+        syncPlayers();
+        if (decisionTimeoutMillis > 0 || player instanceof IAsyncPlayer || isDeciding(id)) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(decisionTimeoutMillis);
+            decision = awaitDecision(id, requestDecision(id, allowedMask), allowedMask, deadline);
+        } else {
+            decision = PlayerDecision.of(player, allowedMask);
+        }
+        VectorDirection.CardinalDirection chosenDirection = decision.getDirection();
 
-        // Se il giocatore non pu o non vuole muoversi, stampa avviso e termina qui il suo turno.
+        // Se il giocatore non pu o non vuole muoversi, resta fermo e termina qui il suo turno.
         if (chosenDirection == null) {
-            System.out.println(((BasePlayer)player).getName() + " non ha direzioni sicure per muoversi.");
+            if (!listeners.isEmpty()) {
+                Position pos = positions.get(packedPositions[id]);
+                publish(new MoveEvent(turn, player, pos, pos, null, velocity));
+            }
             return;
         }
 
         // Aggiorna la direzione precedente con quella scelta dal giocatore.
-        previousDirections.put(player, chosenDirection);
+        headings[id] = (byte) chosenDirection.ordinal();
 
-        // Fa scegliere l'accelerazione e aggiorna la velocit del giocatore.
-        int acceleration = player.chooseAcceleration();
-        player.setVelocity(player.getVelocity() + acceleration);
+        // Aggiorna la velocit del giocatore con l'accelerazione scelta.
+        velocity = setVelocity(id, velocity + decision.getAcceleration());
 
-        // Calcola la nuova posizione in base alla direzione e alla velocit.
-        Position currentPos = player.getCurrentPosition();
-        Position newPos = calculateNewPosition(currentPos, chosenDirection, player.getVelocity());
+        // Calcola le coordinate di arrivo (codificate) in base alla direzione e alla velocit.
+        long current = packedPositions[id];
+        long target = Position.offset(current, chosenDirection.getDx() * velocity, chosenDirection.getDy() * velocity);
 
-        // Verifica se la nuova posizione  libera o se si  verificata una collisione/ostacolo.
-        if (!board.isFree(newPos)) {
-            handleCollision(player, newPos, iterator);
+        // Verifica se la cella di arrivo  libera o se si  verificata una collisione/ostacolo.
+        if (!board.isFree(target)) {
+            handleCollision(turn, id, target);
         } else {
-            // Se la nuova posizione  un traguardo, il giocatore ha vinto.
-            if (board.isFinish(newPos)) {
-                System.out.println(((BasePlayer)player).getName() + " ha raggiunto il traguardo ed ha vinto la gara!");
-                System.exit(0); // Termina immediatamente il gioco.
+            // Aggiornamento della posizione sul board e sullo stato del giocatore.
+            Position newPos = positions.get(target);
+            moveTo(id, newPos);
+            if (!listeners.isEmpty()) {
+                publish(new MoveEvent(turn, player, positions.get(current), newPos, chosenDirection, velocity));
+            }
 
+            // Se la nuova posizione  un traguardo, il giocatore ha vinto e la gara si chiude.
+            if (board.isFinish(target)) {
+                winner = player;
+                if (!listeners.isEmpty()) {
+                    publish(new FinishEvent(turn, player, newPos));
+                }
             }
-            // Aggiornamento della posizione sul board e sullo stato del giocatore.
-            board.updatePlayerPosition(player, newPos);
-            player.setCurrentPosition(newPos);
+        }
+    }
+
+    /**
+     * Esegue un turno in modalit a mosse simultanee.
+     * <p>
+     * 1. Fase di decisione: le direzioni ammesse vengono calcolate sul thread del motore,
+     *    poi ogni giocatore decide in parallelo; nessuna posizione cambia finch
+     *    tutte le decisioni non sono pronte, quindi tutti vedono lo stesso stato.
+     * 2. Fase di risoluzione: si calcolano le celle di arrivo e si individuano
+     *    eliminazioni e conflitti, iterando finch nessun altro giocatore deve fermarsi.
+     * 3. Fase di applicazione: le mosse valide vengono applicate e gli eventi pubblicati
+     *    nell'ordine dei giocatori.
+     *
+     * @param turn Numero del turno corrente.
+     */
+    private void processSimultaneousTurn(int turn) {
+        int count = activeCount;
+        if (cellMarks == null) {
+            cellMarks = new CellMarks(board.getTrack().getWidth(), board.getTrack().getHeight());
+        }
 
-            // Mostra la situazione aggiornata del gioco (facoltativo).
-            board.display(players, previousDirections);
+        // 1. Decisioni in parallelo, con un'unica scadenza per tutto il turno
+        syncPlayers();
+        byte[] allowedMasks = new byte[count];
+        List<CompletableFuture<PlayerDecision>> pending = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = active[i];
+            allowedMasks[i] = inertiaManager.allowedDirectionMask(velocities[id], heading(id));
+            pending.add(requestDecision(id, allowedMasks[i]));
         }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(decisionTimeoutMillis);
+
+        // 2. Calcolo delle celle di arrivo: ogni cella accumula in cellMarks quanti giocatori
+        // vi puntano e se  occupata o ferma
+        PlayerDecision[] decisions = new PlayerDecision[count];
+        long[] targets = new long[count];
+        boolean[] moving = new boolean[count];
+        boolean[] crashed = new boolean[count];
+        boolean[] skipped = new boolean[count];
+
+        for (int i = 0; i < count; i++) {
+            int id = active[i];
+            PlayerDecision decision = awaitDecision(id, pending.get(i), allowedMasks[i], deadline);
+            decisions[i] = decision;
+            long current = packedPositions[id];
+            cellMarks.set(current, cellMarks.get(current) | OCCUPIED_CELL);
+
+            if (decision.isStay()) {
+                cellMarks.set(current, cellMarks.get(current) | STAY_CELL);
+                continue;
+            }
+            VectorDirection.CardinalDirection direction = decision.getDirection();
+            headings[id] = (byte) direction.ordinal();
+            int velocity = setVelocity(id, velocities[id] + decision.getAcceleration());
+            targets[i] = Position.offset(current, direction.getDx() * velocity, direction.getDy() * velocity);
+
+            if (board.isObstacle(targets[i])) {
+                crashed[i] = true;
+                cellMarks.set(current, cellMarks.get(current) | STAY_CELL);
+            } else if (targets[i] == current) {
+                cellMarks.set(current, cellMarks.get(current) | STAY_CELL);
+            } else {
+                moving[i] = true;
+                cellMarks.set(targets[i], cellMarks.get(targets[i]) + 1);
+            }
+        }
+
+        // Risoluzione dei conflitti: una cella contesa ferma tutti i pretendenti,
+        // una cella occupata da chi resta fermo (o da un eliminato) ferma chi vi punta.
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < count; i++) {
+                if (!moving[i]) {
+                    continue;
+                }
+                long target = targets[i];
+                int mark = cellMarks.get(target);
+                boolean blockedByOthers = !board.isFree(target) && (mark & OCCUPIED_CELL) == 0;
+                if ((mark & CLAIMS) > 1 || (mark & STAY_CELL) != 0 || blockedByOthers) {
+                    moving[i] = false;
+                    skipped[i] = true;
+                    long current = packedPositions[active[i]];
+                    cellMarks.set(current, cellMarks.get(current) | STAY_CELL);
+                    changed = true;
+                }
+            }
+        }
+        cellMarks.clear();
+
+        // 3. Applicazione delle mosse
+        for (int i = 0; i < count; i++) {
+            int id = active[i];
+            IPlayer player = roster.get(id);
+            Position current = positions.get(packedPositions[id]);
+            if (crashed[i]) {
+                eliminate(turn, id, positions.get(targets[i]));
+            } else if (skipped[i]) {
+                if (!listeners.isEmpty()) {
+                    publish(new CollisionEvent(turn, player, positions.get(targets[i])));
+                }
+            } else if (moving[i]) {
+                Position target = positions.get(targets[i]);
+                moveTo(id, target);
+                if (!listeners.isEmpty()) {
+                    publish(new MoveEvent(turn, player, current, target,
+                            decisions[i].getDirection(), velocities[id]));
+                }
+                // A parit di turno vince il primo giocatore, nell'ordine di iscrizione, che arriva al traguardo.
+                if (winner == null && board.isFinish(targets[i])) {
+                    winner = player;
+                    if (!listeners.isEmpty()) {
+                        publish(new FinishEvent(turn, player, target));
+                    }
+                }
+            } else if (!listeners.isEmpty()) {
+                publish(new MoveEvent(turn, player, current, current,
+                        decisions[i].getDirection(), velocities[id]));
+            }
+        }
+        compactActive();
+    }
+
+    /**
+     * Aggiorna la velocit di un giocatore, limitandola tra 0 e {@link TransitionGraph#MAX_VELOCITY}.
+     *
+     * @param id       Identificativo del giocatore.
+     * @param velocity Velocit proposta.
+     * @return La velocit effettiva.
+     */
+    private int setVelocity(int id, int velocity) {
+        velocity = clampVelocity(velocity);
+        if (velocities[id] != velocity) {
+            velocities[id] = (byte) velocity;
+            markUnsynced(id, VELOCITY_CHANGED);
+        }
+        return velocity;
+    }
+
+    private static int clampVelocity(int velocity) {
+        return Math.max(0, Math.min(velocity, TransitionGraph.MAX_VELOCITY));
+    }
+
+    /**
+     * Sposta un giocatore in una nuova posizione sulla plancia; il giocatore viene
+     * aggiornato alla prossima {@link #syncPlayers()}.
+     *
+     * @param id     Identificativo del giocatore.
+     * @param newPos La nuova posizione.
+     */
+    private void moveTo(int id, Position newPos) {
+        long packed = newPos.pack();
+        if (packedPositions[id] == packed) {
+            return;
+        }
+        packedPositions[id] = packed;
+        board.updateOccupancy(roster.get(id), newPos);
+        markUnsynced(id, POSITION_CHANGED);
+    }
+
+    private void markUnsynced(int id, byte field) {
+        if (changed[id] == 0) {
+            unsynced[unsyncedCount++] = id;
+        }
+        changed[id] |= field;
+    }
+
+    /**
+     * Ricopia nei giocatori il cui stato  cambiato i soli campi cambiati.
+     * I giocatori che stanno ancora calcolando una decisione restano in attesa:
+     * verranno aggiornati solo dopo che la decisione  terminata.
+     */
+    private void syncPlayers() {
+        int kept = 0;
+        for (int i = 0; i < unsyncedCount; i++) {
+            int id = unsynced[i];
+            if (changed[id] == 0) {
+                continue;
+            }
+            if (isDeciding(id)) {
+                unsynced[kept++] = id;
+                continue;
+            }
+            writeState(id);
+        }
+        unsyncedCount = kept;
+    }
+
+    private void writeState(int id) {
+        IPlayer player = roster.get(id);
+        byte fields = changed[id];
+        changed[id] = 0;
+        if ((fields & POSITION_CHANGED) != 0) {
+            player.setCurrentPosition(positions.get(packedPositions[id]));
+        }
+        if ((fields & VELOCITY_CHANGED) != 0) {
+            player.setVelocity(velocities[id]);
+        }
+    }
+
+    /**
+     * @param id Identificativo del giocatore.
+     * @return true se una decisione chiesta al giocatore non  ancora terminata.
+     */
+    private boolean isDeciding(int id) {
+        CompletableFuture<PlayerDecision> pending = pendingDecisions.get(id);
+        return pending != null && !pending.isDone();
+    }
+
+    /**
+     * Elimina un giocatore dalla gara. Il suo identificativo resta tra quelli attivi
+     * fino alla fine del turno (vedi {@link #compactActive()}).
+     *
+     * @param turn Numero del turno corrente.
+     * @param id   Identificativo del giocatore.
+     * @param at   Posizione in cui il giocatore  stato eliminato.
+     */
+    private void eliminate(int turn, int id, Position at) {
+        IPlayer player = roster.get(id);
+        removed[id] = true;
+        headings[id] = NO_HEADING;
+        // Ultima copia dello stato (se il giocatore non sta decidendo), poi il giocatore
+        // non viene pi aggiornato n interpellato: si liberano decisione e adattatore.
+        if (changed[id] != 0 && !isDeciding(id)) {
+            writeState(id);
+        }
+        changed[id] = 0;
+        pendingDecisions.set(id, null);
+        asyncAdapters.set(id, null);
+        playersViewStale = true;
+        eliminated.add(player);
+        if (!listeners.isEmpty()) {
+            publish(new EliminationEvent(turn, player, at));
+        }
+    }
+
+    /**
+     * @param id Identificativo del giocatore.
+     * @return La direzione precedente del giocatore (null se non ne ha una).
+     */
+    private VectorDirection.CardinalDirection heading(int id) {
+        byte heading = headings[id];
+        return heading == NO_HEADING ? null : DIRECTIONS[heading];
+    }
+
+    /**
+     * Avvia in modo asincrono la decisione di un giocatore: un {@link IAsyncPlayer}
+     * decide da solo, un giocatore sincrono viene eseguito sull'executor delle decisioni.
+     *
+     * @param id      Identificativo del giocatore che deve decidere.
+     * @param allowed Maschera delle direzioni consentite nel turno (vedi {@link DirectionMask}).
+     * @return La decisione in corso, oppure null se il giocatore sta ancora
+     *         elaborando la decisione di un turno precedente.
+     */
+    private CompletableFuture<PlayerDecision> requestDecision(int id, byte allowed) {
+        CompletableFuture<PlayerDecision> previous = pendingDecisions.get(id);
+        if (previous != null && !previous.isDone()) {
+            return null;
+        }
+        CompletableFuture<PlayerDecision> decision = asyncView(id).decide(allowed);
+        pendingDecisions.set(id, decision);
+        return decision;
+    }
+
+    /**
+     * Restituisce la vista asincrona di un giocatore: il giocatore stesso se implementa
+     * {@link IAsyncPlayer}, altrimenti un {@link SyncPlayerAdapter} sull'executor delle decisioni.
+     *
+     * @param id Identificativo del giocatore.
+     * @return Il giocatore come IAsyncPlayer.
+     */
+    private IAsyncPlayer asyncView(int id) {
+        IPlayer player = roster.get(id);
+        if (player instanceof IAsyncPlayer) {
+            return (IAsyncPlayer) player;
+        }
+        IAsyncPlayer adapter = asyncAdapters.get(id);
+        if (adapter == null) {
+            adapter = new SyncPlayerAdapter(player, decisionExecutor);
+            asyncAdapters.set(id, adapter);
+        }
+        return adapter;
+    }
+
+    /**
+     * Attende la decisione di un giocatore fino alla scadenza indicata
+     * (senza limite se il tempo limite non  impostato).
+     * Se la decisione non arriva in tempo, o se il giocatore  ancora occupato con quella
+     * di un turno precedente (anche se nel frattempo il limite  stato tolto),
+     * registra lo sforamento e applica la mossa di default.
+     *
+     * @param id       Identificativo del giocatore.
+     * @param decision La decisione in corso (null se il giocatore  ancora occupato).
+     * @param allowed  Maschera delle direzioni consentite nel turno (vedi {@link DirectionMask}).
+     * @param deadline Scadenza, in nanosecondi secondo System.nanoTime().
+     * @return La decisione del giocatore o quella di default.
+     */
+    private PlayerDecision awaitDecision(int id, CompletableFuture<PlayerDecision> decision,
+                                         byte allowed, long deadline) {
+        if (decision == null) {
+            return timeoutDecision(id, allowed);
+        }
+        if (decisionTimeoutMillis == 0) {
+            return decision.join();
+        }
+        try {
+            return decision.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return timeoutDecision(id, allowed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return timeoutDecision(id, allowed);
+        } catch (ExecutionException e) {
+            // Un errore del giocatore si propaga come nella modalit senza tempo limite.
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Registra uno sforamento del tempo limite e costruisce la mossa di default:
+     * direzione precedente (se ammessa) e accelerazione nulla, altrimenti restare fermi.
+     *
+     * @param id      Identificativo del giocatore che non ha deciso in tempo.
+     * @param allowed Maschera delle direzioni consentite nel turno.
+     * @return La decisione di default.
+     */
+    private PlayerDecision timeoutDecision(int id, byte allowed) {
+        decisionOverruns[id]++;
+        VectorDirection.CardinalDirection previous = heading(id);
+        if (DirectionMask.contains(allowed, previous)) {
+            return new PlayerDecision(previous, 0);
+        }
+        return PlayerDecision.stay();
     }
 
     /**
@@ -192,23 +961,74 @@ public class GameEngine {
      * Se  un ostacolo, elimina (rimuove) il giocatore dal gioco.
      * Se  occupata da un altro giocatore, gestisce levento (es. riprova mossa o salta mossa).
      *
-     * @param player   Giocatore che ha subito la collisione.
-     * @param newPos   Posizione in cui avviene la collisione.
-     * @param iterator Iterator su players, per rimuovere eventualmente il giocatore.
+     * @param turn Numero del turno corrente.
+     * @param id   Identificativo del giocatore che ha subito la collisione.
+     * @param cell Coordinate codificate della cella in cui avviene la collisione.
+     */
+    private void handleCollision(int turn, int id, long cell) {
+        // Se la cella  un ostacolo, il giocatore viene eliminato dal gioco.
+        if (board.isObstacle(cell)) {
+            eliminate(turn, id, positions.get(cell));
+        } else if (!listeners.isEmpty()) {
+            // Caso in cui la cella  occupata da un altro giocatore: salta il turno.
+            publish(new CollisionEvent(turn, roster.get(id), positions.get(cell)));
+        }
+    }
+
+    /**
+     * Costruisce il risultato della gara a partire dallo stato finale dei giocatori.
+     *
+     * @param turns Numero di turni effettivamente giocati.
+     * @return Il {@link RaceResult} della gara.
      */
-    private void handleCollision(IPlayer player, Position newPos, Iterator<IPlayer> iterator) {
-        // Se la posizione  un ostacolo, il giocatore viene eliminato dal gioco.
-        if (board.isObstacle(newPos)) {
-            System.out.println(((BasePlayer)player).getName() + " ha colpito un ostacolo ed  eliminato dal gioco!");
-            iterator.remove();
-            previousDirections.remove(player);
+    private RaceResult buildResult(int turns) {
+        RaceResult.Outcome outcome;
+        if (winner != null) {
+            outcome = RaceResult.Outcome.FINISHED;
+        } else if (activeCount == 0) {
+            outcome = RaceResult.Outcome.ALL_ELIMINATED;
         } else {
-            // Caso in cui la posizione  occupata da un altro giocatore.
-            System.out.println("Posizione occupata da un altro giocatore. " +
-                    ((BasePlayer)player).getName() + " salta il turno.");
+            outcome = RaceResult.Outcome.MAX_TURNS;
+        }
+
+        List<RaceResult.PlayerState> states = new ArrayList<>(roster.size());
+        for (int id = 0; id < roster.size(); id++) {
+            IPlayer player = roster.get(id);
+            long pos = packedPositions[id];
+            states.add(new RaceResult.PlayerState(player, playerName(player),
+                    new Position(Position.unpackX(pos), Position.unpackY(pos)), velocities[id],
+                    heading(id), removed[id], player == winner, decisionOverruns[id]));
+        }
+        return new RaceResult(outcome, winner, turns, randomProvider.getSeed(),
+                new ArrayList<>(eliminated), states);
+    }
+
+    /**
+     * Consegna un evento a tutti i listener registrati.
+     * I chiamanti controllano prima che ci sia almeno un listener,
+     * cos da non creare l'evento quando nessuno lo ascolta.
+     *
+     * @param event L'evento da pubblicare.
+     */
+    private void publish(RaceEvent event) {
+        // I listener (es. la plancia su console) leggono lo stato dai giocatori.
+        syncPlayers();
+        for (RaceListener listener : listeners) {
+            listener.onEvent(event);
         }
     }
 
+    /**
+     * Restituisce il nome di un giocatore: se  un BasePlayer usa il suo nome,
+     * altrimenti un'etichetta generica.
+     *
+     * @param player Il giocatore.
+     * @return Nome da mostrare nei messaggi e nei risultati.
+     */
+    private String playerName(IPlayer player) {
+        return (player instanceof BasePlayer) ? ((BasePlayer) player).getName() : "Giocatore";
+    }
+
     /**
      * Calcola la nuova posizione di un giocatore in base a una direzione e a una velocit.
      * Limita lo spostamento a un massimo di 3 celle per turno (Math.min(velocity, 3)).
@@ -222,23 +1042,9 @@ public class GameEngine {
                                          VectorDirection.CardinalDirection direction,
                                          int velocity) {
         // Limitiamo lo spostamento a max 3 celle per non sforare il tracciato.
-        int step = Math.min(velocity, 3);
-
-        int x = current.getX();
-        int y = current.getY();
-
-        switch (direction) {
-            case N:  y -= step; break;
-            case NE: x += step; y -= step; break;
-            case E:  x += step; break;
-            case SE: x += step; y += step; break;
-            case S:  y += step; break;
-            case SW: x -= step; y += step; break;
-            case W:  x -= step; break;
-            case NW: x -= step; y -= step; break;
-        }
+        int step = Math.min(velocity, TransitionGraph.MAX_VELOCITY);
 
-        return new Position(x, y);
+        return positions.offset(current, direction, step);
     }
 
     public int getMaxTurns() {
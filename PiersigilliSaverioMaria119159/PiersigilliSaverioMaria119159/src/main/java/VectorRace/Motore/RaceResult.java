@@ -0,0 +1,181 @@
+package VectorRace.Motore;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RaceResult raccoglie l'esito di una singola gara eseguita da {@link GameEngine}:
+ * - il vincitore (se esiste) e il motivo per cui la gara si  conclusa;
+ * - il numero di turni giocati;
+ * - l'elenco dei giocatori eliminati, nell'ordine in cui sono usciti di gara;
+ * - lo stato finale di ogni giocatore iscritto.
+ * <p>
+ *  un oggetto immutabile: pu essere conservato, aggregato o passato
+ * tra thread diversi senza ulteriori sincronizzazioni.
+ */
+public class RaceResult {
+
+    /**
+     * Motivo per cui la gara  terminata.
+     */
+    public enum Outcome {
+        /** Un giocatore ha raggiunto il traguardo. */
+        FINISHED,
+        /** Tutti i giocatori sono stati eliminati. */
+        ALL_ELIMINATED,
+        /**  stato raggiunto il limite massimo di turni. */
+        MAX_TURNS
+    }
+
+    private final Outcome outcome;
+    private final IPlayer winner;
+    private final int turns;
+    private final long seed;
+    private final List<IPlayer> eliminated;
+    private final List<PlayerState> finalStates;
+
+    /**
+     * Costruttore di RaceResult.
+     *
+     * @param outcome     Motivo della fine della gara.
+     * @param winner      Giocatore vincitore, oppure null se nessuno ha tagliato il traguardo.
+     * @param turns       Numero di turni giocati.
+     * @param seed        Seme della gara, utile per riprodurla.
+     * @param eliminated  Giocatori eliminati, in ordine di eliminazione.
+     * @param finalStates Stato finale di tutti i giocatori iscritti alla gara.
+     */
+    public RaceResult(Outcome outcome, IPlayer winner, int turns, long seed,
+                      List<IPlayer> eliminated, List<PlayerState> finalStates) {
+        this.outcome = outcome;
+        this.winner = winner;
+        this.turns = turns;
+        this.seed = seed;
+        this.eliminated = Collections.unmodifiableList(eliminated);
+        this.finalStates = Collections.unmodifiableList(finalStates);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Restituisce il vincitore della gara.
+     *
+     * @return Il giocatore che ha raggiunto il traguardo, oppure null.
+     */
+    public IPlayer getWinner() {
+        return winner;
+    }
+
+    public boolean hasWinner() {
+        return winner != null;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Restituisce i giocatori eliminati (ostacolo colpito), nell'ordine di eliminazione.
+     *
+     * @return Lista non modificabile dei giocatori eliminati.
+     */
+    public List<IPlayer> getEliminated() {
+        return eliminated;
+    }
+
+    /**
+     * Restituisce lo stato finale di ogni giocatore, nell'ordine di iscrizione alla gara.
+     *
+     * @return Lista non modificabile degli stati finali.
+     */
+    public List<PlayerState> getFinalStates() {
+        return finalStates;
+    }
+
+    /**
+     * Fotografia dello stato di un giocatore al termine della gara.
+     */
+    public static class PlayerState {
+
+        private final IPlayer player;
+        private final String name;
+        private final Position position;
+        private final int velocity;
+        private final VectorDirection.CardinalDirection direction;
+        private final boolean eliminated;
+        private final boolean winner;
+        private final int decisionOverruns;
+
+        /**
+         * Costruttore di PlayerState.
+         *
+         * @param player     Il giocatore descritto.
+         * @param name       Nome del giocatore.
+         * @param position   Ultima posizione occupata.
+         * @param velocity   Velocit al termine della gara.
+         * @param direction  Ultima direzione seguita (pu essere null).
+         * @param eliminated true se il giocatore  stato eliminato.
+         * @param winner     true se il giocatore ha vinto la gara.
+         * @param decisionOverruns Volte in cui il giocatore ha superato il tempo limite di decisione.
+         */
+        public PlayerState(IPlayer player, String name, Position position, int velocity,
+                           VectorDirection.CardinalDirection direction,
+                           boolean eliminated, boolean winner, int decisionOverruns) {
+            this.player = player;
+            this.name = name;
+            this.position = position;
+            this.velocity = velocity;
+            this.direction = direction;
+            this.eliminated = eliminated;
+            this.winner = winner;
+            this.decisionOverruns = decisionOverruns;
+        }
+
+        public IPlayer getPlayer() {
+            return player;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Position getPosition() {
+            return position;
+        }
+
+        public int getVelocity() {
+            return velocity;
+        }
+
+        public VectorDirection.CardinalDirection getDirection() {
+            return direction;
+        }
+
+        public boolean isEliminated() {
+            return eliminated;
+        }
+
+        public boolean isWinner() {
+            return winner;
+        }
+
+        /**
+         * Restituisce quante volte il giocatore non ha deciso entro il tempo limite
+         * e ha ricevuto la mossa di default.
+         *
+         * @return Numero di sforamenti del tempo limite.
+         */
+        public int getDecisionOverruns() {
+            return decisionOverruns;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package VectorRace.Motore;
+
+import java.util.SplittableRandom;
+
+/**
+ * RandomProvider distribuisce ai giocatori di una gara dei generatori di numeri
+ * casuali indipendenti, tutti derivati da un unico seme di gara.
+ * <p>
+ * - Ogni giocatore riceve un proprio {@link SplittableRandom} ottenuto con split():
+ *   i flussi sono statisticamente indipendenti e non condividono stato,
+ *   quindi gare eseguite in parallelo non si contendono lo stesso generatore.
+ * - A parit di seme e di ordine di iscrizione dei giocatori, la gara 
+ *   riproducibile bit per bit.
+ */
+public class RandomProvider {
+
+    /**
+     * Seme da cui derivano tutti i flussi della gara.
+     */
+    private final long seed;
+
+    /**
+     * Generatore radice da cui vengono separati i flussi dei giocatori.
+     */
+    private final SplittableRandom root;
+
+    /**
+     * Costruttore di RandomProvider.
+     *
+     * @param seed Seme della gara.
+     */
+    public RandomProvider(long seed) {
+        this.seed = seed;
+        this.root = new SplittableRandom(seed);
+    }
+
+    /**
+     * Crea un RandomProvider con un seme casuale (gara non riproducibile).
+     *
+     * @return Un nuovo RandomProvider.
+     */
+    public static RandomProvider unseeded() {
+        return new RandomProvider(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Restituisce un nuovo flusso indipendente, da assegnare a un singolo giocatore.
+     *
+     * @return Un {@link SplittableRandom} separato dal generatore radice.
+     */
+    public synchronized SplittableRandom nextStream() {
+        return root.split();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,198 @@
+package VectorRace.Posizione;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinaryTrackFormat descrive il formato binario precompilato dei tracciati
+ * (prodotto da {@link TrackCompiler}), pensato per essere mappato in memoria
+ * e caricato senza alcuna interpretazione del testo.
+ * <p>
+ * Struttura del file (interi a 32 bit big-endian):
+ * <pre>
+ * magic "VRTB" | versione | larghezza | altezza
+ * numero partenze  | indici delle partenze  (y * larghezza + x)
+ * numero traguardi | indici dei traguardi
+ * celle: larghezza * altezza byte con i codici {@link CellType}
+ * numero sezioni | per ogni sezione: tag | lunghezza | dati (int[])
+ * </pre>
+ * Le sezioni contengono tabelle precalcolate opzionali (es. distanze dal traguardo):
+ * un lettore ignora quelle che non conosce.
+ */
+final class BinaryTrackFormat {
+
+    /**
+     * Intestazione del file: i caratteri "VRTB".
+     */
+    static final int MAGIC = 0x56525442;
+
+    /**
+     * Versione del formato. Nella versione 1 la sezione {@link #SECTION_FINISH_DISTANCE}
+     * conteneva distanze a costo unitario; dalla versione 2 contiene le distanze pesate
+     * di {@link DistanceField} (diagonali a costo 2). I file della versione 1 restano
+     * leggibili, ma la loro tabella delle distanze viene ignorata e ricalcolata.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Sezione con la distanza ({@link DistanceField}) di ogni cella dal traguardo pi vicino.
+     */
+    static final int SECTION_FINISH_DISTANCE = 1;
+
+    private BinaryTrackFormat() {
+    }
+
+    /**
+     * Verifica se un buffer inizia con l'intestazione del formato binario.
+     *
+     * @param buffer Inizio del file.
+     * @return true se il contenuto  un tracciato binario.
+     */
+    static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Legge un tracciato binario, verificandone l'intestazione prima di allocare:
+     * dimensioni non negative e compatibili con la lunghezza del file, indici di partenze
+     * e traguardi dentro il tracciato e codici delle celle validi ({@link CellType}).
+     * Le tabelle delle distanze dei file della versione 1 vengono ignorate.
+     *
+     * @param source Contenuto del file (tipicamente mappato in memoria).
+     * @return Il contenuto del tracciato, comprese le sezioni precalcolate.
+     * @throws IOException Se il file  troncato, non valido, troppo grande
+     *                     o di una versione non supportata.
+     */
+    static TrackData read(ByteBuffer source) throws IOException {
+        ByteBuffer buffer = source.duplicate();
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Formato del tracciato non riconosciuto.");
+            }
+            int version = buffer.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Versione del tracciato binario non supportata: " + version);
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width < 0 || height < 0) {
+                throw new IOException("Dimensioni del tracciato binario non valide: " + width + "x" + height);
+            }
+            long size = (long) width * height;
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("Tracciato troppo grande: " + width + "x" + height + " celle.");
+            }
+
+            List<Position> starts = readPositions(buffer, width, (int) size);
+            List<Position> finishes = readPositions(buffer, width, (int) size);
+
+            checkRemaining(buffer, size);
+            byte[] cells = new byte[(int) size];
+            buffer.get(cells);
+            for (int i = 0; i < cells.length; i++) {
+                if (!CellType.isValid(cells[i])) {
+                    throw new IOException("Codice di cella non valido (" + cells[i] + ") in ("
+                            + (i % width) + "," + (i / width) + ").");
+                }
+            }
+
+            int sectionCount = buffer.getInt();
+            if (sectionCount < 0) {
+                throw new IOException("Numero di sezioni non valido: " + sectionCount);
+            }
+            Map<Integer, int[]> sections = new LinkedHashMap<>();
+            for (int i = 0; i < sectionCount; i++) {
+                int tag = buffer.getInt();
+                int[] data = readInts(buffer, buffer.getInt());
+                if (version > 1 || tag != SECTION_FINISH_DISTANCE) {
+                    sections.put(tag, data);
+                }
+            }
+            return new TrackData(width, height, cells, starts, finishes, sections);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, NegativeArraySizeException, ArithmeticException...
+            throw new IOException("Tracciato binario non valido o troncato.", e);
+        }
+    }
+
+    private static List<Position> readPositions(ByteBuffer buffer, int width, int size) throws IOException {
+        int[] indices = readInts(buffer, buffer.getInt());
+        List<Position> positions = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            if (index < 0 || index >= size) {
+                throw new IOException("Posizione fuori dal tracciato nel file binario: indice " + index);
+            }
+            positions.add(new ImmutablePosition(index % width, index / width));
+        }
+        return positions;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) throws IOException {
+        if (count < 0) {
+            throw new IOException("Lunghezza non valida nel tracciato binario: " + count);
+        }
+        checkRemaining(buffer, (long) count * Integer.BYTES);
+        int[] values = new int[count];
+        IntBuffer ints = buffer.asIntBuffer();
+        ints.get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Verifica che il file contenga ancora almeno il numero di byte indicato,
+     * prima di allocare l'array che li ricever.
+     */
+    private static void checkRemaining(ByteBuffer buffer, long bytes) throws IOException {
+        if (bytes > buffer.remaining()) {
+            throw new IOException("Tracciato binario troncato: attesi " + bytes + " byte, ne restano "
+                    + buffer.remaining() + ".");
+        }
+    }
+
+    /**
+     * Scrive un tracciato nel formato binario.
+     *
+     * @param out      Stream di destinazione.
+     * @param width    Larghezza del tracciato.
+     * @param height   Altezza del tracciato.
+     * @param cells    Codici delle celle.
+     * @param starts   Posizioni di partenza.
+     * @param finishes Posizioni di arrivo.
+     * @param sections Tabelle precalcolate da includere (tag -> dati).
+     * @throws IOException Se si verifica un errore di scrittura.
+     */
+    static void write(DataOutputStream out, int width, int height, byte[] cells,
+                      List<Position> starts, List<Position> finishes,
+                      Map<Integer, int[]> sections) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(width);
+        out.writeInt(height);
+        writePositions(out, starts, width);
+        writePositions(out, finishes, width);
+        out.write(cells);
+        out.writeInt(sections.size());
+        for (Map.Entry<Integer, int[]> section : sections.entrySet()) {
+            out.writeInt(section.getKey());
+            out.writeInt(section.getValue().length);
+            for (int value : section.getValue()) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    private static void writePositions(DataOutputStream out, List<Position> positions, int width)
+            throws IOException {
+        out.writeInt(positions.size());
+        for (Position position : positions) {
+            out.writeInt(position.getY() * width + position.getX());
+        }
+    }
+}
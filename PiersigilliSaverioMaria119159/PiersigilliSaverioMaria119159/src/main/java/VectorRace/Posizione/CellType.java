@@ -0,0 +1,56 @@
+package VectorRace.Posizione;
+
+/**
+ * CellType raccoglie i codici con cui un tracciato memorizza le proprie celle
+ * in un array di byte (una cella per byte, indicizzate per righe: y * larghezza + x).
+ * <p>
+ * - FREE: cella libera ('.').
+ * - OBSTACLE: ostacolo ('#'); anche le celle fuori dal tracciato valgono come ostacolo.
+ * - START: posizione di partenza ('S'), percorribile come una cella libera.
+ * - FINISH: traguardo ('F'), percorribile come una cella libera.
+ */
+public final class CellType {
+
+    public static final byte FREE = 0;
+    public static final byte OBSTACLE = 1;
+    public static final byte START = 2;
+    public static final byte FINISH = 3;
+
+    private CellType() {
+    }
+
+    /**
+     * @param code Byte letto da un tracciato (es. dal formato binario).
+     * @return true se il byte  uno dei codici di cella.
+     */
+    public static boolean isValid(byte code) {
+        return code >= FREE && code <= FINISH;
+    }
+
+    /**
+     * Converte un carattere del file di testo del tracciato nel codice della cella.
+     * Ogni carattere diverso da 'S', 'F' e '#'  considerato una cella libera.
+     *
+     * @param c Carattere letto dal file.
+     * @return Il codice della cella.
+     */
+    public static byte fromChar(char c) {
+        switch (c) {
+            case 'S': return START;
+            case 'F': return FINISH;
+            case '#': return OBSTACLE;
+            default:  return FREE;
+        }
+    }
+
+    /**
+     * Restituisce il carattere con cui la cella viene esposta da {@link ITrack#getCell}:
+     * partenze e traguardi sono percorribili, quindi valgono '.'.
+     *
+     * @param code Codice della cella.
+     * @return '#' per gli ostacoli, '.' altrimenti.
+     */
+    public static char toChar(byte code) {
+        return code == OBSTACLE ? '#' : '.';
+    }
+}
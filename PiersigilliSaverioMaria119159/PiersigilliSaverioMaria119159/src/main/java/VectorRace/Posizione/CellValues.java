@@ -0,0 +1,116 @@
+package VectorRace.Posizione;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CellValues associa un intero a ogni cella di un tracciato (0 per le celle mai scritte).
+ * <p>
+ * Come {@link PositionCache}, i valori sono memorizzati per tile quadrate di
+ * {@link ChunkedTrack#TILE_SIZE} celle di lato e l'array di una tile viene allocato solo
+ * alla prima scrittura di una sua cella: su mappe enormi (es. un {@link ChunkedTrack})
+ * la memoria  proporzionale alle regioni toccate e non all'intero rettangolo.
+ * Le coordinate fuori dal tracciato e le celle dei tracciati con pi di
+ * {@link PositionCache#MAX_CACHED_TILES} tile sono memorizzate in una mappa.
+ * Non  thread-safe.
+ */
+public final class CellValues {
+
+    private static final int TILE_SHIFT = ChunkedTrack.TILE_SHIFT;
+    private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+    private static final int TILE_CELLS = 1 << (2 * TILE_SHIFT);
+
+    private final int width;
+    private final int height;
+    private final int tilesPerRow;
+
+    /**
+     * Valori per tile (null finch la tile non viene scritta),
+     * oppure null se il tracciato  troppo grande.
+     */
+    private final int[][] tiles;
+
+    /**
+     * Valori diversi da 0 delle celle non coperte dalle tile, per coordinate codificate.
+     */
+    private final Map<Long, Integer> sparse = new HashMap<>();
+
+    /**
+     * @param width  Larghezza del tracciato.
+     * @param height Altezza del tracciato.
+     */
+    public CellValues(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tilesPerRow = (width + TILE_MASK) >> TILE_SHIFT;
+        long tileCount = (long) tilesPerRow * ((height + TILE_MASK) >> TILE_SHIFT);
+        this.tiles = tileCount <= PositionCache.MAX_CACHED_TILES ? new int[(int) tileCount][] : null;
+    }
+
+    /**
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Valore della cella (0 se non  mai stata scritta).
+     */
+    public int get(int x, int y) {
+        if (isSparse(x, y)) {
+            return sparse.getOrDefault(Position.pack(x, y), 0);
+        }
+        int[] tile = tiles[tileIndex(x, y)];
+        return tile == null ? 0 : tile[cellIndex(x, y)];
+    }
+
+    /**
+     * Imposta il valore di una cella.
+     *
+     * @param x     Coordinata x.
+     * @param y     Coordinata y.
+     * @param value Nuovo valore.
+     */
+    public void set(int x, int y, int value) {
+        if (isSparse(x, y)) {
+            if (value == 0) {
+                sparse.remove(Position.pack(x, y));
+            } else {
+                sparse.put(Position.pack(x, y), value);
+            }
+            return;
+        }
+        int tileIndex = tileIndex(x, y);
+        int[] tile = tiles[tileIndex];
+        if (tile == null) {
+            if (value == 0) {
+                return;
+            }
+            tile = new int[TILE_CELLS];
+            tiles[tileIndex] = tile;
+        }
+        tile[cellIndex(x, y)] = value;
+    }
+
+    /**
+     * Somma una quantit al valore di una cella.
+     *
+     * @param x     Coordinata x.
+     * @param y     Coordinata y.
+     * @param delta Quantit da sommare.
+     * @return Il nuovo valore della cella.
+     */
+    public int add(int x, int y, int delta) {
+        int value = get(x, y) + delta;
+        set(x, y, value);
+        return value;
+    }
+
+    private boolean isSparse(int x, int y) {
+        return tiles == null || x < 0 || x >= width || y < 0 || y >= height;
+    }
+
+    private int tileIndex(int x, int y) {
+        return (y >> TILE_SHIFT) * tilesPerRow + (x >> TILE_SHIFT);
+    }
+
+    private static int cellIndex(int x, int y) {
+        return ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+    }
+}
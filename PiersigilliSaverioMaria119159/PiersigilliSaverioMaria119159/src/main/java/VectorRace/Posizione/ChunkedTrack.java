@@ -0,0 +1,375 @@
+package VectorRace.Posizione;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ChunkedTrack  un'implementazione di {@link ITrack} pensata per mappe enormi
+ * e in gran parte vuote (o in gran parte muro).
+ * <p>
+ * Il tracciato  diviso in tile quadrate di {@link #TILE_SIZE} x {@link #TILE_SIZE} celle.
+ * Le tile uniformi (tutte libere o tutte ostacolo) puntano a un'unica istanza condivisa;
+ * solo le tile miste hanno un proprio array di byte. La memoria occupata  quindi
+ * proporzionale al dettaglio della mappa e non al rettangolo che la contiene.
+ * <p>
+ * Le celle usano i codici di {@link CellType}; il formato dei file  lo stesso di {@link Track}
+ * (testo o binario precompilato, eventualmente compresso con gzip).
+ * Come Track, pu essere caricato una sola volta e da quel momento
+ *  immutabile e condivisibile tra thread.
+ * <p>
+ * Le strutture derivate per cella ({@link DistanceField}, {@link ClearanceTable},
+ * {@link VectorRace.Fisica.TransitionGraph}) sono dense: allocano array sull'intero rettangolo
+ * e annullerebbero il risparmio delle tile. Per un ChunkedTrack sono quindi supportate solo
+ * fino a {@link #MAX_DENSE_CELLS} celle (vedi {@link #checkDenseSupported}); oltre, i bot
+ * che le usano non sono disponibili. {@link PositionCache} e {@link CellValues} (occupazione
+ * della {@link GameBoard} e celle contese del motore di gioco) allocano invece per tile,
+ * solo nelle regioni effettivamente visitate. Anche la visualizzazione su console
+ * disegna l'intero rettangolo: sulle mappe enormi le gare vanno eseguite in modalit headless.
+ */
+public class ChunkedTrack implements ITrack {
+
+    /**
+     * Logaritmo in base 2 del lato di una tile.
+     */
+    static final int TILE_SHIFT = 6;
+
+    /**
+     * Lato di una tile, in celle.
+     */
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * Numero massimo di celle di un ChunkedTrack per cui si possono costruire
+     * le strutture dense (vedi {@link #checkDenseSupported}).
+     */
+    public static final long MAX_DENSE_CELLS = 1L << 24;
+
+    /**
+     * Tile condivise per le regioni uniformi: non vanno mai scritte.
+     */
+    private static final byte[] FREE_TILE = uniformTile(CellType.FREE);
+    private static final byte[] OBSTACLE_TILE = uniformTile(CellType.OBSTACLE);
+
+    /**
+     * Contenuto del tracciato, pubblicato una sola volta al caricamento.
+     */
+    private volatile TileGrid grid = TileGrid.EMPTY;
+
+    /**
+     * Indica se il tracciato  gi stato caricato (protetto dal lock dell'istanza).
+     */
+    private boolean loaded;
+
+    /**
+     * Verifica che una struttura densa (un valore per ogni cella del rettangolo) possa essere
+     * costruita per un tracciato: per un ChunkedTrack oltre {@link #MAX_DENSE_CELLS} celle
+     * significherebbe densificare l'intera mappa.
+     *
+     * @param track     Tracciato.
+     * @param structure Nome della struttura, per il messaggio d'errore.
+     * @throws UnsupportedOperationException Se il tracciato  un ChunkedTrack troppo grande.
+     */
+    public static void checkDenseSupported(ITrack track, String structure) {
+        if (track instanceof ChunkedTrack
+                && (long) track.getWidth() * track.getHeight() > MAX_DENSE_CELLS) {
+            throw new UnsupportedOperationException(structure + " non  supportato per un ChunkedTrack di "
+                    + track.getWidth() + "x" + track.getHeight() + " celle: richiederebbe array densi"
+                    + " sull'intero rettangolo.");
+        }
+    }
+
+    /**
+     * Carica il tracciato da una risorsa del classpath (vedi {@link Track#loadFromFile}).
+     *
+     * @param filename Nome della risorsa.
+     * @throws IOException Se la risorsa non esiste o non pu essere letta.
+     * @throws IllegalStateException Se il tracciato  gi stato caricato.
+     */
+    @Override
+    public void loadFromFile(String filename) throws IOException {
+        load(Track.readResource(filename));
+    }
+
+    /**
+     * Carica il tracciato da un file su disco mappato in memoria.
+     *
+     * @param path Percorso del file del tracciato.
+     * @throws IOException Se il file non esiste o non pu essere letto.
+     * @throws IllegalStateException Se il tracciato  gi stato caricato.
+     */
+    public void loadFromPath(Path path) throws IOException {
+        load(Track.readPath(path));
+    }
+
+    /**
+     * Interpreta il contenuto del tracciato e lo pubblica.
+     * Il formato testuale viene scritto direttamente nelle tile (se compresso, decomprimendolo
+     * in streaming); quello binario contiene le celle in forma densa, che vengono poi compattate.
+     */
+    private synchronized void load(ByteBuffer... regions) throws IOException {
+        if (loaded) {
+            throw new IllegalStateException("Il tracciato  gi stato caricato.");
+        }
+        TileGrid loadedGrid;
+        if (Track.isCompressed(regions)) {
+            TrackParser.Source source = Track.inflating(regions);
+            loadedGrid = Track.isBinary(source)
+                    ? fromBinary(BinaryTrackFormat.read(Track.inflateBinary(source)))
+                    : new TrackParser().parseChunked(source);
+        } else if (regions.length > 0 && BinaryTrackFormat.isBinary(regions[0])) {
+            if (regions.length > 1) {
+                throw new IOException("Tracciato binario troppo grande.");
+            }
+            loadedGrid = fromBinary(BinaryTrackFormat.read(regions[0]));
+        } else {
+            loadedGrid = new TrackParser().parseChunked(regions);
+        }
+        grid = loadedGrid;
+        loaded = true;
+    }
+
+    /**
+     * Compatta in tile le celle dense di un tracciato binario.
+     */
+    private static TileGrid fromBinary(TrackData data) throws IOException {
+        Builder builder = new Builder(data.getWidth(), data.getHeight());
+        byte[] cells = data.getCells();
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != CellType.FREE) {
+                builder.set(i % data.getWidth(), i / data.getWidth(), cells[i]);
+            }
+        }
+        return builder.build(data.getStartPositions(), data.getFinishPositions());
+    }
+
+    /**
+     * Restituisce il codice ({@link CellType}) della cella alle coordinate indicate.
+     * Fuori dai limiti la cella  considerata un ostacolo.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Il codice della cella.
+     */
+    @Override
+    public byte getCellType(int x, int y) {
+        TileGrid current = grid;
+        if (x < 0 || x >= current.width || y < 0 || y >= current.height) {
+            return CellType.OBSTACLE;
+        }
+        byte[] tile = current.tiles[(y >> TILE_SHIFT) * current.tilesX + (x >> TILE_SHIFT)];
+        return tile[((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK)];
+    }
+
+    @Override
+    public char getCell(Position position) {
+        return CellType.toChar(getCellType(position.getX(), position.getY()));
+    }
+
+    @Override
+    public boolean isFree(Position position) {
+        return getCellType(position.getX(), position.getY()) != CellType.OBSTACLE;
+    }
+
+    @Override
+    public boolean isObstacle(Position position) {
+        return getCellType(position.getX(), position.getY()) == CellType.OBSTACLE;
+    }
+
+    @Override
+    public boolean isFinish(Position position) {
+        return getCellType(position.getX(), position.getY()) == CellType.FINISH;
+    }
+
+    @Override
+    public Position getStartPosition() {
+        List<Position> starts = grid.startPositions;
+        return starts.isEmpty() ? null : starts.get(0);
+    }
+
+    @Override
+    public Position getFinishPosition() {
+        List<Position> finishes = grid.finishPositions;
+        return finishes.isEmpty() ? null : finishes.get(0);
+    }
+
+    @Override
+    public int getWidth() {
+        return grid.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return grid.height;
+    }
+
+    /**
+     * Fornisce tutte le posizioni di partenza.
+     *
+     * @return Lista non modificabile delle posizioni di partenza.
+     */
+    public List<Position> getAllStartPositions() {
+        return grid.startPositions;
+    }
+
+    /**
+     * Fornisce tutte le posizioni di arrivo.
+     *
+     * @return Lista non modificabile delle posizioni di arrivo.
+     */
+    public List<Position> getAllFinishPositions() {
+        return grid.finishPositions;
+    }
+
+    /**
+     * Restituisce il numero totale di tile che coprono il tracciato.
+     *
+     * @return Numero di tile (uniformi e miste).
+     */
+    public int getTileCount() {
+        return grid.tiles.length;
+    }
+
+    /**
+     * Restituisce il numero di tile miste, cio quelle che occupano memoria propria
+     * ({@link #TILE_SIZE} * {@link #TILE_SIZE} byte ciascuna).
+     *
+     * @return Numero di tile non condivise.
+     */
+    public int getMaterializedTileCount() {
+        int count = 0;
+        for (byte[] tile : grid.tiles) {
+            if (tile != FREE_TILE && tile != OBSTACLE_TILE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] uniformTile(byte code) {
+        byte[] tile = new byte[TILE_SIZE * TILE_SIZE];
+        Arrays.fill(tile, code);
+        return tile;
+    }
+
+    /**
+     * Contenuto immutabile di un ChunkedTrack: dimensioni, tile (indicizzate per righe
+     * di tile: tileY * tilesX + tileX), partenze e traguardi.
+     */
+    static final class TileGrid {
+
+        static final TileGrid EMPTY = new TileGrid(0, 0, 0, new byte[0][],
+                Collections.emptyList(), Collections.emptyList());
+
+        private final int width;
+        private final int height;
+        private final int tilesX;
+        private final byte[][] tiles;
+        private final List<Position> startPositions;
+        private final List<Position> finishPositions;
+
+        private TileGrid(int width, int height, int tilesX, byte[][] tiles,
+                         List<Position> startPositions, List<Position> finishPositions) {
+            this.width = width;
+            this.height = height;
+            this.tilesX = tilesX;
+            this.tiles = tiles;
+            this.startPositions = Collections.unmodifiableList(startPositions);
+            this.finishPositions = Collections.unmodifiableList(finishPositions);
+        }
+    }
+
+    /**
+     * Costruisce le tile di un tracciato partendo da una mappa tutta libera.
+     * Una tile condivisa viene copiata solo alla prima scrittura che la rende diversa;
+     * alla fine le tile tornate uniformi vengono sostituite da quelle condivise.
+     */
+    static final class Builder {
+
+        private final int width;
+        private final int height;
+        private final int tilesX;
+        private final byte[][] tiles;
+
+        Builder(int width, int height) throws IOException {
+            this.width = width;
+            this.height = height;
+            this.tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+            int tilesY = (height + TILE_MASK) >> TILE_SHIFT;
+            long tileCount = (long) tilesX * tilesY;
+            if (tileCount > Integer.MAX_VALUE - 8) {
+                throw new IOException("Tracciato troppo grande: " + width + "x" + height + " celle.");
+            }
+            this.tiles = new byte[(int) tileCount][];
+            Arrays.fill(tiles, FREE_TILE);
+        }
+
+        /**
+         * Scrive il codice di una cella.
+         *
+         * @param x    Coordinata x (entro i limiti).
+         * @param y    Coordinata y (entro i limiti).
+         * @param code Codice {@link CellType} della cella.
+         */
+        void set(int x, int y, byte code) {
+            int index = (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+            int offset = ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+            byte[] tile = tiles[index];
+            if (tile == FREE_TILE || tile == OBSTACLE_TILE) {
+                if (tile[offset] == code) {
+                    return;
+                }
+                tile = tile.clone();
+                tiles[index] = tile;
+            }
+            tile[offset] = code;
+        }
+
+        /**
+         * Compatta le tile uniformi e restituisce il contenuto del tracciato.
+         *
+         * @param starts   Posizioni di partenza.
+         * @param finishes Posizioni di arrivo.
+         * @return Il contenuto immutabile del tracciato.
+         */
+        TileGrid build(List<Position> starts, List<Position> finishes) {
+            for (int i = 0; i < tiles.length; i++) {
+                byte[] tile = tiles[i];
+                if (tile != FREE_TILE && tile != OBSTACLE_TILE) {
+                    tiles[i] = shared(tile, i);
+                }
+            }
+            return new TileGrid(width, height, tilesX, tiles, starts, finishes);
+        }
+
+        /**
+         * Restituisce la tile condivisa equivalente, se la tile  uniforme,
+         * altrimenti la tile stessa. Le celle delle tile di bordo che cadono
+         * fuori dal tracciato non vengono mai lette, quindi non contano.
+         */
+        private byte[] shared(byte[] tile, int index) {
+            int originX = (index % tilesX) << TILE_SHIFT;
+            int originY = (index / tilesX) << TILE_SHIFT;
+            int columns = Math.min(TILE_SIZE, width - originX);
+            int rows = Math.min(TILE_SIZE, height - originY);
+            byte first = tile[0];
+            if (first != CellType.FREE && first != CellType.OBSTACLE) {
+                return tile;
+            }
+            for (int row = 0; row < rows; row++) {
+                int rowStart = row << TILE_SHIFT;
+                for (int column = 0; column < columns; column++) {
+                    if (tile[rowStart + column] != first) {
+                        return tile;
+                    }
+                }
+            }
+            return first == CellType.FREE ? FREE_TILE : OBSTACLE_TILE;
+        }
+    }
+}
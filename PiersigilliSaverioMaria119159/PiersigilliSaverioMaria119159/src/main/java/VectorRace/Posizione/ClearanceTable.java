@@ -0,0 +1,137 @@
+package VectorRace.Posizione;
+
+/**
+ * ClearanceTable contiene, per ogni cella del tracciato e per ognuna delle 8
+ * {@link VectorDirection.CardinalDirection}, il numero di celle libere consecutive
+ * che si incontrano procedendo in quella direzione prima di un ostacolo o del bordo.
+ * <p>
+ * Ogni direzione ha un proprio array di short indicizzato per righe (y * larghezza + x),
+ * riempito con una sola scansione lineare del tracciato: le celle vengono visitate
+ * nell'ordine opposto alla direzione, cos il valore della cella successiva  gi noto
+ * e vale clearance(cella) = libera(successiva) ? 1 + clearance(successiva) : 0.
+ * Ogni interrogazione  quindi una lettura O(1), indipendente dalle dimensioni del tracciato.
+ * I valori sono saturati a {@link #MAX_CLEARANCE}, ben oltre qualunque velocit raggiungibile,
+ * cos la tabella occupa 16 byte per cella invece di 32.
+ * Per un {@link Track} la tabella  un dato derivato condiviso (vedi {@link Track#getDerived}).
+ *  immutabile e pu essere letta da pi thread.
+ */
+public final class ClearanceTable {
+
+    /**
+     * Chiave con cui la tabella  conservata tra i dati derivati di un {@link Track}.
+     */
+    private static final Track.DerivedKey<ClearanceTable> DERIVED_KEY =
+            new Track.DerivedKey<>("ClearanceTable", ClearanceTable.class);
+
+    /**
+     * Valore massimo memorizzato: tratti liberi pi lunghi vengono riportati come MAX_CLEARANCE.
+     */
+    public static final int MAX_CLEARANCE = Short.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * clearances[d][y * larghezza + x]: celle libere oltre (x, y) nella direzione di ordinale d,
+     * saturate a {@link #MAX_CLEARANCE}.
+     */
+    private final short[][] clearances;
+
+    private ClearanceTable(int width, int height, short[][] clearances) {
+        this.width = width;
+        this.height = height;
+        this.clearances = clearances;
+    }
+
+    /**
+     * Restituisce la tabella di un tracciato. Per un {@link Track} viene calcolata
+     * una sola volta e condivisa da tutti i suoi utilizzatori; per le altre implementazioni
+     * viene calcolata a ogni chiamata.
+     *
+     * @param track Tracciato.
+     * @return La tabella delle distanze dagli ostacoli.
+     */
+    public static ClearanceTable of(ITrack track) {
+        if (track instanceof Track) {
+            return ((Track) track).getDerived(DERIVED_KEY, ClearanceTable::compute);
+        }
+        return compute(track);
+    }
+
+    /**
+     * Calcola la tabella di un tracciato.
+     *
+     * @param track Tracciato.
+     * @return La tabella delle distanze dagli ostacoli.
+     * @throws UnsupportedOperationException Per un {@link ChunkedTrack} troppo grande
+     *                                       (vedi {@link ChunkedTrack#checkDenseSupported}).
+     */
+    public static ClearanceTable compute(ITrack track) {
+        ChunkedTrack.checkDenseSupported(track, "ClearanceTable");
+        int width = track.getWidth();
+        int height = track.getHeight();
+        byte[] cells = track instanceof Track ? ((Track) track).getCells() : DistanceField.cellsOf(track);
+        short[][] clearances = new short[DistanceField.STEP_X.length][];
+        for (int d = 0; d < clearances.length; d++) {
+            clearances[d] = sweep(width, height, cells, DistanceField.STEP_X[d], DistanceField.STEP_Y[d]);
+        }
+        return new ClearanceTable(width, height, clearances);
+    }
+
+    /**
+     * Riempie la tabella di una direzione (dx, dy) con una scansione che procede
+     * in verso opposto, sia sulle righe sia sulle colonne.
+     */
+    private static short[] sweep(int width, int height, byte[] cells, int dx, int dy) {
+        short[] result = new short[cells.length];
+        int firstRow = dy > 0 ? height - 1 : 0;
+        int rowStep = dy > 0 ? -1 : 1;
+        int firstColumn = dx > 0 ? width - 1 : 0;
+        int columnStep = dx > 0 ? -1 : 1;
+        int offset = dy * width + dx;
+
+        for (int r = 0, y = firstRow; r < height; r++, y += rowStep) {
+            int ny = y + dy;
+            boolean rowInside = ny >= 0 && ny < height;
+            for (int c = 0, x = firstColumn; c < width; c++, x += columnStep) {
+                int nx = x + dx;
+                if (!rowInside || nx < 0 || nx >= width) {
+                    continue;
+                }
+                int index = y * width + x;
+                int next = index + offset;
+                if (cells[next] != CellType.OBSTACLE) {
+                    result[index] = (short) Math.min(result[next] + 1, MAX_CLEARANCE);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Restituisce il numero di celle libere oltre (x, y) nella direzione indicata,
+     * prima di un ostacolo o del bordo del tracciato.
+     *
+     * @param x         Coordinata x.
+     * @param y         Coordinata y.
+     * @param direction Direzione.
+     * @return Numero di celle libere (al pi {@link #MAX_CLEARANCE}); 0 fuori dal tracciato.
+     */
+    public int clearance(int x, int y, VectorDirection.CardinalDirection direction) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return 0;
+        }
+        return clearances[direction.ordinal()][y * width + x];
+    }
+
+    /**
+     * Restituisce il numero di celle libere oltre la posizione nella direzione indicata.
+     *
+     * @param position  Posizione.
+     * @param direction Direzione.
+     * @return Numero di celle libere (al pi {@link #MAX_CLEARANCE}); 0 fuori dal tracciato.
+     */
+    public int clearance(Position position, VectorDirection.CardinalDirection direction) {
+        return clearance(position.getX(), position.getY(), direction);
+    }
+}
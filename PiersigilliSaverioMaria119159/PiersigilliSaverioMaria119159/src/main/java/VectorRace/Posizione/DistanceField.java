@@ -0,0 +1,279 @@
+package VectorRace.Posizione;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * DistanceField contiene, per ogni cella del tracciato, la distanza lungo il tracciato
+ * dal traguardo pi vicino, aggirando gli ostacoli.
+ * <p>
+ * Ci si sposta di una cella nelle 8 direzioni: i passi orizzontali e verticali costano 1,
+ * quelli diagonali 2. In campo aperto la distanza coincide quindi con la distanza Manhattan
+ * su cui sono tarate le euristiche dei bot, ma tiene conto dei muri, dei vicoli ciechi,
+ * dei passaggi in diagonale e di tutti i traguardi, non solo del primo.
+ * <p>
+ * Viene calcolato una sola volta con una visita che parte da tutte le celle di traguardo;
+ * le distanze sono memorizzate in un array di int indicizzato per righe
+ * (y * larghezza + x), quindi ogni interrogazione  una lettura O(1).
+ * Per un {@link Track} il campo  un dato derivato condiviso (vedi {@link Track#getDerived})
+ * e, se il tracciato binario lo include gi, non viene nemmeno ricalcolato.
+ *  immutabile e pu essere letto da pi thread.
+ */
+public final class DistanceField {
+
+    /**
+     * Chiave con cui il campo  conservato tra i dati derivati di un {@link Track}.
+     */
+    private static final Track.DerivedKey<DistanceField> DERIVED_KEY =
+            new Track.DerivedKey<>("DistanceField", DistanceField.class);
+
+    /**
+     * Distanza di ostacoli, celle fuori dal tracciato e celle da cui il traguardo non  raggiungibile.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * Valore di {@link #rankDistance} per le celle da cui il traguardo non  raggiungibile:
+     * maggiore di qualunque distanza reale (che con le diagonali a costo 2 pu superare
+     * larghezza * altezza) e lontano dall'overflow anche se vi si sommano altri termini.
+     */
+    public static final int UNREACHABLE_RANK = Integer.MAX_VALUE / 2;
+
+    /**
+     * Spostamenti di una cella nelle 8 direzioni (dx, dy), nell'ordine di
+     * {@link VectorDirection.CardinalDirection} (N, NE, E, SE, S, SW, W, NW).
+     */
+    static final int[] STEP_X = {0, 1, 1, 1, 0, -1, -1, -1};
+    static final int[] STEP_Y = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    /**
+     * Costo di ogni spostamento: 1 in orizzontale e verticale, 2 in diagonale.
+     */
+    static final int[] STEP_COST = {1, 2, 1, 2, 1, 2, 1, 2};
+
+    private final int width;
+    private final int height;
+    private final int[] distances;
+
+    /**
+     * Numero di celle oltre il quale il campo viene calcolato in parallelo con {@link FrontierSearch}.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 22;
+
+    /**
+     * Parallelismo minimo del pool comune per usare {@link FrontierSearch}: con un solo thread
+     * la visita per livelli impiega circa una volta e mezza il tempo di quella sequenziale,
+     * quindi conviene solo se il lavoro si divide davvero su pi core.
+     */
+    static final int MIN_PARALLELISM = 4;
+
+    DistanceField(int width, int height, int[] distances) {
+        this.width = width;
+        this.height = height;
+        this.distances = distances;
+    }
+
+    /**
+     * Restituisce il campo di distanze di un tracciato. Per un {@link Track} viene calcolato
+     * una sola volta e condiviso da tutti i suoi utilizzatori; per le altre implementazioni
+     * viene calcolato a ogni chiamata.
+     *
+     * @param track Tracciato.
+     * @return Il campo di distanze dal traguardo.
+     */
+    public static DistanceField of(ITrack track) {
+        if (track instanceof Track) {
+            return ((Track) track).getDerived(DERIVED_KEY, DistanceField::compute);
+        }
+        return compute(track);
+    }
+
+    /**
+     * Calcola il campo di distanze di un tracciato. Per un {@link Track} binario
+     * che include gi la tabella delle distanze, questa viene usata direttamente;
+     * i tracciati grandi vengono calcolati in parallelo sul {@link java.util.concurrent.ForkJoinPool}
+     * comune (vedi {@link FrontierSearch}), se questo ha almeno {@link #MIN_PARALLELISM} thread.
+     *
+     * @param track Tracciato.
+     * @return Il campo di distanze dal traguardo.
+     * @throws UnsupportedOperationException Per un {@link ChunkedTrack} troppo grande
+     *                                       (vedi {@link ChunkedTrack#checkDenseSupported}).
+     */
+    public static DistanceField compute(ITrack track) {
+        ChunkedTrack.checkDenseSupported(track, "DistanceField");
+        int width = track.getWidth();
+        int height = track.getHeight();
+        if (track instanceof Track) {
+            Track t = (Track) track;
+            int[] embedded = t.getSection(BinaryTrackFormat.SECTION_FINISH_DISTANCE);
+            if (embedded != null && embedded.length == width * height) {
+                return new DistanceField(width, height, embedded);
+            }
+        }
+        if ((long) width * height >= PARALLEL_THRESHOLD
+                && ForkJoinPool.getCommonPoolParallelism() >= MIN_PARALLELISM) {
+            return new FrontierSearch().compute(track);
+        }
+        return computeSequential(track);
+    }
+
+    /**
+     * Calcola il campo di distanze di un tracciato in un solo thread, senza usare
+     * la tabella inclusa nel formato binario:  il riferimento con cui confrontare
+     * {@link FrontierSearch}.
+     *
+     * @param track Tracciato.
+     * @return Il campo di distanze dal traguardo.
+     * @throws UnsupportedOperationException Per un {@link ChunkedTrack} troppo grande
+     *                                       (vedi {@link ChunkedTrack#checkDenseSupported}).
+     */
+    public static DistanceField computeSequential(ITrack track) {
+        ChunkedTrack.checkDenseSupported(track, "DistanceField");
+        int width = track.getWidth();
+        int height = track.getHeight();
+        byte[] cells = track instanceof Track ? ((Track) track).getCells() : cellsOf(track);
+        return new DistanceField(width, height, search(width, height, cells));
+    }
+
+    /**
+     * Ricostruisce i codici delle celle di un tracciato generico tramite l'interfaccia.
+     *
+     * @param track Tracciato.
+     * @return Codici delle celle indicizzati per righe (vedi {@link ITrack#getCellType}).
+     */
+    static byte[] cellsOf(ITrack track) {
+        int width = track.getWidth();
+        int height = track.getHeight();
+        byte[] cells = new byte[Math.multiplyExact(width, height)];
+        readRows(track, cells, 0, height);
+        return cells;
+    }
+
+    /**
+     * Scrive in cells i codici delle righe [fromRow, toRow) di un tracciato generico.
+     */
+    static void readRows(ITrack track, byte[] cells, int fromRow, int toRow) {
+        int width = track.getWidth();
+        for (int y = fromRow; y < toRow; y++) {
+            for (int x = 0; x < width; x++) {
+                cells[y * width + x] = track.getCellType(x, y);
+            }
+        }
+    }
+
+    /**
+     * Visita a costi interi (algoritmo di Dial) da tutti i traguardi: con costi 1 e 2
+     * basta una coda circolare di 3 "secchi", uno per ogni distanza modulo 3, ciascuno
+     * su un array primitivo. Le celle gi migliorate restano nei secchi e vengono scartate
+     * quando la loro distanza non corrisponde pi a quella del secchio.
+     */
+    private static int[] search(int width, int height, byte[] cells) {
+        int[] distances = new int[cells.length];
+        Arrays.fill(distances, UNREACHABLE);
+        int[][] buckets = new int[3][];
+        int[] sizes = new int[3];
+        int pending = 0;
+        buckets[0] = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == CellType.FINISH) {
+                distances[i] = 0;
+                buckets[0][sizes[0]++] = i;
+                pending++;
+            }
+        }
+        if (pending == 0) {
+            return distances;
+        }
+        buckets[1] = new int[cells.length];
+        buckets[2] = new int[cells.length];
+
+        for (int distance = 0; pending > 0; distance++) {
+            int bucket = distance % 3;
+            int[] queue = buckets[bucket];
+            for (int k = 0; k < sizes[bucket]; k++) {
+                int index = queue[k];
+                if (distances[index] != distance) {
+                    continue;
+                }
+                int x = index % width;
+                int y = index / width;
+                for (int d = 0; d < STEP_X.length; d++) {
+                    int nx = x + STEP_X[d];
+                    int ny = y + STEP_Y[d];
+                    if (nx < 0 || nx >= width || ny < 0 || ny >= height) {
+                        continue;
+                    }
+                    int neighbour = ny * width + nx;
+                    int next = distance + STEP_COST[d];
+                    if (cells[neighbour] != CellType.OBSTACLE
+                            && (distances[neighbour] == UNREACHABLE || next < distances[neighbour])) {
+                        distances[neighbour] = next;
+                        int target = next % 3;
+                        buckets[target][sizes[target]++] = neighbour;
+                        pending++;
+                    }
+                }
+            }
+            pending -= sizes[bucket];
+            sizes[bucket] = 0;
+        }
+        return distances;
+    }
+
+    /**
+     * Restituisce la distanza dal traguardo pi vicino.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Distanza dal traguardo, oppure {@link #UNREACHABLE}.
+     */
+    public int distance(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return UNREACHABLE;
+        }
+        return distances[y * width + x];
+    }
+
+    /**
+     * Restituisce la distanza dal traguardo pi vicino.
+     *
+     * @param position Posizione.
+     * @return Distanza dal traguardo, oppure {@link #UNREACHABLE}.
+     */
+    public int distance(Position position) {
+        return distance(position.getX(), position.getY());
+    }
+
+    /**
+     * Restituisce la distanza dal traguardo da usare per confrontare le celle:
+     * come {@link #distance(Position)}, ma le celle da cui il traguardo non  raggiungibile
+     * (ostacoli, vicoli ciechi, esterno) valgono {@link #UNREACHABLE_RANK},
+     * cio pi di qualunque cella raggiungibile.
+     *
+     * @param position Posizione.
+     * @return Distanza dal traguardo, oppure {@link #UNREACHABLE_RANK}.
+     */
+    public int rankDistance(Position position) {
+        int distance = distance(position);
+        return distance == UNREACHABLE ? UNREACHABLE_RANK : distance;
+    }
+
+    /**
+     * Indica se dalla posizione  possibile raggiungere un traguardo.
+     *
+     * @param position Posizione.
+     * @return true se la distanza  definita.
+     */
+    public boolean isReachable(Position position) {
+        return distance(position) != UNREACHABLE;
+    }
+
+    /**
+     * Restituisce le distanze di tutte le celle (per il compilatore del formato binario).
+     *
+     * @return Distanze indicizzate per righe; non vanno modificate.
+     */
+    int[] getDistances() {
+        return distances;
+    }
+}
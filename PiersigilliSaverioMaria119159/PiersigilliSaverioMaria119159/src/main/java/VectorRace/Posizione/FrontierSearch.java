@@ -0,0 +1,364 @@
+package VectorRace.Posizione;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * FrontierSearch calcola il {@link DistanceField} di un tracciato qualunque ({@link ITrack})
+ * con una visita per livelli, parallela sulla frontiera, eseguita su un {@link ForkJoinPool}.
+ * <p>
+ * I passi orizzontali e verticali costano 1 e quelli diagonali 2, quindi una cella
+ *  a distanza d + 1 se e solo se non  ancora stata visitata ed  adiacente in orizzontale
+ * o verticale a una cella a distanza d, oppure in diagonale a una cella a distanza d - 1.
+ * Ogni livello si ottiene quindi dalle due frontiere precedenti:
+ * <ul>
+ *     <li>le frontiere sono array di indici di cella (y * larghezza + x);</li>
+ *     <li>i task si dividono ricorsivamente le frontiere e raccolgono le nuove celle in array locali,
+ *         poi concatenati;</li>
+ *     <li>le celle visitate sono segnate in un bitset ({@link AtomicLongArray}): una cella
+ *         appartiene al task che ne imposta per primo il bit, quindi la sua distanza
+ *         viene scritta una sola volta e nessuna cella compare due volte nella frontiera;</li>
+ *     <li>i livelli con frontiere piccole vengono espansi in sequenza dallo stesso task,
+ *         senza dividerli e senza operazioni atomiche.</li>
+ * </ul>
+ * Il risultato coincide con quello del calcolo sequenziale di {@link DistanceField#computeSequential}.
+ * Con un solo thread la visita  pi lenta di quella sequenziale: {@link DistanceField#compute}
+ * la sceglie solo per i tracciati grandi e quando il pool comune ha pi core a disposizione.
+ */
+public final class FrontierSearch {
+
+    /**
+     * Numero di celle di frontiera (o di righe del tracciato) sotto il quale un task
+     * smette di dividersi e lavora in sequenza.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Crea una visita che usa il {@link ForkJoinPool} comune.
+     */
+    public FrontierSearch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea una visita che usa il pool indicato (es. per limitare il numero di core).
+     *
+     * @param pool Pool su cui eseguire i task.
+     */
+    public FrontierSearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Calcola il campo di distanze dal traguardo di un tracciato.
+     *
+     * @param track Tracciato (qualunque implementazione di {@link ITrack}).
+     * @return Il campo di distanze dal traguardo.
+     * @throws UnsupportedOperationException Per un {@link ChunkedTrack} troppo grande
+     *                                       (vedi {@link ChunkedTrack#checkDenseSupported}).
+     */
+    public DistanceField compute(ITrack track) {
+        ChunkedTrack.checkDenseSupported(track, "FrontierSearch");
+        int width = track.getWidth();
+        int height = track.getHeight();
+        byte[] cells;
+        if (track instanceof Track) {
+            cells = ((Track) track).getCells();
+        } else {
+            cells = new byte[Math.multiplyExact(width, height)];
+            pool.invoke(new ReadRows(track, cells, 0, height));
+        }
+        return new DistanceField(width, height, search(width, height, cells));
+    }
+
+    /**
+     * Esegue la visita per livelli su un array di codici di cella.
+     */
+    int[] search(int width, int height, byte[] cells) {
+        int[] distances = new int[cells.length];
+        AtomicLongArray visited = new AtomicLongArray((cells.length + 63) >>> 6);
+        pool.invoke(new Levels(new Grid(width, height, cells, distances, visited)));
+        return distances;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * Stato condiviso della visita.
+     */
+    private static final class Grid {
+        private final int width;
+        private final int height;
+        private final byte[] cells;
+        private final int[] distances;
+        private final AtomicLongArray visited;
+
+        private Grid(int width, int height, byte[] cells, int[] distances, AtomicLongArray visited) {
+            this.width = width;
+            this.height = height;
+            this.cells = cells;
+            this.distances = distances;
+            this.visited = visited;
+        }
+
+        /**
+         * Segna una cella come visitata.
+         *
+         * @return true se la cella non era ancora stata visitata da nessun task.
+         */
+        private boolean claim(int index) {
+            int word = index >>> 6;
+            long bit = 1L << index;
+            long old;
+            do {
+                old = visited.get(word);
+                if ((old & bit) != 0) {
+                    return false;
+                }
+            } while (!visited.compareAndSet(word, old, old | bit));
+            return true;
+        }
+
+        /**
+         * Come {@link #claim}, senza operazioni atomiche: da usare solo quando
+         * nessun altro task sta visitando le celle. In quel caso una cella  gi
+         * visitata se e solo se ha una distanza, che si legge senza toccare il bitset.
+         */
+        private boolean claimExclusive(int index) {
+            if (distances[index] != DistanceField.UNREACHABLE) {
+                return false;
+            }
+            int word = index >>> 6;
+            long bit = 1L << index;
+            long old = visited.getPlain(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+            visited.setPlain(word, old | bit);
+            return true;
+        }
+    }
+
+    /**
+     * Buffer di indici di cella su un array primitivo che cresce a raddoppi.
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[64];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(64, size * 2));
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Sostituisce il contenuto del buffer con quello di un array (che non va pi modificato altrove).
+         */
+        private void wrap(int[] array) {
+            values = array;
+            size = array.length;
+        }
+
+        private int[] toArray() {
+            return size == 0 ? EMPTY : Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Visita completa, eseguita come un unico task del pool: i livelli si susseguono
+     * nello stesso thread e solo le frontiere abbastanza grandi vengono divise tra
+     * pi task. Le frontiere piccole (corridoi, varchi) vengono espanse direttamente,
+     * su buffer riusati e senza operazioni atomiche, cos che le lunghe sequenze di
+     * livelli piccoli costino quasi quanto nella visita sequenziale.
+     */
+    @SuppressWarnings("serial")
+    private static final class Levels extends RecursiveAction {
+        private final Grid grid;
+
+        private Levels(Grid grid) {
+            this.grid = grid;
+        }
+
+        @Override
+        protected void compute() {
+            // Livello 0: tutti i traguardi (l'inizializzazione delle distanze  anch'essa parallela)
+            IntBuffer previous = new IntBuffer();
+            IntBuffer current = new IntBuffer();
+            IntBuffer next = new IntBuffer();
+            current.wrap(new Initialize(grid, 0, grid.cells.length).compute());
+
+            for (int distance = 0; current.size > 0 || previous.size > 0; distance++) {
+                if (current.size + previous.size <= SEQUENTIAL_THRESHOLD) {
+                    next.size = 0;
+                    expand(grid, current.values, 0, current.size, false, distance + 1, next, true);
+                    expand(grid, previous.values, 0, previous.size, true, distance + 1, next, true);
+                } else {
+                    Expand straight = new Expand(grid, current.values, 0, current.size, false, distance + 1);
+                    Expand diagonal = new Expand(grid, previous.values, 0, previous.size, true, distance + 1);
+                    diagonal.fork();
+                    int[] fromStraight = straight.compute();
+                    next = new IntBuffer();
+                    next.wrap(concat(fromStraight, diagonal.join()));
+                }
+                IntBuffer recycled = previous;
+                previous = current;
+                current = next;
+                next = recycled;
+            }
+        }
+    }
+
+    /**
+     * Inizializza le distanze di un intervallo di celle e restituisce i traguardi che contiene.
+     */
+    @SuppressWarnings("serial")
+    private static final class Initialize extends RecursiveTask<int[]> {
+        private final Grid grid;
+        private final int from;
+        private final int to;
+
+        private Initialize(Grid grid, int from, int to) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD * 64) {
+                int middle = (from + to) >>> 1;
+                Initialize right = new Initialize(grid, middle, to);
+                right.fork();
+                int[] left = new Initialize(grid, from, middle).compute();
+                return concat(left, right.join());
+            }
+            Arrays.fill(grid.distances, from, to, DistanceField.UNREACHABLE);
+            IntBuffer finishes = new IntBuffer();
+            for (int i = from; i < to; i++) {
+                if (grid.cells[i] == CellType.FINISH && grid.claim(i)) {
+                    grid.distances[i] = 0;
+                    finishes.add(i);
+                }
+            }
+            return finishes.toArray();
+        }
+    }
+
+    /**
+     * Espande un intervallo di una frontiera lungo i passi orizzontali/verticali
+     * oppure diagonali, assegnando la distanza indicata alle celle conquistate.
+     */
+    @SuppressWarnings("serial")
+    private static final class Expand extends RecursiveTask<int[]> {
+        private final Grid grid;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final boolean diagonal;
+        private final int distance;
+
+        private Expand(Grid grid, int[] frontier, int from, int to, boolean diagonal, int distance) {
+            this.grid = grid;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.diagonal = diagonal;
+            this.distance = distance;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Expand right = new Expand(grid, frontier, middle, to, diagonal, distance);
+                right.fork();
+                int[] left = new Expand(grid, frontier, from, middle, diagonal, distance).compute();
+                return concat(left, right.join());
+            }
+            IntBuffer next = new IntBuffer();
+            expand(grid, frontier, from, to, diagonal, distance, next, false);
+            return next.toArray();
+        }
+    }
+
+    /**
+     * Espande l'intervallo [from, to) di una frontiera lungo i passi orizzontali/verticali
+     * oppure diagonali, aggiungendo a next le celle conquistate.
+     *
+     * @param exclusive true se nessun altro task sta visitando le celle (vedi {@link Grid#claimExclusive}).
+     */
+    private static void expand(Grid grid, int[] frontier, int from, int to, boolean diagonal,
+                               int distance, IntBuffer next, boolean exclusive) {
+        int width = grid.width;
+        int height = grid.height;
+        // Nelle tabelle dei passi gli indici pari sono ortogonali e quelli dispari diagonali
+        int first = diagonal ? 1 : 0;
+        for (int i = from; i < to; i++) {
+            int index = frontier[i];
+            int x = index % width;
+            int y = index / width;
+            for (int d = first; d < DistanceField.STEP_X.length; d += 2) {
+                int nx = x + DistanceField.STEP_X[d];
+                int ny = y + DistanceField.STEP_Y[d];
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (grid.cells[neighbour] != CellType.OBSTACLE
+                        && (exclusive ? grid.claimExclusive(neighbour) : grid.claim(neighbour))) {
+                    grid.distances[neighbour] = distance;
+                    next.add(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Legge in parallelo, per fasce di righe, i codici delle celle di un tracciato generico.
+     */
+    @SuppressWarnings("serial")
+    private static final class ReadRows extends RecursiveAction {
+        private final ITrack track;
+        private final byte[] cells;
+        private final int fromRow;
+        private final int toRow;
+
+        private ReadRows(ITrack track, byte[] cells, int fromRow, int toRow) {
+            this.track = track;
+            this.cells = cells;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            long size = (long) (toRow - fromRow) * track.getWidth();
+            if (toRow - fromRow > 1 && size > SEQUENTIAL_THRESHOLD * 64L) {
+                int middle = (fromRow + toRow) >>> 1;
+                invokeAll(new ReadRows(track, cells, fromRow, middle),
+                        new ReadRows(track, cells, middle, toRow));
+                return;
+            }
+            DistanceField.readRows(track, cells, fromRow, toRow);
+        }
+    }
+}
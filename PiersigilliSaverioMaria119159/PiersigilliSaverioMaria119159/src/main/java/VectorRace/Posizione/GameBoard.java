@@ -1,13 +1,14 @@
 package VectorRace.Posizione;
 
-import VectorRace.Giocatori.BasePlayer;
 import VectorRace.Giocatori.IPlayer;
 import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.Track;
 import VectorRace.Posizione.VectorDirection;
+import VectorRace.Visualizzazione.TerminalRenderer;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.List;
 
@@ -27,9 +28,25 @@ public class GameBoard {
     private ITrack track;
 
     /**
-     * Mappa che associa un giocatore (IPlayer) alla sua posizione corrente (Position).
+     * Identificativo denso di ogni giocatore registrato (0, 1, 2, ... in ordine di arrivo).
+     * La mappa confronta i giocatori per identit, senza invocarne hashCode ed equals.
      */
-    private Map<IPlayer, Position> playerPositions;
+    private Map<IPlayer, Integer> playerIds;
+
+    /**
+     * Posizione corrente di ogni giocatore, codificata con {@link Position#pack(int, int)}
+     * e indicizzata per identificativo.
+     */
+    private long[] playerPositions;
+
+    /**
+     * Griglia di occupazione: per ogni cella conta quanti giocatori vi si trovano.
+     * Viene aggiornata a ogni spostamento, cos che il controllo di una cella
+     * costi O(1) indipendentemente dal numero di giocatori;  allocata per tile
+     * (vedi {@link CellValues}), quindi anche su un {@link ChunkedTrack} enorme
+     * occupa memoria solo nelle regioni in cui sono passati i giocatori.
+     */
+    private CellValues occupancy;
 
     /**
      * Indice della prossima posizione di partenza disponibile
@@ -37,6 +54,11 @@ public class GameBoard {
      */
     private int nextStartIndex = 0;
 
+    /**
+     * Renderer usato da display(), creato al primo frame.
+     */
+    private TerminalRenderer renderer;
+
     /**
      * Costruttore di GameBoard.
      *
@@ -44,7 +66,9 @@ public class GameBoard {
      */
     public GameBoard(ITrack track) {
         this.track = track;
-        this.playerPositions = new HashMap<>();
+        this.playerIds = new IdentityHashMap<>();
+        this.playerPositions = new long[8];
+        this.occupancy = new CellValues(track.getWidth(), track.getHeight());
     }
 
     /**
@@ -76,49 +100,106 @@ public class GameBoard {
 
         // Imposta la posizione iniziale del giocatore e lo aggiunge alla mappa
         player.setCurrentPosition(start);
-        playerPositions.put(player, start);
+        movePlayer(player, start);
     }
 
     /**
      * Controlla se la posizione  libera, ossia non occupata da ostacoli
-     * e non gi occupata da un altro giocatore.
+     * e non gi occupata da un altro giocatore. Equivale a {@link #isFree(int, int)}.
      *
      * @param pos La posizione da verificare.
      * @return true se la posizione  libera, false altrimenti.
      */
     public boolean isFree(Position pos) {
-        return track.isFree(pos) && !isOccupied(pos);
+        return isFree(pos.getX(), pos.getY());
     }
 
     /**
      * Controlla se la posizione rappresenta un ostacolo sul tracciato.
+     * Equivale a {@link #isObstacle(int, int)}.
      *
      * @param pos La posizione da verificare.
      * @return true se c' un ostacolo, false altrimenti.
      */
     public boolean isObstacle(Position pos) {
-        return track.isObstacle(pos);
+        return isObstacle(pos.getX(), pos.getY());
     }
 
     /**
      * Controlla se la posizione rappresenta il traguardo sul tracciato.
+     * Equivale a {@link #isFinish(int, int)}.
      *
      * @param pos La posizione da verificare.
      * @return true se  il traguardo, false altrimenti.
      */
     public boolean isFinish(Position pos) {
-        return track.isFinish(pos);
+        return isFinish(pos.getX(), pos.getY());
     }
 
     /**
-     * Verifica se la posizione  gi occupata da un giocatore (anche se  libera sul tracciato).
+     * Controlla se la cella alle coordinate indicate  libera (n ostacolo n occupata),
+     * senza creare una {@link Position}.  la variante usata dal motore di gioco:
+     * le sottoclassi che cambiano le regole delle celle ridefiniscono le varianti con le coordinate.
      *
-     * @param pos La posizione da verificare.
-     * @return true se la posizione  occupata da un giocatore, false altrimenti.
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se la cella  libera, false altrimenti.
+     */
+    public boolean isFree(int x, int y) {
+        return track.isFree(x, y) && occupancy.get(x, y) == 0;
+    }
+
+    /**
+     * Controlla se la cella alle coordinate indicate  un ostacolo, senza creare una {@link Position}.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se c' un ostacolo, false altrimenti.
+     */
+    public boolean isObstacle(int x, int y) {
+        return track.isObstacle(x, y);
+    }
+
+    /**
+     * Controlla se la cella alle coordinate indicate  un traguardo, senza creare una {@link Position}.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se  il traguardo, false altrimenti.
      */
-    private boolean isOccupied(Position pos) {
-        // Controlla se qualcuno dei giocatori ha la stessa posizione
-        return playerPositions.values().stream().anyMatch(p -> p.equals(pos));
+    public boolean isFinish(int x, int y) {
+        return track.isFinish(x, y);
+    }
+
+    /**
+     * Come {@link #isFree(int, int)}, con le coordinate codificate usate dal motore di gioco
+     * ({@link Position#pack(int, int)}).
+     *
+     * @param packed Coordinate codificate.
+     * @return true se la cella  libera, false altrimenti.
+     */
+    public boolean isFree(long packed) {
+        return isFree(Position.unpackX(packed), Position.unpackY(packed));
+    }
+
+    /**
+     * Come {@link #isObstacle(int, int)}, con le coordinate codificate.
+     *
+     * @param packed Coordinate codificate.
+     * @return true se c' un ostacolo, false altrimenti.
+     */
+    public boolean isObstacle(long packed) {
+        return isObstacle(Position.unpackX(packed), Position.unpackY(packed));
+    }
+
+    /**
+     * Come {@link #isFinish(int, int)}, con le coordinate codificate.
+     *
+     * @param packed Coordinate codificate.
+     * @return true se  il traguardo, false altrimenti.
+     */
+    public boolean isFinish(long packed) {
+        return isFinish(Position.unpackX(packed), Position.unpackY(packed));
     }
 
     /**
@@ -130,7 +211,42 @@ public class GameBoard {
     public void updatePlayerPosition(IPlayer player, Position newPos) {
         player.setCurrentPosition(newPos);
 
-        playerPositions.put(player, newPos);
+        movePlayer(player, newPos);
+    }
+
+    /**
+     * Aggiorna solo la posizione registrata sulla plancia (e la griglia di occupazione),
+     * senza modificare il giocatore: il motore ricopia lo stato nel giocatore quando
+     * questo non sta calcolando una decisione.
+     *
+     * @param player Il giocatore di cui aggiornare la posizione.
+     * @param newPos La nuova posizione.
+     */
+    public void updateOccupancy(IPlayer player, Position newPos) {
+        movePlayer(player, newPos);
+    }
+
+    /**
+     * Registra il giocatore nella nuova posizione, liberando la cella occupata in precedenza
+     * e aggiornando in modo incrementale la griglia di occupazione.
+     *
+     * @param player Il giocatore da spostare.
+     * @param newPos La nuova posizione.
+     */
+    private void movePlayer(IPlayer player, Position newPos) {
+        Integer id = playerIds.get(player);
+        if (id == null) {
+            id = playerIds.size();
+            playerIds.put(player, id);
+            if (id == playerPositions.length) {
+                playerPositions = Arrays.copyOf(playerPositions, id * 2);
+            }
+        } else {
+            long oldPos = playerPositions[id];
+            occupancy.add(Position.unpackX(oldPos), Position.unpackY(oldPos), -1);
+        }
+        playerPositions[id] = newPos.pack();
+        occupancy.add(newPos.getX(), newPos.getY(), 1);
     }
 
     /**
@@ -143,82 +259,25 @@ public class GameBoard {
     }
 
     /**
-     * Visualizza la situazione corrente del gioco:
-     * - Stampa riga per riga il tracciato, sostituendo i caratteri delle celle
-     *   con il simbolo del giocatore se  presente.
-     * - Stampa poi uno stato riepilogativo dei giocatori (nome, velocit, posizione, direzione).
+     * Visualizza la situazione corrente del gioco tramite un {@link TerminalRenderer}:
+     * - il primo frame disegna l'intero tracciato con i simboli dei giocatori;
+     * - i frame successivi aggiornano solo le celle cambiate;
+     * - segue uno stato riepilogativo dei giocatori (nome, velocit, posizione, direzione).
      *
      * @param players Lista dei giocatori attivi.
      * @param previousDirections Mappa che collega ogni giocatore
      *                           alla sua direzione al turno precedente.
      */
     public void display(List<IPlayer> players, Map<IPlayer, VectorDirection.CardinalDirection> previousDirections) {
-        // Stampa del tracciato, riga per riga
-        for (int y = 0; y < track.getHeight(); y++) {
-            for (int x = 0; x < track.getWidth(); x++) {
-                Position pos = new Position(x, y);
-
-                // Carattere che rappresenta la cella
-                char cell;
-
-                // Se track  un'istanza di Track,
-                // controlliamo in modo specifico Start (S) e Finish (F)
-                if (track instanceof Track) {
-                    Track t = (Track) track;
-                    if (t.getAllStartPositions().contains(pos)) {
-                        cell = 'S';   // Indichiamo posizione di partenza
-                    } else if (t.getAllFinishPositions().contains(pos)) {
-                        cell = 'F';   // Indichiamo traguardo
-                    } else {
-                        cell = t.getCell(pos);
-                    }
-                } else {
-                    cell = track.getCell(pos);
-                }
-
-                // Verifica se un giocatore  presente nella cella
-                String playerSymbol = null;
-                for (IPlayer player : players) {
-                    if (player.getCurrentPosition().equals(pos)) {
-                        // Se il giocatore  un BasePlayer,
-                        // usiamo l'iniziale del suo nome come simbolo.
-                        // Altrimenti, di default "P".
-                        playerSymbol = (player instanceof BasePlayer)
-                                ? ((BasePlayer) player).getName().substring(0, 1)
-                                : "P";
-                        break;
-                    }
-                }
-
-                // Stampa il simbolo del giocatore o il carattere della cella
-                System.out.print(playerSymbol != null ? playerSymbol : cell);
-            }
-            // Fine di una riga
-            System.out.println();
+        // Il renderer viene creato al primo utilizzo: le gare headless non lo allocano mai.
+        if (renderer == null) {
+            renderer = new TerminalRenderer(track, System.out);
         }
-
-        // Separatore e stato dei giocatori
-        System.out.println("\nStato dei giocatori:");
-        for (IPlayer player : players) {
-            // Mostra informazioni: nome, velocit, posizione e direzione precedente
-            String playerName = (player instanceof BasePlayer)
-                    ? ((BasePlayer) player).getName()
-                    : "Giocatore";
-            Position pos = player.getCurrentPosition();
-            int velocity = player.getVelocity();
-            VectorDirection.CardinalDirection direction = previousDirections.get(player);
-            String directionStr = (direction != null) ? direction.toString() : "N/D";
-
-            // Stampa formattata
-            System.out.printf("%s - Velocit: %d, Posizione: (%d, %d), Direzione: %s%n",
-                    playerName, velocity, pos.getX(), pos.getY(), directionStr);
-        }
-
-        System.out.println("--------------------------------------------------");
+        renderer.render(players, previousDirections);
     }
 
     public int getPlayerCount() {
-        return playerPositions.size();
+        return playerIds.size();
     }
 
 }
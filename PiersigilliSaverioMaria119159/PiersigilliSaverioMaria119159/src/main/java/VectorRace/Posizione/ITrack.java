@@ -90,5 +90,62 @@ public interface ITrack {
      * @return Valore intero che rappresenta l'altezza.
      */
     int getHeight();
-}
 
+    /**
+     * Restituisce il codice ({@link CellType}) della cella alle coordinate indicate.
+     * Fuori dai limiti la cella  considerata un ostacolo.
+     * <p>
+     * L'implementazione di default distingue solo ostacoli, traguardi e celle libere;
+     * le implementazioni che conservano i codici delle celle la sostituiscono con una lettura diretta.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Il codice della cella.
+     */
+    default byte getCellType(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            return CellType.OBSTACLE;
+        }
+        Position position = new Position(x, y);
+        if (isObstacle(position)) {
+            return CellType.OBSTACLE;
+        }
+        return isFinish(position) ? CellType.FINISH : CellType.FREE;
+    }
+
+    /**
+     * Indica se la cella alle coordinate indicate  libera (non  un ostacolo),
+     * senza creare una {@link Position}.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se la cella  dentro il tracciato e non  un ostacolo.
+     */
+    default boolean isFree(int x, int y) {
+        return getCellType(x, y) != CellType.OBSTACLE;
+    }
+
+    /**
+     * Indica se la cella alle coordinate indicate  un ostacolo (o  fuori dal tracciato),
+     * senza creare una {@link Position}.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se la cella  un ostacolo.
+     */
+    default boolean isObstacle(int x, int y) {
+        return getCellType(x, y) == CellType.OBSTACLE;
+    }
+
+    /**
+     * Indica se la cella alle coordinate indicate  un traguardo,
+     * senza creare una {@link Position}.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se la cella  un traguardo.
+     */
+    default boolean isFinish(int x, int y) {
+        return getCellType(x, y) == CellType.FINISH;
+    }
+}
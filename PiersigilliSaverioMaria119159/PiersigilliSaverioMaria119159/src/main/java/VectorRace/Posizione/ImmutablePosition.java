@@ -0,0 +1,25 @@
+package VectorRace.Posizione;
+
+/**
+ * ImmutablePosition  una {@link Position} che non pu essere modificata:
+ * i setter sollevano un'eccezione.
+ * <p>
+ *  usata per le posizioni condivise (partenze e traguardi di un tracciato),
+ * che possono essere lette contemporaneamente da pi gare su thread diversi.
+ */
+class ImmutablePosition extends Position {
+
+    ImmutablePosition(int x, int y) {
+        super(x, y);
+    }
+
+    @Override
+    public void setX(int x) {
+        throw new UnsupportedOperationException("Posizione non modificabile.");
+    }
+
+    @Override
+    public void setY(int y) {
+        throw new UnsupportedOperationException("Posizione non modificabile.");
+    }
+}
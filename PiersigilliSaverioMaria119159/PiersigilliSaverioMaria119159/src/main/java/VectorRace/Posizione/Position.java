@@ -1,13 +1,15 @@
 package VectorRace.Posizione;
 
-import java.util.Objects;
-
 /**
  * La classe Position rappresenta una coordinata (x, y) sulla griglia
  * o tracciato di gioco di VectorRace.
  * <p>
  * Viene utilizzata per identificare la posizione di un giocatore,
  * di un ostacolo o di qualsiasi altro elemento sulla mappa.
+ * <p>
+ * Nei percorsi critici le coordinate si possono anche rappresentare senza oggetti,
+ * come un unico long ({@link #pack(int, int)}); le posizioni delle celle di un tracciato
+ * si ottengono gi pronte e condivise da una {@link PositionCache}.
  */
 public class Position {
 
@@ -68,6 +70,55 @@ public class Position {
         this.y = y;
     }
 
+    /**
+     * Codifica le coordinate in un unico long: x nei 32 bit alti, y in quelli bassi.
+     * Vale per qualunque coppia di int, anche fuori dal tracciato o negativa.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Le coordinate codificate.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param packed Coordinate codificate con {@link #pack(int, int)}.
+     * @return La coordinata x.
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * @param packed Coordinate codificate con {@link #pack(int, int)}.
+     * @return La coordinata y.
+     */
+    public static int unpackY(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Sposta coordinate codificate, senza creare una posizione.
+     *
+     * @param packed Coordinate codificate con {@link #pack(int, int)}.
+     * @param dx     Spostamento lungo x.
+     * @param dy     Spostamento lungo y.
+     * @return Le coordinate di arrivo, codificate.
+     */
+    public static long offset(long packed, int dx, int dy) {
+        return pack(unpackX(packed) + dx, unpackY(packed) + dy);
+    }
+
+    /**
+     * Restituisce le coordinate di questa posizione codificate in un long.
+     *
+     * @return Le coordinate codificate con {@link #pack(int, int)}.
+     */
+    public long pack() {
+        return pack(x, y);
+    }
+
     /**
      * Confronta l'oggetto corrente con un altro per stabilire se
      * rappresentano la stessa posizione.
@@ -84,14 +135,15 @@ public class Position {
     }
 
     /**
-     * Genera un hash univoco basato sulle coordinate (x, y).
-     * Viene utilizzato in strutture dati come HashMap o HashSet.
+     * Genera un hash basato sulle coordinate (x, y).
+     * Viene utilizzato in strutture dati come HashMap o HashSet;
+     *  calcolato direttamente sugli int, senza array n boxing.
      *
      * @return Valore hash che rappresenta la coppia (x, y).
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
 }
 
@@ -0,0 +1,118 @@
+package VectorRace.Posizione;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * PositionCache fornisce le {@link Position} delle celle di un tracciato come oggetti
+ * immutabili e condivisi (flyweight): la stessa cella restituisce sempre la stessa istanza,
+ * quindi calcolare una mossa o la cella successiva non crea nuovi oggetti.
+ * <p>
+ * Le posizioni vengono create alla prima richiesta e memorizzate per tile quadrate di
+ * {@link ChunkedTrack#TILE_SIZE} celle di lato: l'array di una tile viene allocato solo
+ * quando una sua cella viene richiesta, cos che su mappe enormi (es. un {@link ChunkedTrack})
+ * la memoria sia proporzionale alle regioni visitate e non all'intero rettangolo.
+ * Le coordinate fuori dal tracciato e le celle dei tracciati con pi di {@link #MAX_CACHED_TILES}
+ * tile non vengono memorizzate: si ottiene comunque una posizione immutabile, ma nuova a ogni chiamata.
+ * Per un {@link Track} la cache  un dato derivato condiviso (vedi {@link Track#getDerived}).
+ * Pu essere usata da pi thread.
+ */
+public final class PositionCache {
+
+    /**
+     * Chiave con cui la cache  conservata tra i dati derivati di un {@link Track}.
+     */
+    private static final Track.DerivedKey<PositionCache> DERIVED_KEY =
+            new Track.DerivedKey<>("PositionCache", PositionCache.class);
+
+    /**
+     * Numero massimo di tile per cui la cache memorizza le posizioni.
+     */
+    static final int MAX_CACHED_TILES = 1 << 20;
+
+    private static final int TILE_SHIFT = ChunkedTrack.TILE_SHIFT;
+    private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+    private static final int TILE_CELLS = 1 << (2 * TILE_SHIFT);
+
+    private final int width;
+    private final int height;
+    private final int tilesPerRow;
+
+    /**
+     * Posizioni gi create, per tile (null finch la tile non viene visitata),
+     * oppure null se il tracciato  troppo grande.
+     */
+    private final AtomicReferenceArray<AtomicReferenceArray<Position>> tiles;
+
+    private PositionCache(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tilesPerRow = (width + TILE_MASK) >> TILE_SHIFT;
+        long tileCount = (long) tilesPerRow * ((height + TILE_MASK) >> TILE_SHIFT);
+        this.tiles = tileCount <= MAX_CACHED_TILES ? new AtomicReferenceArray<>((int) tileCount) : null;
+    }
+
+    /**
+     * Restituisce la cache delle posizioni di un tracciato. Per un {@link Track} viene creata
+     * una sola volta e condivisa da tutti i suoi utilizzatori; per le altre implementazioni
+     * ne viene creata una nuova a ogni chiamata, da conservare per tutta la gara.
+     *
+     * @param track Tracciato.
+     * @return La cache delle posizioni.
+     */
+    public static PositionCache of(ITrack track) {
+        if (track instanceof Track) {
+            return ((Track) track).getDerived(DERIVED_KEY,
+                    t -> new PositionCache(t.getWidth(), t.getHeight()));
+        }
+        return new PositionCache(track.getWidth(), track.getHeight());
+    }
+
+    /**
+     * Restituisce la posizione immutabile di coordinate (x, y).
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return La posizione condivisa della cella (nuova se fuori dal tracciato).
+     */
+    public Position get(int x, int y) {
+        if (tiles == null || x < 0 || x >= width || y < 0 || y >= height) {
+            return new ImmutablePosition(x, y);
+        }
+        int tileIndex = (y >> TILE_SHIFT) * tilesPerRow + (x >> TILE_SHIFT);
+        AtomicReferenceArray<Position> tile = tiles.get(tileIndex);
+        if (tile == null) {
+            tiles.compareAndSet(tileIndex, null, new AtomicReferenceArray<>(TILE_CELLS));
+            tile = tiles.get(tileIndex);
+        }
+        int index = ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+        Position position = tile.get(index);
+        if (position == null) {
+            // Due thread possono creare la stessa posizione: le istanze sono equivalenti.
+            position = new ImmutablePosition(x, y);
+            tile.set(index, position);
+        }
+        return position;
+    }
+
+    /**
+     * Restituisce la posizione immutabile corrispondente a coordinate codificate.
+     *
+     * @param packed Coordinate codificate con {@link Position#pack(int, int)}.
+     * @return La posizione condivisa della cella (nuova se fuori dal tracciato).
+     */
+    public Position get(long packed) {
+        return get(Position.unpackX(packed), Position.unpackY(packed));
+    }
+
+    /**
+     * Restituisce la posizione raggiunta spostandosi di un certo numero di celle in una direzione.
+     *
+     * @param from      Posizione di partenza.
+     * @param direction Direzione dello spostamento.
+     * @param steps     Numero di celle.
+     * @return La posizione di arrivo.
+     */
+    public Position offset(Position from, VectorDirection.CardinalDirection direction, int steps) {
+        return get(from.getX() + direction.getDx() * steps, from.getY() + direction.getDy() * steps);
+    }
+}
@@ -1,11 +1,21 @@
 package VectorRace.Posizione;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Track implementa l'interfaccia ITrack e rappresenta il tracciato di gioco.
@@ -17,103 +27,273 @@ import java.util.List;
  *     <li><strong>#</strong>: Ostacolo</li>
  *     <li>Altri caratteri interpretati come '.' (cella libera)</li>
  * </ul>
+ * Le celle sono memorizzate in un unico array di byte indicizzato per righe,
+ * con i codici di {@link CellType}: ogni interrogazione su una cella  una lettura O(1).
  */
 public class Track implements ITrack {
 
     /**
-     * Griglia di caratteri (altezza x larghezza) che rappresenta il tracciato.
+     * Dimensione massima di una singola regione mappata in memoria.
      */
-    private char[][] grid;
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
 
     /**
-     * Lista di posizioni di partenza caricate dal file.
+     * Primi due byte di un file gzip (letti big-endian).
      */
-    private List<Position> startPositions = new ArrayList<>();
+    private static final int GZIP_MAGIC = 0x1F8B;
 
     /**
-     * Lista di posizioni di arrivo (finish) caricate dal file.
+     * Dimensione massima del contenuto decompresso di un tracciato binario,
+     * che viene letto per intero in un array.
      */
-    private List<Position> finishPositions = new ArrayList<>();
+    static final int MAX_INFLATED_BINARY_SIZE = Integer.MAX_VALUE - 8;
 
     /**
-     * Larghezza effettiva del tracciato (numero di colonne).
+     * Contenuto del tracciato: dimensioni, celle ({@link CellType}, indicizzate per righe:
+     * y * width + x), partenze, traguardi e tabelle precalcolate.
+     *  un oggetto immutabile pubblicato una sola volta tramite un campo volatile:
+     * dopo il caricamento il tracciato pu essere condiviso tra thread senza sincronizzazione.
      */
-    private int width;
+    private volatile TrackData data = TrackData.EMPTY;
 
     /**
-     * Altezza effettiva del tracciato (numero di righe).
+     * Indica se il tracciato  gi stato caricato (protetto dal lock dell'istanza).
      */
-    private int height;
+    private boolean loaded;
+
+    /**
+     * Dati derivati dal tracciato (es. campi di distanza, tabelle dei bot), uno per chiave.
+     * Vivono e vengono liberati insieme al tracciato.
+     */
+    private final ConcurrentMap<DerivedKey<?>, Object> derived = new ConcurrentHashMap<>();
+
+    /**
+     * Crea un tracciato caricandolo da una risorsa del classpath.
+     *
+     * @param filename Nome della risorsa.
+     * @return Il tracciato caricato, pronto per essere condiviso tra pi gare.
+     * @throws IOException Se la risorsa non esiste o non pu essere letta.
+     */
+    public static Track fromResource(String filename) throws IOException {
+        Track track = new Track();
+        track.loadFromFile(filename);
+        return track;
+    }
+
+    /**
+     * Crea un tracciato caricandolo da un file su disco.
+     *
+     * @param path Percorso del file (testuale o binario).
+     * @return Il tracciato caricato, pronto per essere condiviso tra pi gare.
+     * @throws IOException Se il file non esiste o non pu essere letto.
+     */
+    public static Track fromPath(Path path) throws IOException {
+        Track track = new Track();
+        track.loadFromPath(path);
+        return track;
+    }
 
     /**
      * Carica i dati del tracciato da un file (resource) specificato.
      * <p>
-     * Il file viene letto riga per riga e, per ogni carattere nella riga,
+     * Il file viene interpretato riga per riga e, per ogni carattere nella riga,
      * si interpretano:
      * <ul>
-     *     <li>S: aggiunge la {@link Position} alle startPositions e nella grid salva '.'</li>
-     *     <li>F: aggiunge la {@link Position} alle finishPositions e nella grid salva '.'</li>
-     *     <li>#: segna la cella come ostacolo nella grid</li>
-     *     <li>Altrimenti: segna la cella come '.' (libera)</li>
+     *     <li>S: aggiunge la {@link Position} alle startPositions e segna la cella come START</li>
+     *     <li>F: aggiunge la {@link Position} alle finishPositions e segna la cella come FINISH</li>
+     *     <li>#: segna la cella come ostacolo</li>
+     *     <li>Altrimenti: segna la cella come libera</li>
      * </ul>
+     * Sono accettati anche i tracciati binari prodotti da {@link TrackCompiler}
+     * e i file compressi con gzip (riconosciuti dall'intestazione).
+     * Un tracciato pu essere caricato una sola volta: da quel momento  immutabile.
+     * Se la risorsa  un file su disco viene mappata in memoria (vedi {@link #loadFromPath(Path)}),
+     * altrimenti (es. dentro un jar) i suoi byte vengono letti e interpretati direttamente.
      *
      * @param filename Nome del file (o path relativo) da cui caricare il tracciato.
      * @throws IOException Se il file non viene trovato o si verifica un errore di lettura.
+     * @throws IllegalStateException Se il tracciato  gi stato caricato.
      */
     @Override
     public void loadFromFile(String filename) throws IOException {
+        load(readResource(filename));
+    }
+
+    /**
+     * Carica il tracciato da un file su disco mappandolo in memoria con {@link FileChannel#map}.
+     * Il contenuto viene letto direttamente dalla memoria mappata in due passaggi
+     * (dimensioni, poi celle), senza stringhe intermedie: il picco di memoria 
+     * praticamente solo l'array delle celle. I file pi grandi di 2 GB vengono
+     * mappati in pi regioni consecutive.
+     *
+     * @param path Percorso del file del tracciato.
+     * @throws IOException Se il file non esiste o si verifica un errore di lettura.
+     * @throws IllegalStateException Se il tracciato  gi stato caricato.
+     */
+    public void loadFromPath(Path path) throws IOException {
+        load(readPath(path));
+    }
+
+    /**
+     * Carica il tracciato da uno stream (testuale, binario o compresso con gzip).
+     * Lo stream viene letto per intero come byte e non viene chiuso; se  compresso
+     * viene tenuta in memoria solo la copia compressa.
+     *
+     * @param input Stream da cui leggere il tracciato.
+     * @throws IOException Se si verifica un errore di lettura.
+     * @throws IllegalStateException Se il tracciato  gi stato caricato.
+     */
+    public void loadFromStream(InputStream input) throws IOException {
+        load(ByteBuffer.wrap(input.readAllBytes()));
+    }
+
+    /**
+     * Restituisce il contenuto di una risorsa del classpath: mappato in memoria
+     * se la risorsa  un file su disco, altrimenti (es. dentro un jar) letto per intero.
+     *
+     * @param filename Nome della risorsa.
+     * @return Il contenuto, in una o pi regioni consecutive.
+     * @throws IOException Se la risorsa non esiste o non pu essere letta.
+     */
+    static ByteBuffer[] readResource(String filename) throws IOException {
         // Carichiamo il file come resource dal classpath.
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(filename)) {
-            if (inputStream == null) {
-                throw new IOException("File non trovato: " + filename);
+        URL resource = Track.class.getClassLoader().getResource(filename);
+        if (resource == null) {
+            throw new IOException("File non trovato: " + filename);
+        }
+
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return readPath(Paths.get(resource.toURI()));
+            } catch (URISyntaxException e) {
+                // URL non convertibile in percorso: si ripiega sulla lettura come stream.
+            }
+        }
+        try (InputStream inputStream = resource.openStream()) {
+            return new ByteBuffer[]{ByteBuffer.wrap(inputStream.readAllBytes())};
+        }
+    }
+
+    /**
+     * Mappa in memoria un file su disco, in regioni da al pi {@link #MAX_REGION_SIZE} byte.
+     * Le regioni restano valide anche dopo la chiusura del canale.
+     *
+     * @param path Percorso del file.
+     * @return Il contenuto del file, in una o pi regioni consecutive.
+     * @throws IOException Se il file non esiste o non pu essere letto.
+     */
+    static ByteBuffer[] readPath(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int regionCount = (int) ((size + MAX_REGION_SIZE - 1) / MAX_REGION_SIZE);
+            ByteBuffer[] regions = new ByteBuffer[regionCount];
+            for (int i = 0; i < regionCount; i++) {
+                long offset = (long) i * MAX_REGION_SIZE;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(MAX_REGION_SIZE, size - offset));
             }
-            BufferedReader br = new BufferedReader(new InputStreamReader(inputStream));
+            return regions;
+        } catch (NoSuchFileException e) {
+            throw new IOException("File non trovato: " + path, e);
+        }
+    }
+
+    /**
+     * @param regions Byte del file, in una o pi regioni consecutive.
+     * @return true se il contenuto  compresso con gzip.
+     */
+    static boolean isCompressed(ByteBuffer[] regions) {
+        return regions.length > 0 && regions[0].remaining() >= 2
+                && (regions[0].getShort(regions[0].position()) & 0xFFFF) == GZIP_MAGIC;
+    }
+
+    /**
+     * Restituisce una sorgente che decomprime il contenuto gzip a ogni apertura,
+     * cos che il formato testuale possa essere interpretato in streaming
+     * (vedi {@link TrackParser.Source}) senza tenere in memoria il contenuto decompresso.
+     *
+     * @param regions Byte del file compresso, in una o pi regioni consecutive.
+     * @return La sorgente del contenuto non compresso.
+     */
+    static TrackParser.Source inflating(ByteBuffer[] regions) {
+        return () -> new GZIPInputStream(new RegionInputStream(regions), 1 << 16);
+    }
 
-            // Accumula tutte le righe del file in una lista di stringhe
-            List<String> lines = new ArrayList<>();
-            String line;
+    /**
+     * @param source Contenuto non compresso.
+     * @return true se il contenuto  un tracciato binario (ne legge solo l'intestazione).
+     * @throws IOException Se il contenuto non pu essere letto.
+     */
+    static boolean isBinary(TrackParser.Source source) throws IOException {
+        try (InputStream input = source.open()) {
+            return BinaryTrackFormat.isBinary(ByteBuffer.wrap(input.readNBytes(4)));
+        }
+    }
 
-            // Legge ogni riga e aggiorna la larghezza massima e l'altezza
-            while ((line = br.readLine()) != null) {
-                lines.add(line);
-                width = Math.max(width, line.length());
-                height++;
+    /**
+     * Legge per intero un tracciato binario compresso, che deve stare in un array.
+     *
+     * @param source Contenuto non compresso.
+     * @return Il contenuto del tracciato binario.
+     * @throws IOException Se il contenuto non pu essere letto o supera
+     *                     {@link #MAX_INFLATED_BINARY_SIZE} byte una volta decompresso.
+     */
+    static ByteBuffer inflateBinary(TrackParser.Source source) throws IOException {
+        try (InputStream input = source.open()) {
+            byte[] bytes = input.readNBytes(MAX_INFLATED_BINARY_SIZE);
+            if (input.read() >= 0) {
+                throw new IOException("Tracciato binario compresso troppo grande: oltre "
+                        + MAX_INFLATED_BINARY_SIZE + " byte una volta decompresso.");
             }
+            return ByteBuffer.wrap(bytes);
+        }
+    }
 
-            // Inizializza la griglia con le dimensioni calcolate
-            grid = new char[height][width];
-
-            // Popola la grid interpretando i caratteri speciali
-            for (int y = 0; y < height; y++) {
-                String currentLine = lines.get(y);
-
-                for (int x = 0; x < width; x++) {
-                    // Se x oltre la lunghezza della riga, consideriamo '.' per evitare IndexOutOfBounds
-                    char currentChar = (x < currentLine.length()) ? currentLine.charAt(x) : '.';
-
-                    switch (currentChar) {
-                        case 'S':
-                            // Segna una posizione di partenza
-                            startPositions.add(new Position(x, y));
-                            grid[y][x] = '.'; // Consideriamo comunque la cella libera in grid
-                            break;
-                        case 'F':
-                            // Segna una posizione di arrivo
-                            finishPositions.add(new Position(x, y));
-                            grid[y][x] = '.'; // Anche questa cella  libera ma registrata come arrivo
-                            break;
-                        case '#':
-                            // Cella con ostacolo
-                            grid[y][x] = '#';
-                            break;
-                        default:
-                            // Di default, consideriamo la cella libera
-                            grid[y][x] = '.';
-                            break;
-                    }
-                }
+    /**
+     * Interpreta il contenuto del tracciato (testuale o binario, riconosciuto
+     * dall'intestazione, eventualmente compresso) e lo pubblica.
+     * Il formato testuale in un'unica regione viene interpretato in parallelo
+     * per intervalli di righe (vedi {@link TrackParser#parseParallel});
+     * quello compresso viene decompresso in streaming due volte, una per passaggio del parser.
+     *
+     * @param regions Byte del file, in una o pi regioni consecutive.
+     * @throws IOException Se il tracciato  troppo grande o non valido.
+     */
+    synchronized void load(ByteBuffer... regions) throws IOException {
+        if (loaded) {
+            throw new IllegalStateException("Il tracciato  gi stato caricato.");
+        }
+        TrackData data;
+        if (isCompressed(regions)) {
+            TrackParser.Source source = inflating(regions);
+            data = isBinary(source)
+                    ? BinaryTrackFormat.read(inflateBinary(source))
+                    : new TrackParser().parse(source);
+        } else if (regions.length > 0 && BinaryTrackFormat.isBinary(regions[0])) {
+            if (regions.length > 1) {
+                throw new IOException("Tracciato binario troppo grande.");
             }
+            data = BinaryTrackFormat.read(regions[0]);
+        } else if (regions.length == 1) {
+            data = TrackParser.parseParallel(regions[0]);
+        } else {
+            data = new TrackParser().parse(regions);
+        }
+        publish(data);
+    }
+
+    /**
+     * Pubblica un contenuto gi costruito (es. da {@link TrackImageImporter}).
+     *
+     * @param data Contenuto del tracciato.
+     * @throws IllegalStateException Se il tracciato  gi stato caricato.
+     */
+    synchronized void publish(TrackData data) {
+        if (loaded) {
+            throw new IllegalStateException("Il tracciato  gi stato caricato.");
         }
+        this.data = data;
+        loaded = true;
     }
 
     /**
@@ -125,46 +305,58 @@ public class Track implements ITrack {
      */
     @Override
     public char getCell(Position position) {
-        if (isWithinBounds(position)) {
-            return grid[position.getY()][position.getX()];
+        return CellType.toChar(getCellType(position.getX(), position.getY()));
+    }
+
+    /**
+     * Restituisce il codice ({@link CellType}) della cella alle coordinate indicate.
+     * Fuori dai limiti la cella  considerata un ostacolo.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Il codice della cella.
+     */
+    @Override
+    public byte getCellType(int x, int y) {
+        TrackData current = data;
+        int width = current.getWidth();
+        if (x < 0 || x >= width || y < 0 || y >= current.getHeight()) {
+            return CellType.OBSTACLE;
         }
-        // Se fuori dalla griglia, consideriamo la cella come ostacolo
-        return '#';
+        return current.getCells()[y * width + x];
     }
 
     /**
-     * Indica se una certa posizione  libera, verificando se la cella
-     * corrisponde al carattere '.'.
+     * Indica se una certa posizione  libera (cella libera, di partenza o di arrivo).
      *
      * @param position Posizione da controllare.
-     * @return true se la cella  '.', false altrimenti.
+     * @return true se la cella non  un ostacolo, false altrimenti.
      */
     @Override
     public boolean isFree(Position position) {
-        return getCell(position) == '.';
+        return getCellType(position.getX(), position.getY()) != CellType.OBSTACLE;
     }
 
     /**
-     * Indica se una certa posizione  un ostacolo,
-     * verificando se la cella corrisponde al carattere '#'.
+     * Indica se una certa posizione  un ostacolo (o  fuori dal tracciato).
      *
      * @param position Posizione da controllare.
-     * @return true se la cella  '#', false altrimenti.
+     * @return true se la cella  un ostacolo, false altrimenti.
      */
     @Override
     public boolean isObstacle(Position position) {
-        return getCell(position) == '#';
+        return getCellType(position.getX(), position.getY()) == CellType.OBSTACLE;
     }
 
     /**
      * Verifica se la posizione  definita come posizione di arrivo (finish).
      *
      * @param position Posizione da controllare.
-     * @return true se la posizione  presente nella lista finishPositions, false altrimenti.
+     * @return true se la cella  un traguardo, false altrimenti.
      */
     @Override
     public boolean isFinish(Position position) {
-        return finishPositions.contains(position);
+        return getCellType(position.getX(), position.getY()) == CellType.FINISH;
     }
 
     /**
@@ -175,6 +367,7 @@ public class Track implements ITrack {
      */
     @Override
     public Position getStartPosition() {
+        List<Position> startPositions = data.getStartPositions();
         return startPositions.isEmpty() ? null : startPositions.get(0);
     }
 
@@ -186,6 +379,7 @@ public class Track implements ITrack {
      */
     @Override
     public Position getFinishPosition() {
+        List<Position> finishPositions = data.getFinishPositions();
         return finishPositions.isEmpty() ? null : finishPositions.get(0);
     }
 
@@ -196,7 +390,7 @@ public class Track implements ITrack {
      */
     @Override
     public int getWidth() {
-        return width;
+        return data.getWidth();
     }
 
     /**
@@ -206,36 +400,133 @@ public class Track implements ITrack {
      */
     @Override
     public int getHeight() {
-        return height;
+        return data.getHeight();
     }
 
     /**
      * Fornisce l'intera lista di posizioni di partenza caricate (se ce ne sono pi di una).
      *
-     * @return Lista di {@link Position} che rappresentano le startPositions.
+     * @return Lista non modificabile delle posizioni di partenza.
      */
     public List<Position> getAllStartPositions() {
-        return startPositions;
+        return data.getStartPositions();
     }
 
     /**
      * Fornisce l'intera lista di posizioni di arrivo caricate (se ce ne sono pi di una).
      *
-     * @return Lista di {@link Position} che rappresentano le finishPositions.
+     * @return Lista non modificabile delle posizioni di arrivo.
      */
     public List<Position> getAllFinishPositions() {
-        return finishPositions;
+        return data.getFinishPositions();
     }
 
     /**
-     * Metodo di utilit per controllare se la posizione ricade
-     * all'interno dei limiti del tracciato.
+     * Restituisce i codici di tutte le celle (per il compilatore del formato binario).
      *
-     * @param position Posizione da controllare.
-     * @return true se 0 <= x < width e 0 <= y < height, false altrimenti.
+     * @return L'array delle celle, indicizzato per righe; non va modificato.
+     */
+    byte[] getCells() {
+        return data.getCells();
+    }
+
+    /**
+     * Restituisce una tabella precalcolata inclusa nel tracciato binario.
+     *
+     * @param tag Identificativo della sezione (vedi {@link BinaryTrackFormat}).
+     * @return I dati della sezione, oppure null se il tracciato non la contiene.
+     */
+    int[] getSection(int tag) {
+        return data.getSections().get(tag);
+    }
+
+    /**
+     * Restituisce un dato derivato dal tracciato, calcolandolo alla prima richiesta.
+     * I dati derivati sono indicizzati per chiave (due chiavi distinte non si scambiano mai
+     * i valori, anche se dello stesso tipo) e condivisi da tutti gli utilizzatori
+     * del tracciato (gare, bot, thread diversi): devono quindi essere immutabili.
+     * Se due thread lo richiedono insieme pu essere calcolato due volte,
+     * ma viene conservato (e restituito) un solo risultato.
+     *
+     * @param key     Chiave del dato derivato.
+     * @param factory Funzione che calcola il dato a partire dal tracciato.
+     * @param <T>     Tipo del dato derivato.
+     * @return Il dato derivato.
+     */
+    public <T> T getDerived(DerivedKey<T> key, Function<? super Track, ? extends T> factory) {
+        Object value = derived.get(key);
+        if (value == null) {
+            // Calcolo fuori dalla mappa: la factory pu a sua volta chiedere altri dati derivati.
+            T computed = Objects.requireNonNull(factory.apply(this), "Dato derivato nullo");
+            value = derived.putIfAbsent(key, computed);
+            if (value == null) {
+                value = computed;
+            }
+        }
+        return key.type.cast(value);
+    }
+
+    /**
+     * Chiave di un dato derivato (vedi {@link #getDerived}). Le chiavi si confrontano per
+     * identit: ogni utilizzatore ne crea una, tipicamente come costante statica.
+     *
+     * @param <T> Tipo del dato derivato.
+     */
+    public static final class DerivedKey<T> {
+
+        private final String name;
+        private final Class<T> type;
+
+        /**
+         * @param name Nome descrittivo del dato (usato solo da toString).
+         * @param type Tipo del dato derivato.
+         */
+        public DerivedKey(String name, Class<T> type) {
+            this.name = Objects.requireNonNull(name);
+            this.type = Objects.requireNonNull(type);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Stream che legge in sequenza una o pi regioni, senza spostarne la posizione.
      */
-    private boolean isWithinBounds(Position position) {
-        return position.getX() >= 0 && position.getX() < width &&
-                position.getY() >= 0 && position.getY() < height;
+    private static final class RegionInputStream extends InputStream {
+
+        private final ByteBuffer[] regions;
+        private int current;
+
+        private RegionInputStream(ByteBuffer[] regions) {
+            this.regions = new ByteBuffer[regions.length];
+            for (int i = 0; i < regions.length; i++) {
+                this.regions[i] = regions[i].duplicate();
+            }
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            while (current < regions.length && !regions[current].hasRemaining()) {
+                current++;
+            }
+            if (current == regions.length) {
+                return -1;
+            }
+            int count = Math.min(length, regions[current].remaining());
+            regions[current].get(buffer, offset, count);
+            return count;
+        }
     }
 }
@@ -0,0 +1,76 @@
+package VectorRace.Posizione;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * TrackCompiler converte un tracciato testuale (o un'immagine, vedi {@link TrackImageImporter})
+ * nel formato binario precompilato
+ * ({@link BinaryTrackFormat}), che {@link Track} carica mappandolo in memoria
+ * senza interpretare il testo.
+ * <p>
+ * Oltre alla griglia, il file pu includere tabelle precalcolate
+ * (ad esempio il {@link DistanceField} con la distanza di ogni cella dal traguardo),
+ * cos che non debbano essere ricalcolate a ogni avvio.
+ * <p>
+ * Uso da riga di comando: {@code TrackCompiler <input.txt|input.png> <output.vrt> [--senza-tabelle]}
+ */
+public class TrackCompiler {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: TrackCompiler <input.txt|input.png> <output.vrt> [--senza-tabelle]");
+            return;
+        }
+        boolean includeTables = !(args.length > 2 && args[2].equals("--senza-tabelle"));
+        try {
+            compile(Paths.get(args[0]), Paths.get(args[1]), includeTables);
+        } catch (IOException e) {
+            System.err.println("Errore nella compilazione del tracciato: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compila un tracciato nel formato binario. I file .png, .bmp e .gif vengono
+     * importati come immagini con la tabella dei colori predefinita.
+     *
+     * @param input         File testuale del tracciato o immagine.
+     * @param output        File binario da produrre.
+     * @param includeTables true per includere le tabelle precalcolate.
+     * @throws IOException Se il tracciato non pu essere letto o il file scritto.
+     */
+    public static void compile(Path input, Path output, boolean includeTables) throws IOException {
+        String name = input.getFileName().toString().toLowerCase(Locale.ROOT);
+        Track track = name.endsWith(".png") || name.endsWith(".bmp") || name.endsWith(".gif")
+                ? new TrackImageImporter().importImage(input)
+                : Track.fromPath(input);
+        write(track, output, includeTables);
+    }
+
+    /**
+     * Scrive un tracciato gi caricato nel formato binario.
+     *
+     * @param track         Tracciato da scrivere.
+     * @param output        File binario da produrre.
+     * @param includeTables true per includere le tabelle precalcolate.
+     * @throws IOException Se si verifica un errore di scrittura.
+     */
+    public static void write(Track track, Path output, boolean includeTables) throws IOException {
+        Map<Integer, int[]> sections = new LinkedHashMap<>();
+        if (includeTables) {
+            sections.put(BinaryTrackFormat.SECTION_FINISH_DISTANCE, DistanceField.of(track).getDistances());
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(output), 1 << 16))) {
+            BinaryTrackFormat.write(out, track.getWidth(), track.getHeight(), track.getCells(),
+                    track.getAllStartPositions(), track.getAllFinishPositions(), sections);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package VectorRace.Posizione;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TrackData raccoglie il contenuto di un tracciato appena letto da un file
+ * (testuale o binario): dimensioni, codici delle celle, partenze, traguardi
+ * ed eventuali tabelle precalcolate incluse nel formato binario.
+ * <p>
+ *  immutabile: le liste sono in sola lettura, le posizioni non modificabili
+ * e gli array non vengono pi scritti dopo la costruzione. Per questo pu essere
+ * condiviso senza sincronizzazione da tutte le gare che usano lo stesso tracciato.
+ */
+class TrackData {
+
+    private final int width;
+    private final int height;
+    private final byte[] cells;
+    private final List<Position> startPositions;
+    private final List<Position> finishPositions;
+    private final Map<Integer, int[]> sections;
+
+    /**
+     * Tracciato vuoto, usato prima del caricamento.
+     */
+    static final TrackData EMPTY = new TrackData(0, 0, new byte[0],
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyMap());
+
+    TrackData(int width, int height, byte[] cells, List<Position> startPositions,
+              List<Position> finishPositions, Map<Integer, int[]> sections) {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+        this.startPositions = Collections.unmodifiableList(startPositions);
+        this.finishPositions = Collections.unmodifiableList(finishPositions);
+        this.sections = Collections.unmodifiableMap(sections);
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    byte[] getCells() {
+        return cells;
+    }
+
+    List<Position> getStartPositions() {
+        return startPositions;
+    }
+
+    List<Position> getFinishPositions() {
+        return finishPositions;
+    }
+
+    Map<Integer, int[]> getSections() {
+        return sections;
+    }
+}
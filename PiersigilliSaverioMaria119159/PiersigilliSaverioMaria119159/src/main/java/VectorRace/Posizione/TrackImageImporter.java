@@ -0,0 +1,215 @@
+package VectorRace.Posizione;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * TrackImageImporter costruisce un {@link Track} direttamente da un'immagine
+ * (PNG, BMP o qualunque formato letto da {@link ImageIO}), senza passare dal formato testuale.
+ * <p>
+ * Ogni pixel diventa una cella: il colore (RGB, senza trasparenza) viene convertito nel codice
+ * {@link CellType} secondo una tabella configurabile; i colori non presenti nella tabella
+ * valgono come la cella di default. La tabella iniziale :
+ * <ul>
+ *     <li>nero (0x000000): ostacolo</li>
+ *     <li>verde (0x00FF00): partenza</li>
+ *     <li>rosso (0xFF0000): traguardo</li>
+ *     <li>ogni altro colore: cella libera</li>
+ * </ul>
+ * I pixel vengono letti in blocco, una fascia di righe alla volta, e scritti direttamente
+ * nell'array delle celle; le immagini grandi sono divise in fasce elaborate in parallelo.
+ */
+public class TrackImageImporter {
+
+    /**
+     * Numero di righe lette con una singola chiamata a {@link BufferedImage#getRGB}.
+     */
+    private static final int BAND_ROWS = 64;
+
+    /**
+     * Numero di pixel oltre il quale le fasce vengono elaborate in parallelo.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    /**
+     * Tabella dei colori: colorKeys[i] (RGB) corrisponde alla cella colorCells[i].
+     * Le voci sono poche, quindi una ricerca lineare  pi rapida di una mappa.
+     */
+    private int[] colorKeys = {0x000000, 0x00FF00, 0xFF0000};
+    private byte[] colorCells = {CellType.OBSTACLE, CellType.START, CellType.FINISH};
+
+    private byte defaultCell = CellType.FREE;
+
+    /**
+     * Associa un colore a un tipo di cella, sostituendo un'eventuale associazione precedente.
+     *
+     * @param rgb      Colore in formato 0xRRGGBB (la trasparenza viene ignorata).
+     * @param cellType Codice {@link CellType} della cella.
+     */
+    public void setColor(int rgb, byte cellType) {
+        checkCellType(cellType);
+        int key = rgb & 0xFFFFFF;
+        for (int i = 0; i < colorKeys.length; i++) {
+            if (colorKeys[i] == key) {
+                colorCells[i] = cellType;
+                return;
+            }
+        }
+        colorKeys = Arrays.copyOf(colorKeys, colorKeys.length + 1);
+        colorCells = Arrays.copyOf(colorCells, colorCells.length + 1);
+        colorKeys[colorKeys.length - 1] = key;
+        colorCells[colorCells.length - 1] = cellType;
+    }
+
+    /**
+     * Imposta il tipo di cella dei colori non presenti nella tabella.
+     *
+     * @param cellType Codice {@link CellType} della cella.
+     */
+    public void setDefaultCell(byte cellType) {
+        checkCellType(cellType);
+        this.defaultCell = cellType;
+    }
+
+    /**
+     * Importa un tracciato da un file immagine.
+     *
+     * @param path Percorso dell'immagine.
+     * @return Il tracciato caricato.
+     * @throws IOException Se il file non esiste, non pu essere letto o non  un'immagine supportata.
+     */
+    public Track importImage(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return importImage(input);
+        }
+    }
+
+    /**
+     * Importa un tracciato da uno stream contenente un'immagine. Lo stream non viene chiuso.
+     *
+     * @param input Stream dell'immagine.
+     * @return Il tracciato caricato.
+     * @throws IOException Se lo stream non pu essere letto o non contiene un'immagine supportata.
+     */
+    public Track importImage(InputStream input) throws IOException {
+        BufferedImage image = ImageIO.read(input);
+        if (image == null) {
+            throw new IOException("Formato immagine non supportato.");
+        }
+        return importImage(image);
+    }
+
+    /**
+     * Importa un tracciato da un'immagine gi in memoria.
+     *
+     * @param image Immagine del tracciato (un pixel per cella).
+     * @return Il tracciato caricato.
+     * @throws IOException Se l'immagine ha pi pixel di quante celle possa contenere un array.
+     */
+    public Track importImage(BufferedImage image) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long size = (long) width * height;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Tracciato troppo grande: " + width + "x" + height + " celle.");
+        }
+
+        byte[] cells = new byte[(int) size];
+        int bandCount = (height + BAND_ROWS - 1) / BAND_ROWS;
+        Band[] bands = new Band[bandCount];
+        for (int i = 0; i < bandCount; i++) {
+            int firstRow = i * BAND_ROWS;
+            bands[i] = new Band(image, cells, firstRow, Math.min(BAND_ROWS, height - firstRow));
+        }
+        if (size >= PARALLEL_THRESHOLD && bandCount > 1) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(bandCount);
+            for (Band band : bands) {
+                tasks.add(ForkJoinTask.adapt(band::fill));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            for (Band band : bands) {
+                band.fill();
+            }
+        }
+
+        // Partenze e traguardi nell'ordine delle righe, come per il formato testuale
+        List<Position> starts = new ArrayList<>();
+        List<Position> finishes = new ArrayList<>();
+        for (Band band : bands) {
+            starts.addAll(band.starts);
+            finishes.addAll(band.finishes);
+        }
+
+        Track track = new Track();
+        track.publish(new TrackData(width, height, cells, starts, finishes, Collections.emptyMap()));
+        return track;
+    }
+
+    private static void checkCellType(byte cellType) {
+        if (cellType < CellType.FREE || cellType > CellType.FINISH) {
+            throw new IllegalArgumentException("Tipo di cella non valido: " + cellType);
+        }
+    }
+
+    /**
+     * Fascia di righe consecutive dell'immagine, convertita da un singolo task.
+     */
+    private final class Band {
+
+        private final BufferedImage image;
+        private final byte[] cells;
+        private final int firstRow;
+        private final int rows;
+        private final List<Position> starts = new ArrayList<>();
+        private final List<Position> finishes = new ArrayList<>();
+
+        private Band(BufferedImage image, byte[] cells, int firstRow, int rows) {
+            this.image = image;
+            this.cells = cells;
+            this.firstRow = firstRow;
+            this.rows = rows;
+        }
+
+        private void fill() {
+            int width = image.getWidth();
+            int[] pixels = image.getRGB(0, firstRow, width, rows, null, 0, width);
+            int offset = firstRow * width;
+
+            // Pixel vicini hanno quasi sempre lo stesso colore: si ricorda l'ultima conversione.
+            int lastColor = -1;
+            byte lastCell = defaultCell;
+            for (int i = 0; i < pixels.length; i++) {
+                int color = pixels[i] & 0xFFFFFF;
+                if (color != lastColor) {
+                    lastColor = color;
+                    lastCell = cellFor(color);
+                }
+                cells[offset + i] = lastCell;
+                if (lastCell == CellType.START) {
+                    starts.add(new ImmutablePosition(i % width, firstRow + i / width));
+                } else if (lastCell == CellType.FINISH) {
+                    finishes.add(new ImmutablePosition(i % width, firstRow + i / width));
+                }
+            }
+        }
+
+        private byte cellFor(int color) {
+            for (int i = 0; i < colorKeys.length; i++) {
+                if (colorKeys[i] == color) {
+                    return colorCells[i];
+                }
+            }
+            return defaultCell;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package VectorRace.Posizione;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * TrackParser interpreta il formato testuale del tracciato direttamente dai byte del file,
+ * senza creare stringhe intermedie.
+ * <p>
+ * Il contenuto viene letto in due passaggi sequenziali sugli stessi buffer
+ * (tipicamente regioni di un file mappato in memoria):
+ * 1. misura: calcola larghezza massima delle righe e numero di righe;
+ * 2. riempimento: alloca l'array delle celle e vi scrive i codici {@link CellType},
+ *    registrando le posizioni di partenza e di arrivo.
+ * <p>
+ * Le righe terminano con '\n', '\r' o "\r\n", come per BufferedReader.readLine;
+ * lo stato del parser sopravvive tra un buffer e il successivo, quindi una riga
+ * pu essere spezzata su pi regioni.
+ * <p>
+ * Con {@link #parseParallel} un buffer grande viene diviso in intervalli di righe
+ * interpretati in parallelo, ciascuno da un proprio TrackParser.
+ * <p>
+ * Con {@link #parseChunked} il secondo passaggio scrive invece nelle tile di un
+ * {@link ChunkedTrack}, senza mai allocare l'intero rettangolo.
+ * <p>
+ * Il contenuto pu anche provenire da una {@link Source} che lo produce in streaming
+ * (es. un file compresso con gzip, decompresso a ogni lettura): i due passaggi
+ * aprono la sorgente una volta ciascuno e la leggono a blocchi di {@link #STREAM_CHUNK_SIZE}
+ * byte, quindi il contenuto non compresso non viene mai tenuto tutto in memoria.
+ */
+class TrackParser {
+
+    /**
+     * Dimensione minima (in byte) di un intervallo interpretato da un singolo task.
+     */
+    static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Dimensione dei blocchi in cui viene letta una {@link Source}.
+     */
+    static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Contenuto di un tracciato che pu essere letto pi volte dall'inizio.
+     */
+    interface Source {
+
+        /**
+         * @return Un nuovo stream posizionato all'inizio del contenuto, da chiudere dopo l'uso.
+         * @throws IOException Se il contenuto non pu essere letto.
+         */
+        InputStream open() throws IOException;
+    }
+
+    private int width;
+    private int height;
+    private byte[] cells;
+    private ChunkedTrack.Builder chunks;
+    private final List<Position> startPositions = new ArrayList<>();
+    private final List<Position> finishPositions = new ArrayList<>();
+
+    /**
+     * Stato della scansione: colonna corrente, riga corrente e se l'ultimo byte era '\r'.
+     */
+    private int column;
+    private int row;
+    private boolean afterCarriageReturn;
+
+    /**
+     * Prima riga dell'intervallo interpretato da questo parser (0 se interpreta tutto il file).
+     */
+    private int rowOffset;
+
+    /**
+     * Interpreta un tracciato contenuto in una sequenza di buffer consecutivi.
+     *
+     * @param regions Regioni del file, nell'ordine in cui compaiono.
+     * @return Il contenuto del tracciato.
+     * @throws IOException Se il tracciato ha pi celle di quante ne possa contenere un array.
+     */
+    TrackData parse(ByteBuffer... regions) throws IOException {
+        measureAll(regions);
+        allocateCells();
+        fillAll(regions);
+        return new TrackData(width, height, cells, startPositions, finishPositions, Collections.emptyMap());
+    }
+
+    /**
+     * Interpreta un tracciato letto in streaming, con una lettura della sorgente per passaggio.
+     *
+     * @param source Contenuto del file.
+     * @return Il contenuto del tracciato.
+     * @throws IOException Se la sorgente non pu essere letta o il tracciato ha pi celle
+     *                     di quante ne possa contenere un array.
+     */
+    TrackData parse(Source source) throws IOException {
+        measureAll(source);
+        allocateCells();
+        fillAll(source);
+        return new TrackData(width, height, cells, startPositions, finishPositions, Collections.emptyMap());
+    }
+
+    private void allocateCells() throws IOException {
+        long size = (long) width * height;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Tracciato troppo grande: " + width + "x" + height + " celle.");
+        }
+        cells = new byte[(int) size];
+    }
+
+    /**
+     * Interpreta un tracciato contenuto in un unico buffer, dividendolo in intervalli
+     * di righe interpretati in parallelo sul {@link ForkJoinPool} comune.
+     * <p>
+     * 1. il buffer viene diviso in intervalli di dimensione simile, ciascuno esteso
+     *    fino al primo '\n' successivo, cos che nessuna riga sia spezzata;
+     * 2. ogni intervallo misura in parallelo le proprie righe; la somma progressiva
+     *    dei conteggi d la riga iniziale di ciascuno;
+     * 3. ogni intervallo scrive in parallelo le proprie righe nell'array delle celle
+     *    (gli intervalli non si sovrappongono) e raccoglie partenze e traguardi,
+     *    poi concatenati nell'ordine delle righe.
+     * I buffer piccoli vengono interpretati in sequenza.
+     *
+     * @param buffer Contenuto del file.
+     * @return Il contenuto del tracciato, identico a quello di {@link #parse}.
+     * @throws IOException Se il tracciato ha pi celle di quante ne possa contenere un array.
+     */
+    static TrackData parseParallel(ByteBuffer buffer) throws IOException {
+        int chunkCount = (int) Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L,
+                buffer.remaining() / MIN_CHUNK_SIZE);
+        if (chunkCount < 2) {
+            return new TrackParser().parse(buffer);
+        }
+
+        List<ByteBuffer> slices = split(buffer, chunkCount);
+        TrackParser[] parsers = new TrackParser[slices.size()];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(parsers.length);
+        for (int i = 0; i < parsers.length; i++) {
+            TrackParser parser = new TrackParser();
+            ByteBuffer[] slice = {slices.get(i)};
+            parsers[i] = parser;
+            tasks.add(ForkJoinTask.adapt(() -> parser.measureAll(slice)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        int width = 0;
+        long height = 0;
+        for (TrackParser parser : parsers) {
+            width = Math.max(width, parser.width);
+            parser.rowOffset = (int) Math.min(height, Integer.MAX_VALUE);
+            height += parser.height;
+        }
+        long size = (long) width * height;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Tracciato troppo grande: " + width + "x" + height + " celle.");
+        }
+
+        byte[] cells = new byte[(int) size];
+        tasks.clear();
+        for (int i = 0; i < parsers.length; i++) {
+            TrackParser parser = parsers[i];
+            ByteBuffer[] slice = {slices.get(i)};
+            parser.width = width;
+            parser.cells = cells;
+            tasks.add(ForkJoinTask.adapt(() -> parser.fillAll(slice)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        List<Position> starts = new ArrayList<>();
+        List<Position> finishes = new ArrayList<>();
+        for (TrackParser parser : parsers) {
+            starts.addAll(parser.startPositions);
+            finishes.addAll(parser.finishPositions);
+        }
+        return new TrackData(width, (int) height, cells, starts, finishes, Collections.emptyMap());
+    }
+
+    /**
+     * Divide un buffer in circa chunkCount intervalli che terminano subito dopo un '\n'
+     * (o alla fine del buffer). Una sequenza "\r\n" non viene mai spezzata.
+     */
+    private static List<ByteBuffer> split(ByteBuffer buffer, int chunkCount) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        int step = buffer.remaining() / chunkCount;
+        List<ByteBuffer> slices = new ArrayList<>(chunkCount);
+        int from = start;
+        for (int i = 1; i < chunkCount && from < end; i++) {
+            int to = Math.max(from, start + i * step);
+            while (to < end && buffer.get(to) != '\n') {
+                to++;
+            }
+            to = Math.min(end, to + 1);
+            slices.add(slice(buffer, from, to));
+            from = to;
+        }
+        if (from < end) {
+            slices.add(slice(buffer, from, end));
+        }
+        return slices;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(from);
+        slice.limit(to);
+        return slice;
+    }
+
+    /**
+     * Interpreta un tracciato scrivendone le celle in tile (vedi {@link ChunkedTrack}).
+     *
+     * @param regions Regioni del file, nell'ordine in cui compaiono.
+     * @return Il contenuto del tracciato suddiviso in tile.
+     * @throws IOException Se il tracciato ha pi tile di quante ne possa contenere un array.
+     */
+    ChunkedTrack.TileGrid parseChunked(ByteBuffer... regions) throws IOException {
+        measureAll(regions);
+        chunks = new ChunkedTrack.Builder(width, height);
+        fillAll(regions);
+        return chunks.build(startPositions, finishPositions);
+    }
+
+    /**
+     * Come {@link #parseChunked(ByteBuffer...)}, leggendo il tracciato in streaming.
+     *
+     * @param source Contenuto del file.
+     * @return Il contenuto del tracciato suddiviso in tile.
+     * @throws IOException Se la sorgente non pu essere letta o il tracciato ha pi tile
+     *                     di quante ne possa contenere un array.
+     */
+    ChunkedTrack.TileGrid parseChunked(Source source) throws IOException {
+        measureAll(source);
+        chunks = new ChunkedTrack.Builder(width, height);
+        fillAll(source);
+        return chunks.build(startPositions, finishPositions);
+    }
+
+    /**
+     * Primo passaggio: dimensioni.
+     */
+    private void measureAll(ByteBuffer[] regions) {
+        reset();
+        for (ByteBuffer region : regions) {
+            measure(region.duplicate());
+        }
+        if (column > 0) {
+            endMeasuredLine();
+        }
+    }
+
+    /**
+     * Primo passaggio su una sorgente letta a blocchi.
+     */
+    private void measureAll(Source source) throws IOException {
+        reset();
+        byte[] chunk = new byte[STREAM_CHUNK_SIZE];
+        try (InputStream input = source.open()) {
+            for (int read; (read = input.read(chunk)) >= 0; ) {
+                measure(ByteBuffer.wrap(chunk, 0, read));
+            }
+        }
+        if (column > 0) {
+            endMeasuredLine();
+        }
+    }
+
+    /**
+     * Secondo passaggio su una sorgente letta a blocchi.
+     */
+    private void fillAll(Source source) throws IOException {
+        reset();
+        byte[] chunk = new byte[STREAM_CHUNK_SIZE];
+        try (InputStream input = source.open()) {
+            for (int read; (read = input.read(chunk)) >= 0; ) {
+                fill(ByteBuffer.wrap(chunk, 0, read));
+            }
+        }
+    }
+
+    /**
+     * Secondo passaggio: celle, partenze e traguardi.
+     */
+    private void fillAll(ByteBuffer[] regions) {
+        reset();
+        for (ByteBuffer region : regions) {
+            fill(region.duplicate());
+        }
+    }
+
+    private void reset() {
+        column = 0;
+        row = rowOffset;
+        afterCarriageReturn = false;
+    }
+
+    private void measure(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                if (!afterCarriageReturn) {
+                    endMeasuredLine();
+                }
+                afterCarriageReturn = false;
+            } else if (b == '\r') {
+                endMeasuredLine();
+                afterCarriageReturn = true;
+            } else {
+                column++;
+                afterCarriageReturn = false;
+            }
+        }
+    }
+
+    private void endMeasuredLine() {
+        width = Math.max(width, column);
+        height++;
+        column = 0;
+    }
+
+    private void fill(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                if (!afterCarriageReturn) {
+                    row++;
+                    column = 0;
+                }
+                afterCarriageReturn = false;
+            } else if (b == '\r') {
+                row++;
+                column = 0;
+                afterCarriageReturn = true;
+            } else {
+                byte code = CellType.fromChar((char) b);
+                if (chunks == null) {
+                    cells[row * width + column] = code;
+                } else if (code != CellType.FREE) {
+                    chunks.set(column, row, code);
+                }
+                if (code == CellType.START) {
+                    startPositions.add(new ImmutablePosition(column, row));
+                } else if (code == CellType.FINISH) {
+                    finishPositions.add(new ImmutablePosition(column, row));
+                }
+                column++;
+                afterCarriageReturn = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package VectorRace.Posizione;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * TrackRegistry carica i tracciati una sola volta e li condivide tra tutte le gare
+ * che li usano, insieme ai loro dati derivati (vedi {@link Track#getDerived}).
+ * <p>
+ * - Ogni sorgente (risorsa del classpath o file su disco)  associata all'impronta
+ *   SHA-256 del suo contenuto: sorgenti diverse con lo stesso contenuto condividono lo stesso Track.
+ * - Gli ultimi tracciati usati (fino alla capacit) sono tenuti con riferimenti forti in ordine LRU;
+ *   gli altri restano raggiungibili solo tramite {@link SoftReference}, che il garbage collector
+ *   libera quando la memoria scarseggia. Un tracciato liberato viene semplicemente ricaricato.
+ * - Le risorse del classpath sono considerate immutabili; per i file su disco dimensione
+ *   e data di modifica vengono ricontrollate a ogni richiesta.
+ * <p>
+ * Il registro pu essere usato da pi thread: le sue mappe sono protette dal lock dell'istanza,
+ * mentre lettura, impronta e interpretazione di un tracciato avvengono fuori dal lock.
+ * Pi richieste contemporanee della stessa sorgente attendono un unico caricamento;
+ * quelle di sorgenti diverse non si bloccano a vicenda.
+ */
+public class TrackRegistry {
+
+    /**
+     * Numero predefinito di tracciati tenuti con riferimenti forti.
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private static final TrackRegistry SHARED = new TrackRegistry(DEFAULT_CAPACITY);
+
+    /**
+     * Tracciati usati pi di recente (impronta -> tracciato), in ordine di accesso.
+     */
+    private final LinkedHashMap<String, Track> recent;
+
+    /**
+     * Tutti i tracciati caricati (impronta -> riferimento soft).
+     */
+    private final Map<String, TrackReference> tracks = new HashMap<>();
+
+    /**
+     * Sorgenti gi lette (sorgente -> impronta e metadati del file).
+     */
+    private final Map<String, Source> sources = new HashMap<>();
+
+    /**
+     * Caricamenti in corso (sorgente -> tracciato futuro), attesi dalle richieste
+     * contemporanee della stessa sorgente.
+     */
+    private final Map<String, CompletableFuture<Track>> loading = new HashMap<>();
+
+    /**
+     * Coda dei riferimenti liberati dal garbage collector, da rimuovere dalle mappe.
+     */
+    private final ReferenceQueue<Track> collected = new ReferenceQueue<>();
+
+    private final int capacity;
+    private long hits;
+    private long misses;
+
+    /**
+     * Costruttore di TrackRegistry.
+     *
+     * @param capacity Numero di tracciati tenuti con riferimenti forti (almeno 1).
+     */
+    public TrackRegistry(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacit deve essere almeno 1.");
+        }
+        this.capacity = capacity;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Track> eldest) {
+                return size() > TrackRegistry.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Restituisce il registro condiviso dall'intera applicazione.
+     *
+     * @return Il registro predefinito, con capacit {@link #DEFAULT_CAPACITY}.
+     */
+    public static TrackRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Restituisce il tracciato contenuto in una risorsa del classpath,
+     * caricandolo solo se non  gi presente nel registro.
+     *
+     * @param filename Nome della risorsa.
+     * @return Il tracciato (condiviso: non va ricaricato).
+     * @throws IOException Se la risorsa non esiste o non pu essere letta.
+     */
+    public Track getResource(String filename) throws IOException {
+        return load("classpath:" + filename, -1, -1, () -> Track.readResource(filename));
+    }
+
+    /**
+     * Restituisce il tracciato contenuto in un file su disco (testuale o binario),
+     * caricandolo solo se non  presente nel registro o se il file  cambiato.
+     *
+     * @param path Percorso del file.
+     * @return Il tracciato (condiviso: non va ricaricato).
+     * @throws IOException Se il file non esiste o non pu essere letto.
+     */
+    public Track getPath(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        return load("file:" + absolute, size, modified, () -> Track.readPath(absolute));
+    }
+
+    /**
+     * Svuota il registro. I tracciati gi distribuiti restano validi.
+     */
+    public synchronized void clear() {
+        recent.clear();
+        tracks.clear();
+        sources.clear();
+    }
+
+    /**
+     * Restituisce il numero di tracciati attualmente nel registro.
+     *
+     * @return Numero di tracciati non ancora liberati.
+     */
+    public synchronized int size() {
+        expungeCollected();
+        return tracks.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Restituisce quante richieste sono state servite senza interpretare il tracciato.
+     *
+     * @return Numero di richieste trovate nel registro.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Restituisce quante richieste hanno richiesto il caricamento del tracciato.
+     *
+     * @return Numero di tracciati interpretati.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Cerca il tracciato di una sorgente gi letta, verificando che il file non sia cambiato.
+     */
+    private Track lookup(String source, long size, long modified) {
+        expungeCollected();
+        Source known = sources.get(source);
+        if (known == null || known.size != size || known.modified != modified) {
+            return null;
+        }
+        Track track = get(known.hash);
+        if (track != null) {
+            hits++;
+        }
+        return track;
+    }
+
+    /**
+     * Restituisce il tracciato di una sorgente: dal registro se  gi noto, altrimenti
+     * leggendolo e interpretandolo fuori dal lock. Se la stessa sorgente  gi in caricamento
+     * su un altro thread, ne attende il risultato invece di leggerla una seconda volta.
+     */
+    private Track load(String source, long size, long modified, ContentReader reader) throws IOException {
+        CompletableFuture<Track> future;
+        boolean owner;
+        synchronized (this) {
+            Track track = lookup(source, size, modified);
+            if (track != null) {
+                return track;
+            }
+            future = loading.get(source);
+            owner = future == null;
+            if (owner) {
+                future = new CompletableFuture<>();
+                loading.put(source, future);
+            } else {
+                hits++;
+            }
+        }
+        if (!owner) {
+            return await(future);
+        }
+
+        try {
+            ByteBuffer[] content = reader.read();
+            String hash = digest(content);
+            Track track = find(source, hash, size, modified);
+            if (track == null) {
+                Track parsed = new Track();
+                parsed.load(content);
+                track = register(source, hash, parsed, size, modified);
+            }
+            future.complete(track);
+            return track;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                loading.remove(source, future);
+            }
+        }
+    }
+
+    /**
+     * Attende un caricamento avviato da un altro thread, propagandone l'eventuale errore.
+     */
+    private static Track await(CompletableFuture<Track> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Associa una sorgente alla sua impronta e restituisce il tracciato gi caricato
+     * con la stessa impronta, oppure null se va interpretato.
+     */
+    private synchronized Track find(String source, String hash, long size, long modified) {
+        sources.put(source, new Source(hash, size, modified));
+        Track track = get(hash);
+        if (track != null) {
+            hits++;
+        }
+        return track;
+    }
+
+    /**
+     * Registra un tracciato appena interpretato; se nel frattempo un altro thread ha
+     * registrato lo stesso contenuto, restituisce quello e scarta il nuovo.
+     */
+    private synchronized Track register(String source, String hash, Track parsed, long size, long modified) {
+        sources.put(source, new Source(hash, size, modified));
+        Track track = get(hash);
+        if (track != null) {
+            hits++;
+            return track;
+        }
+        misses++;
+        tracks.put(hash, new TrackReference(hash, parsed, collected));
+        recent.put(hash, parsed);
+        return parsed;
+    }
+
+    /**
+     * Restituisce il tracciato con una certa impronta, aggiornandone la posizione nell'LRU.
+     */
+    private Track get(String hash) {
+        TrackReference reference = tracks.get(hash);
+        Track track = reference == null ? null : reference.get();
+        if (track != null) {
+            recent.put(hash, track);
+        }
+        return track;
+    }
+
+    /**
+     * Rimuove dalle mappe i tracciati liberati dal garbage collector.
+     */
+    private void expungeCollected() {
+        Reference<? extends Track> reference;
+        while ((reference = collected.poll()) != null) {
+            String hash = ((TrackReference) reference).hash;
+            if (tracks.get(hash) == reference) {
+                tracks.remove(hash);
+                sources.values().removeIf(source -> source.hash.equals(hash));
+            }
+        }
+    }
+
+    /**
+     * Calcola l'impronta SHA-256 del contenuto, senza spostare la posizione dei buffer.
+     */
+    private static String digest(ByteBuffer[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256  garantito da ogni implementazione della piattaforma Java.
+            throw new IllegalStateException(e);
+        }
+        for (ByteBuffer region : content) {
+            digest.update(region.duplicate());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Lettura del contenuto di una sorgente.
+     */
+    private interface ContentReader {
+        ByteBuffer[] read() throws IOException;
+    }
+
+    /**
+     * Impronta del contenuto di una sorgente e, per i file su disco,
+     * dimensione e data di modifica al momento della lettura (-1 per le risorse).
+     */
+    private static final class Source {
+        private final String hash;
+        private final long size;
+        private final long modified;
+
+        private Source(String hash, long size, long modified) {
+            this.hash = hash;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * Riferimento soft a un tracciato che ricorda la propria impronta,
+     * per poterlo rimuovere dal registro dopo che  stato liberato.
+     */
+    private static final class TrackReference extends SoftReference<Track> {
+        private final String hash;
+
+        private TrackReference(String hash, Track track, ReferenceQueue<Track> queue) {
+            super(track, queue);
+            this.hash = hash;
+        }
+    }
+}
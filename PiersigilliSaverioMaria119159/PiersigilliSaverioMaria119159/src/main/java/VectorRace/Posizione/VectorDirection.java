@@ -17,10 +17,33 @@ public class VectorDirection {
     private Position next;
 
     /**
-     * Enum che definisce le otto direzioni cardinali.
+     * Enum che definisce le otto direzioni cardinali, ciascuna con lo spostamento
+     * (dx, dy) di una cella sulla griglia (y cresce verso sud).
      */
     public enum CardinalDirection {
-        N, NE, E, SE, S, SW, W, NW;
+        N(0, -1), NE(1, -1), E(1, 0), SE(1, 1), S(0, 1), SW(-1, 1), W(-1, 0), NW(-1, -1);
+
+        private final int dx;
+        private final int dy;
+
+        CardinalDirection(int dx, int dy) {
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        /**
+         * @return Spostamento lungo x di un passo in questa direzione (-1, 0 o 1).
+         */
+        public int getDx() {
+            return dx;
+        }
+
+        /**
+         * @return Spostamento lungo y di un passo in questa direzione (-1, 0 o 1).
+         */
+        public int getDy() {
+            return dy;
+        }
     }
 
     /**
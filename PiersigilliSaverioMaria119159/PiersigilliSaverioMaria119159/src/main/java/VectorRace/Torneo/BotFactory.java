@@ -0,0 +1,28 @@
+package VectorRace.Torneo;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.ITrack;
+
+import java.util.List;
+
+/**
+ * BotFactory crea una nuova istanza di bot per ogni gara di un torneo.
+ * <p>
+ * Ogni gara deve ricevere giocatori "freschi", perch i bot mantengono uno stato
+ * (posizione, velocit, riferimenti al tracciato e agli altri giocatori).
+ * Esempio: {@code (name, track, players) -> new GreedyBot(name, track.getStartPosition(), track)}.
+ */
+@FunctionalInterface
+public interface BotFactory {
+
+    /**
+     * Crea un bot per una singola gara.
+     *
+     * @param name    Nome da assegnare al bot.
+     * @param track   Tracciato su cui si svolge la gara.
+     * @param players Lista (condivisa dalla gara) di tutti i giocatori in corsa,
+     *                utile ai bot che osservano gli avversari.
+     * @return Il nuovo giocatore.
+     */
+    IPlayer create(String name, ITrack track, List<IPlayer> players);
+}
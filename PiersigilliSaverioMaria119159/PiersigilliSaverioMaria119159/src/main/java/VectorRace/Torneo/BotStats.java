@@ -0,0 +1,89 @@
+package VectorRace.Torneo;
+
+/**
+ * BotStats accumula le statistiche di un bot durante un torneo:
+ * gare disputate, vittorie, eliminazioni (schianti) e turni giocati.
+ * <p>
+ * Le istanze vengono riempite da un solo thread alla volta e poi unite
+ * con {@link #merge(BotStats)}, quindi non richiedono sincronizzazione.
+ */
+public class BotStats {
+
+    private final String name;
+    private int races;
+    private int wins;
+    private int crashes;
+    private long totalTurns;
+
+    /**
+     * Costruttore di BotStats.
+     *
+     * @param name Nome del bot nel roster del torneo.
+     */
+    public BotStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Registra l'esito di una gara per questo bot.
+     *
+     * @param won     true se il bot ha vinto la gara.
+     * @param crashed true se il bot  stato eliminato.
+     * @param turns   Numero di turni giocati nella gara.
+     */
+    void record(boolean won, boolean crashed, int turns) {
+        races++;
+        if (won) wins++;
+        if (crashed) crashes++;
+        totalTurns += turns;
+    }
+
+    /**
+     * Somma a queste statistiche quelle di un'altra istanza dello stesso bot.
+     *
+     * @param other Statistiche parziali da unire.
+     */
+    void merge(BotStats other) {
+        races += other.races;
+        wins += other.wins;
+        crashes += other.crashes;
+        totalTurns += other.totalTurns;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRaces() {
+        return races;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getCrashes() {
+        return crashes;
+    }
+
+    /**
+     * @return Percentuale di vittorie (tra 0 e 1), oppure 0 se non ha disputato gare.
+     */
+    public double getWinRate() {
+        return races == 0 ? 0 : (double) wins / races;
+    }
+
+    /**
+     * @return Percentuale di eliminazioni (tra 0 e 1), oppure 0 se non ha disputato gare.
+     */
+    public double getCrashRate() {
+        return races == 0 ? 0 : (double) crashes / races;
+    }
+
+    /**
+     * @return Durata media, in turni, delle gare disputate dal bot.
+     */
+    public double getAverageTurns() {
+        return races == 0 ? 0 : (double) totalTurns / races;
+    }
+}
@@ -0,0 +1,264 @@
+package VectorRace.Torneo;
+
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.GameBoard;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.TrackRegistry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tournament esegue molte gare indipendenti tra i bot di un roster,
+ * distribuendole su tutti i core disponibili.
+ * <p>
+ * - Ogni gara coinvolge tutti i bot del roster; l'ordine di partenza ruota
+ *   da una gara all'altra, cos che nessun bot sia favorito dalla griglia.
+ * - I tracciati vengono usati a rotazione (gara i sul tracciato i % numeroTracciati).
+ * - Le gare sono eseguite in modalit headless su un {@link ForkJoinPool}
+ *   (work-stealing): l'intervallo di gare viene diviso ricorsivamente in sotto-task,
+ *   ciascuno produce un {@link TournamentResult} parziale e i parziali vengono uniti.
+ * - Dal seme del torneo si ricava, in ordine, un seme per ogni gara: a parit di seme
+ *   il torneo  riproducibile indipendentemente da quale thread esegue ciascuna gara.
+ */
+public class Tournament {
+
+    /**
+     * Numero di gare sotto il quale un task smette di dividersi e le esegue in sequenza.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+
+    /**
+     * Roster dei bot: nome -> factory, nell'ordine di iscrizione.
+     */
+    private final Map<String, BotFactory> roster = new LinkedHashMap<>();
+
+    /**
+     * Nomi dei file dei tracciati (risorse del classpath).
+     */
+    private final List<String> trackFiles;
+
+    /**
+     * Numero totale di gare da disputare.
+     */
+    private final int races;
+
+    /**
+     * Limite di turni per ogni gara.
+     */
+    private final int maxTurns;
+
+    /**
+     * Numero di thread del pool (di default uno per core).
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Seme del torneo, da cui derivano i semi delle singole gare.
+     */
+    private long seed = new SplittableRandom().nextLong();
+
+    /**
+     * Tempo limite per le decisioni dei bot in ogni gara (0 = nessun limite).
+     */
+    private long decisionTimeoutMillis;
+
+    /**
+     * Registro da cui vengono presi i tracciati.
+     */
+    private TrackRegistry trackRegistry = TrackRegistry.shared();
+
+    /**
+     * Costruttore di Tournament.
+     *
+     * @param trackFiles Tracciati su cui correre (almeno uno).
+     * @param races      Numero di gare da disputare.
+     * @param maxTurns   Limite massimo di turni per gara.
+     */
+    public Tournament(List<String> trackFiles, int races, int maxTurns) {
+        if (trackFiles.isEmpty()) {
+            throw new IllegalArgumentException("Serve almeno un tracciato per il torneo.");
+        }
+        this.trackFiles = new ArrayList<>(trackFiles);
+        this.races = races;
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Iscrive un bot al torneo.
+     *
+     * @param name    Nome univoco del bot (usato anche come nome del giocatore in gara).
+     * @param factory Factory che crea una nuova istanza del bot per ogni gara.
+     */
+    public void addBot(String name, BotFactory factory) {
+        if (roster.containsKey(name)) {
+            throw new IllegalArgumentException("Bot gi iscritto: " + name);
+        }
+        roster.put(name, factory);
+    }
+
+    /**
+     * Imposta il numero di thread usati per eseguire le gare.
+     *
+     * @param parallelism Numero di thread (almeno 1).
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Il parallelismo deve essere almeno 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Fissa il seme del torneo, rendendo riproducibili tutte le gare.
+     *
+     * @param seed Seme del torneo.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Imposta il tempo limite per le decisioni dei bot: un bot troppo lento
+     * riceve la mossa di default invece di rallentare tutto il torneo.
+     *
+     * @param millis Tempo limite in millisecondi (0 per nessun limite).
+     */
+    public void setDecisionTimeout(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Il tempo limite non pu essere negativo.");
+        }
+        this.decisionTimeoutMillis = millis;
+    }
+
+    /**
+     * Imposta il registro da cui prendere i tracciati (di default quello condiviso).
+     *
+     * @param trackRegistry Registro dei tracciati.
+     */
+    public void setTrackRegistry(TrackRegistry trackRegistry) {
+        this.trackRegistry = Objects.requireNonNull(trackRegistry);
+    }
+
+    /**
+     * Esegue tutte le gare del torneo e ne aggrega i risultati.
+     *
+     * @return Statistiche aggregate del torneo.
+     * @throws IOException Se uno dei tracciati non pu essere caricato.
+     */
+    public TournamentResult run() throws IOException {
+        if (roster.isEmpty()) {
+            throw new IllegalStateException("Nessun bot iscritto al torneo.");
+        }
+
+        // I tracciati vengono presi dal registro: sono immutabili, condivisi da tutte le gare
+        // e, insieme ai loro dati derivati, riutilizzati anche dai tornei successivi.
+        List<ITrack> tracks = new ArrayList<>();
+        for (String file : trackFiles) {
+            tracks.add(trackRegistry.getResource(file));
+        }
+
+        List<String> names = new ArrayList<>(roster.keySet());
+        List<BotFactory> factories = new ArrayList<>(roster.values());
+
+        // I semi delle gare vengono estratti in sequenza prima di distribuire il lavoro.
+        SplittableRandom master = new SplittableRandom(seed);
+        long[] raceSeeds = new long[races];
+        for (int race = 0; race < races; race++) {
+            raceSeeds[race] = master.nextLong();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new RaceTask(tracks, names, factories, raceSeeds, 0, races));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Task ricorsivo che esegue le gare dell'intervallo [from, to).
+     * Non viene mai serializzato (i task ForkJoin lo sono solo formalmente).
+     */
+    @SuppressWarnings("serial")
+    private class RaceTask extends RecursiveTask<TournamentResult> {
+
+        private final List<ITrack> tracks;
+        private final List<String> names;
+        private final List<BotFactory> factories;
+        private final long[] raceSeeds;
+        private final int from;
+        private final int to;
+
+        RaceTask(List<ITrack> tracks, List<String> names, List<BotFactory> factories,
+                 long[] raceSeeds, int from, int to) {
+            this.tracks = tracks;
+            this.names = names;
+            this.factories = factories;
+            this.raceSeeds = raceSeeds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentResult compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                TournamentResult partial = new TournamentResult(names);
+                for (int race = from; race < to; race++) {
+                    partial.record(runRace(race));
+                }
+                return partial;
+            }
+
+            // Divide l'intervallo a met: la prima parte viene "rubata" dagli altri worker.
+            int mid = (from + to) >>> 1;
+            RaceTask left = new RaceTask(tracks, names, factories, raceSeeds, from, mid);
+            RaceTask right = new RaceTask(tracks, names, factories, raceSeeds, mid, to);
+            left.fork();
+            TournamentResult rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+
+        /**
+         * Prepara ed esegue una singola gara in modalit headless.
+         *
+         * @param race Indice della gara nel torneo.
+         * @return Il risultato della gara.
+         */
+        private RaceResult runRace(int race) {
+            ITrack track = tracks.get(race % tracks.size());
+            GameBoard board = new GameBoard(track);
+            GameEngine engine = new GameEngine(board, new SimpleVelocityCalculator(),
+                    new DefaultInertiaManager(), maxTurns);
+            engine.setHeadless(true);
+            engine.setSeed(raceSeeds[race]);
+            engine.setDecisionTimeout(decisionTimeoutMillis);
+
+            // L'ordine di partenza ruota a ogni gara.
+            List<IPlayer> players = new ArrayList<>();
+            int size = names.size();
+            for (int k = 0; k < size; k++) {
+                int index = (race + k) % size;
+                IPlayer player = factories.get(index).create(names.get(index), track, players);
+                players.add(player);
+                engine.addPlayer(player);
+            }
+            return engine.startRace();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package VectorRace.Torneo;
+
+import VectorRace.Motore.RaceResult;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TournamentResult aggrega gli esiti di tutte le gare di un torneo.
+ * <p>
+ * Ogni task del torneo riempie un proprio risultato parziale, che viene poi
+ * unito agli altri con {@link #merge(TournamentResult)}: in questo modo
+ * l'aggregazione non richiede lock condivisi tra i thread.
+ */
+public class TournamentResult {
+
+    /**
+     * Statistiche per bot, nell'ordine del roster.
+     */
+    private final Map<String, BotStats> stats = new LinkedHashMap<>();
+
+    private int races;
+    private int racesWithoutWinner;
+    private long totalTurns;
+
+    /**
+     * Costruttore di TournamentResult.
+     *
+     * @param botNames Nomi dei bot del roster, nell'ordine di iscrizione.
+     */
+    TournamentResult(List<String> botNames) {
+        for (String name : botNames) {
+            stats.put(name, new BotStats(name));
+        }
+    }
+
+    /**
+     * Registra l'esito di una gara.
+     *
+     * @param result Risultato restituito da GameEngine.
+     */
+    void record(RaceResult result) {
+        races++;
+        totalTurns += result.getTurns();
+        if (!result.hasWinner()) {
+            racesWithoutWinner++;
+        }
+        for (RaceResult.PlayerState state : result.getFinalStates()) {
+            BotStats botStats = stats.get(state.getName());
+            if (botStats != null) {
+                botStats.record(state.isWinner(), state.isEliminated(), result.getTurns());
+            }
+        }
+    }
+
+    /**
+     * Unisce a questo risultato quello parziale di un altro task.
+     *
+     * @param other Risultato parziale.
+     * @return Questo stesso oggetto, per comodit.
+     */
+    TournamentResult merge(TournamentResult other) {
+        races += other.races;
+        racesWithoutWinner += other.racesWithoutWinner;
+        totalTurns += other.totalTurns;
+        for (BotStats otherStats : other.stats.values()) {
+            stats.get(otherStats.getName()).merge(otherStats);
+        }
+        return this;
+    }
+
+    public int getRaces() {
+        return races;
+    }
+
+    public int getRacesWithoutWinner() {
+        return racesWithoutWinner;
+    }
+
+    /**
+     * @return Durata media delle gare, in turni.
+     */
+    public double getAverageTurns() {
+        return races == 0 ? 0 : (double) totalTurns / races;
+    }
+
+    /**
+     * Restituisce le statistiche di un bot.
+     *
+     * @param botName Nome del bot nel roster.
+     * @return Le statistiche del bot, o null se il nome non  nel roster.
+     */
+    public BotStats getStats(String botName) {
+        return stats.get(botName);
+    }
+
+    /**
+     * @return Statistiche di tutti i bot, nell'ordine del roster.
+     */
+    public List<BotStats> getAllStats() {
+        return Collections.unmodifiableList(new ArrayList<>(stats.values()));
+    }
+
+    /**
+     * Stampa un riepilogo leggibile del torneo.
+     *
+     * @param out Stream su cui stampare (es. System.out).
+     */
+    public void print(PrintStream out) {
+        out.printf("Gare disputate: %d (senza vincitore: %d), durata media: %.2f turni%n",
+                races, racesWithoutWinner, getAverageTurns());
+        for (BotStats botStats : stats.values()) {
+            out.printf("%s - Vittorie: %.1f%%, Eliminazioni: %.1f%%, Turni medi: %.2f%n",
+                    botStats.getName(), botStats.getWinRate() * 100,
+                    botStats.getCrashRate() * 100, botStats.getAverageTurns());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package VectorRace.Visualizzazione;
+
+import VectorRace.Eventi.CollisionEvent;
+import VectorRace.Eventi.EliminationEvent;
+import VectorRace.Eventi.FinishEvent;
+import VectorRace.Eventi.MoveEvent;
+import VectorRace.Eventi.RaceEndEvent;
+import VectorRace.Eventi.RaceListener;
+import VectorRace.Eventi.TurnStartEvent;
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.GameBoard;
+
+import java.io.PrintStream;
+
+/**
+ * ConsoleRaceListener riproduce su console l'andamento della gara:
+ * - stampa l'intestazione di ogni turno e i messaggi di collisione, eliminazione e vittoria;
+ * - dopo ogni mossa ridisegna la plancia tramite {@link GameBoard#display}.
+ * <p>
+ *  il listener registrato di default da {@link GameEngine} fuori dalla modalit headless.
+ */
+public class ConsoleRaceListener implements RaceListener {
+
+    private final GameEngine engine;
+    private final GameBoard board;
+    private final PrintStream out;
+
+    /**
+     * Costruttore di ConsoleRaceListener.
+     *
+     * @param engine Motore di gioco da cui leggere giocatori attivi e direzioni.
+     * @param board  Plancia da visualizzare dopo ogni mossa.
+     * @param out    Stream su cui stampare i messaggi.
+     */
+    public ConsoleRaceListener(GameEngine engine, GameBoard board, PrintStream out) {
+        this.engine = engine;
+        this.board = board;
+        this.out = out;
+    }
+
+    @Override
+    public void onTurnStart(TurnStartEvent event) {
+        out.println("Turno: " + event.getTurn());
+    }
+
+    @Override
+    public void onMove(MoveEvent event) {
+        if (event.isStationary()) {
+            out.println(nameOf(event.getPlayer()) + " non ha direzioni sicure per muoversi.");
+            return;
+        }
+        // Mostra la situazione aggiornata del gioco.
+        board.display(engine.getPlayers(), engine.getPreviousDirections());
+    }
+
+    @Override
+    public void onCollision(CollisionEvent event) {
+        out.println("Posizione occupata da un altro giocatore. " +
+                nameOf(event.getPlayer()) + " salta il turno.");
+    }
+
+    @Override
+    public void onElimination(EliminationEvent event) {
+        out.println(nameOf(event.getPlayer()) + " ha colpito un ostacolo ed  eliminato dal gioco!");
+    }
+
+    @Override
+    public void onFinish(FinishEvent event) {
+        out.println(nameOf(event.getPlayer()) + " ha raggiunto il traguardo ed ha vinto la gara!");
+    }
+
+    @Override
+    public void onRaceEnd(RaceEndEvent event) {
+        RaceResult result = event.getResult();
+        if (result.getOutcome() == RaceResult.Outcome.ALL_ELIMINATED) {
+            out.println("Tutti i giocatori sono stati eliminati. La partita finisce.");
+        } else if (result.getOutcome() == RaceResult.Outcome.MAX_TURNS) {
+            out.println("Limite di " + engine.getMaxTurns() + " turni raggiunto. La partita termina.");
+        }
+    }
+
+    private String nameOf(IPlayer player) {
+        return (player instanceof BasePlayer) ? ((BasePlayer) player).getName() : "Giocatore";
+    }
+}
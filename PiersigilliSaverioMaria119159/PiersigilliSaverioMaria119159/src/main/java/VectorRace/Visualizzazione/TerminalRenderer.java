@@ -0,0 +1,280 @@
+package VectorRace.Visualizzazione;
+
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.VectorDirection;
+
+import java.io.PrintStream;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TerminalRenderer disegna la gara su un terminale compatibile ANSI
+ * aggiornando solo le celle che cambiano da un frame all'altro.
+ * <p>
+ *  composto da tre livelli:
+ * - uno sfondo statico (tracciato con partenze 'S' e traguardi 'F'), costruito una sola volta;
+ * - un livello dei giocatori, cio le celle su cui al frame corrente c' un simbolo di giocatore;
+ * - una copia di ci che  attualmente a schermo, usata per calcolare le differenze.
+ * <p>
+ * Il primo frame disegna l'intero tracciato; i successivi spostano il cursore
+ * (sequenze ANSI) solo sulle celle cambiate. Ogni frame viene accumulato in un buffer
+ * e scritto sullo stream con un'unica operazione di scrittura.
+ */
+public class TerminalRenderer {
+
+    /**
+     * Prefisso delle sequenze di controllo ANSI (Control Sequence Introducer).
+     */
+    private static final String CSI = "\u001B[";
+
+    private final PrintStream out;
+    private final int width;
+    private final int height;
+
+    /**
+     * Sfondo statico del tracciato (indicizzato per righe: y * width + x).
+     */
+    private final char[] background;
+
+    /**
+     * Contenuto attualmente visibile a schermo, cella per cella.
+     */
+    private final char[] screen;
+
+    /**
+     * Numero di frame in cui ogni cella ha ricevuto un simbolo di giocatore:
+     * evita di cancellare e allocare strutture a ogni frame.
+     */
+    private final int[] stamp;
+
+    /**
+     * Celle coperte da un giocatore nel frame precedente e nel frame corrente.
+     */
+    private int[] previousOverlay = new int[0];
+    private int previousOverlaySize;
+    private int[] currentOverlay = new int[0];
+    private char[] currentSymbols = new char[0];
+
+    private int frame;
+    private boolean firstFrame = true;
+
+    /**
+     * Buffer in cui viene composto il frame prima della scrittura.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+    private final Formatter formatter = new Formatter(buffer);
+
+    /**
+     * Costruttore di TerminalRenderer.
+     *
+     * @param track Tracciato da disegnare.
+     * @param out   Stream su cui scrivere (tipicamente System.out).
+     */
+    public TerminalRenderer(ITrack track, PrintStream out) {
+        this.out = out;
+        this.width = track.getWidth();
+        this.height = track.getHeight();
+        this.background = buildBackground(track);
+        this.screen = new char[width * height];
+        this.stamp = new int[width * height];
+    }
+
+    /**
+     * Costruisce lo sfondo statico del tracciato.
+     * Per un {@link Track} le partenze e i traguardi si leggono direttamente
+     * dai codici delle celle ({@link CellType}).
+     *
+     * @param track Tracciato da cui leggere le celle.
+     * @return L'array dei caratteri dello sfondo.
+     */
+    private char[] buildBackground(ITrack track) {
+        char[] cells = new char[width * height];
+        if (track instanceof Track) {
+            Track t = (Track) track;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    cells[y * width + x] = symbolOf(t.getCellType(x, y));
+                }
+            }
+            return cells;
+        }
+        Position pos = new Position(0, 0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pos.setX(x);
+                pos.setY(y);
+                cells[y * width + x] = track.getCell(pos);
+            }
+        }
+        return cells;
+    }
+
+    private char symbolOf(byte cellType) {
+        switch (cellType) {
+            case CellType.START:  return 'S';
+            case CellType.FINISH: return 'F';
+            default:              return CellType.toChar(cellType);
+        }
+    }
+
+    /**
+     * Disegna un frame della gara:
+     * - il tracciato con i simboli dei giocatori (solo le celle cambiate dopo il primo frame);
+     * - lo stato dei giocatori (nome, velocit, posizione, direzione).
+     *
+     * @param players            Giocatori attivi.
+     * @param previousDirections Direzione precedente di ogni giocatore.
+     */
+    public void render(List<IPlayer> players,
+                       Map<IPlayer, VectorDirection.CardinalDirection> previousDirections) {
+        frame++;
+        buffer.setLength(0);
+        int overlaySize = buildOverlay(players);
+
+        if (firstFrame) {
+            drawFullFrame(overlaySize);
+            firstFrame = false;
+        } else {
+            // Ripristina lo sfondo sulle celle lasciate libere dai giocatori...
+            for (int i = 0; i < previousOverlaySize; i++) {
+                int index = previousOverlay[i];
+                if (stamp[index] != frame) {
+                    drawCell(index, background[index]);
+                }
+            }
+            // ...e disegna i giocatori nelle nuove posizioni.
+            for (int i = 0; i < overlaySize; i++) {
+                drawCell(currentOverlay[i], currentSymbols[i]);
+            }
+        }
+
+        drawStatus(players, previousDirections);
+
+        // Scambia i livelli: il frame corrente diventa quello precedente.
+        int[] swap = previousOverlay;
+        previousOverlay = currentOverlay;
+        previousOverlaySize = overlaySize;
+        currentOverlay = swap;
+
+        out.print(buffer);
+        out.flush();
+    }
+
+    /**
+     * Calcola le celle coperte dai giocatori nel frame corrente.
+     * Se pi giocatori sono nella stessa cella, vince il primo della lista.
+     *
+     * @param players Giocatori attivi.
+     * @return Numero di celle coperte.
+     */
+    private int buildOverlay(List<IPlayer> players) {
+        if (currentOverlay.length < players.size()) {
+            currentOverlay = new int[players.size()];
+            currentSymbols = new char[players.size()];
+        }
+        int size = 0;
+        for (IPlayer player : players) {
+            int index = index(player.getCurrentPosition());
+            if (index < 0 || stamp[index] == frame) {
+                continue;
+            }
+            stamp[index] = frame;
+            currentOverlay[size] = index;
+            currentSymbols[size] = symbolOf(player);
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Disegna l'intero tracciato: usato solo per il primo frame.
+     *
+     * @param overlaySize Numero di celle coperte dai giocatori.
+     */
+    private void drawFullFrame(int overlaySize) {
+        System.arraycopy(background, 0, screen, 0, screen.length);
+        for (int i = 0; i < overlaySize; i++) {
+            screen[currentOverlay[i]] = currentSymbols[i];
+        }
+        // Pulisce lo schermo e porta il cursore in alto a sinistra.
+        buffer.append(CSI).append("2J").append(CSI).append('H');
+        for (int y = 0; y < height; y++) {
+            buffer.append(screen, y * width, width).append('\n');
+        }
+    }
+
+    /**
+     * Aggiorna una cella a schermo solo se il suo contenuto cambia.
+     *
+     * @param index  Indice della cella.
+     * @param symbol Carattere da mostrare.
+     */
+    private void drawCell(int index, char symbol) {
+        if (screen[index] == symbol) {
+            return;
+        }
+        screen[index] = symbol;
+        moveCursor(index / width, index % width);
+        buffer.append(symbol);
+    }
+
+    /**
+     * Ridisegna l'area di stato sotto il tracciato e pulisce il resto dello schermo,
+     * lasciandovi il cursore per gli eventuali messaggi di gioco.
+     */
+    private void drawStatus(List<IPlayer> players,
+                            Map<IPlayer, VectorDirection.CardinalDirection> previousDirections) {
+        moveCursor(height + 1, 0);
+        buffer.append(CSI).append('J');
+        buffer.append("Stato dei giocatori:\n");
+        for (IPlayer player : players) {
+            String playerName = (player instanceof BasePlayer)
+                    ? ((BasePlayer) player).getName()
+                    : "Giocatore";
+            Position pos = player.getCurrentPosition();
+            VectorDirection.CardinalDirection direction = previousDirections.get(player);
+            String directionStr = (direction != null) ? direction.toString() : "N/D";
+            formatter.format("%s - Velocit: %d, Posizione: (%d, %d), Direzione: %s%n",
+                    playerName, player.getVelocity(), pos.getX(), pos.getY(), directionStr);
+        }
+        buffer.append("--------------------------------------------------\n");
+    }
+
+    /**
+     * Sposta il cursore (coordinate a base 0; le sequenze ANSI sono a base 1).
+     */
+    private void moveCursor(int row, int column) {
+        buffer.append(CSI).append(row + 1).append(';').append(column + 1).append('H');
+    }
+
+    /**
+     * Simbolo di un giocatore: l'iniziale del nome per un BasePlayer, altrimenti 'P'.
+     */
+    private char symbolOf(IPlayer player) {
+        if (player instanceof BasePlayer) {
+            String name = ((BasePlayer) player).getName();
+            if (!name.isEmpty()) {
+                return name.charAt(0);
+            }
+        }
+        return 'P';
+    }
+
+    /**
+     * Converte una posizione nell'indice di cella, o -1 se fuori dal tracciato.
+     */
+    private int index(Position pos) {
+        int x = pos.getX();
+        int y = pos.getY();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return y * width + x;
+    }
+}
@@ -0,0 +1,109 @@
+import VectorRace.Posizione.DistanceField;
+import VectorRace.Posizione.FrontierSearch;
+import VectorRace.Posizione.Track;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Misura i tempi di {@link FrontierSearch} su tracciati generati al volo,
+ * al variare del numero di thread del pool (1, 2, 4, ... fino ai core disponibili),
+ * rispetto alla visita sequenziale di {@link DistanceField#computeSequential}:
+ * lo speedup  calcolato sul tempo sequenziale, non su quello della visita parallela a 1 thread.
+ * I tracciati sono {@link Track} gi caricati, di cui la visita legge direttamente
+ * le celle: il tempo misurato  quello della sola visita per livelli.
+ * <p>
+ * Non  un test JUnit: si lancia a mano, indicando i lati dei tracciati da provare
+ * (di default 4096 e 16384). Il tracciato 16384 x 16384 richiede circa 1,5 GB
+ * di heap, quindi va avviato ad esempio con -Xmx3g.
+ */
+public class DistanceFieldBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0 ? new int[]{4096, 16384} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int size : sizes) {
+            Track track = mazeTrack(size, size);
+            System.out.println("Tracciato " + size + "x" + size + " (" + cores + " core)");
+            long base = sequential(track);
+            System.out.printf("  sequenziale: %6d ms%n", base);
+            for (int threads = 1; threads <= cores; threads = threads == cores ? cores + 1 : Math.min(threads * 2, cores)) {
+                long best = run(track, threads);
+                System.out.printf("  %2d thread:   %6d ms  speedup %.2f%n", threads, best, (double) base / best);
+            }
+        }
+    }
+
+    private static long sequential(Track track) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            DistanceField.computeSequential(track);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    private static long run(Track track, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            FrontierSearch search = new FrontierSearch(pool);
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                search.compute(track);
+                best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+            }
+            return best;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Scrive su un file temporaneo un tracciato procedurale e lo carica come {@link Track}:
+     * muri verticali ogni 16 colonne con un varco di 32 righe che cambia da muro a muro,
+     * la partenza in alto a sinistra e il traguardo sull'ultima colonna.
+     * Il file viene scritto riga per riga e poi mappato in memoria, quindi il picco
+     * di memoria  praticamente solo l'array delle celle.
+     */
+    private static Track mazeTrack(int width, int height) throws IOException {
+        Path file = Files.createTempFile("maze", ".txt");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                byte[] row = new byte[width + 1];
+                row[width] = '\n';
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        row[x] = (byte) (x == width - 1 ? 'F' : isWall(x, y, height) ? '#' : '.');
+                    }
+                    if (y == 0) {
+                        row[0] = 'S';
+                    }
+                    out.write(row);
+                }
+            }
+            return Track.fromPath(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static boolean isWall(int x, int y, int height) {
+        if (x % 16 != 8) {
+            return false;
+        }
+        // Varco di 32 righe in una posizione diversa per ogni muro
+        int gap = (int) (((x / 16) * 2654435761L) % Math.max(1, height - 32));
+        return y < gap || y >= gap + 32;
+    }
+}
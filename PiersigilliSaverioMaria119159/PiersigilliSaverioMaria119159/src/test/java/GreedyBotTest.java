@@ -1,10 +1,16 @@
 import VectorRace.Giocatori.GreedyBot;
 import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
 import VectorRace.Posizione.VectorDirection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
@@ -92,6 +98,22 @@ public class GreedyBotTest {
                 "GreedyBot dovrebbe sempre restituire 1 come accelerazione.");
     }
 
+    @Test
+    void testChooseDirectionAvoidsWalls(@TempDir Path tempDir) throws IOException {
+        // Il traguardo (3,0)  dietro un muro: andare a E avvicina in linea d'aria
+        // ma allunga il percorso, quindi il bot deve scegliere SE.
+        Path file = tempDir.resolve("wall_map.txt");
+        Files.write(file, "..#F\n..#.\n....\n".getBytes(StandardCharsets.US_ASCII));
+        Track wallTrack = Track.fromPath(file);
+        GreedyBot greedy = new GreedyBot("GreedyWall", new Position(0, 0), wallTrack);
+
+        VectorDirection.CardinalDirection chosen = greedy.chooseDirection(
+                Arrays.asList(VectorDirection.CardinalDirection.values()));
+
+        assertEquals(VectorDirection.CardinalDirection.SE, chosen,
+                "Il bot deve seguire il percorso pi breve attorno al muro.");
+    }
+
     /**
      * MockTrack  unimplementazione minimale di ITrack
      * per testare il GreedyBot senza caricare file reali.
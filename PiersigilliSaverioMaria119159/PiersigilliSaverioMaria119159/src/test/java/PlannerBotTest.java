@@ -0,0 +1,66 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.PlannerBot;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.GameBoard;
+import VectorRace.Posizione.Track;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test della classe PlannerBot.
+ * Verifichiamo che il piano calcolato sul grafo delle transizioni
+ * porti al traguardo nel minor numero di turni e senza collisioni.
+ */
+public class PlannerBotTest {
+
+    private RaceResult race(Track track, PlannerBot bot, int maxTurns) {
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), maxTurns);
+        engine.setHeadless(true);
+        engine.addPlayer(bot);
+        return engine.startRace();
+    }
+
+    @Test
+    void testShortestPlanOnStraightTrack() throws IOException {
+        // Con velocit 1, 2, 3 si percorrono al pi 6 celle in 3 turni: per la settima ne servono 4
+        Track track = TrackFixtures.fromText("S......F\n");
+        PlannerBot bot = new PlannerBot("Planner", track.getStartPosition(), track);
+
+        RaceResult result = race(track, bot, 10);
+
+        assertSame(bot, result.getWinner(), "Il bot deve arrivare al traguardo");
+        assertEquals(4, result.getTurns(), "Il piano deve usare il minimo numero di turni");
+    }
+
+    @Test
+    void testPlanAvoidsWalls() throws IOException {
+        Track track = TrackFixtures.fromText(
+                "S.#.....\n"
+                        + "..#..#..\n"
+                        + "..#..#..\n"
+                        + ".....#.F\n");
+        PlannerBot bot = new PlannerBot("Planner", track.getStartPosition(), track);
+
+        RaceResult result = race(track, bot, 20);
+
+        assertSame(bot, result.getWinner(), "Il bot deve aggirare i muri e arrivare al traguardo");
+        assertTrue(result.getEliminated().isEmpty(), "Il piano non deve contenere collisioni");
+    }
+
+    @Test
+    void testOnlySafeMovesWhenFinishIsUnreachable() throws IOException {
+        Track track = TrackFixtures.fromText("S.###F\n..###.\n");
+        PlannerBot bot = new PlannerBot("Planner", track.getStartPosition(), track);
+
+        RaceResult result = race(track, bot, 5);
+
+        assertNull(result.getWinner(), "Il traguardo oltre il muro non  raggiungibile");
+        assertTrue(result.getEliminated().isEmpty(), "Senza piano il bot sceglie solo mosse sicure");
+    }
+}
@@ -0,0 +1,114 @@
+import VectorRace.Eventi.AsyncRaceListener;
+import VectorRace.Eventi.RaceEndEvent;
+import VectorRace.Eventi.RaceEvent;
+import VectorRace.Eventi.RaceEventType;
+import VectorRace.Eventi.RaceListener;
+import VectorRace.Eventi.TurnStartEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per AsyncRaceListener.
+ * Verifica l'ordine di consegna e il comportamento delle politiche di backpressure.
+ */
+class TestAsyncRaceListener {
+
+    @Test
+    void testBlockDeliversEveryEventInOrder() {
+        List<RaceEvent> received = new CopyOnWriteArrayList<>();
+        RaceListener recorder = new RaceListener() {
+            @Override
+            public void onEvent(RaceEvent event) {
+                received.add(event);
+            }
+        };
+        AsyncRaceListener async = new AsyncRaceListener(recorder, 16,
+                AsyncRaceListener.BackpressurePolicy.BLOCK);
+
+        // Molti pi eventi della capacit del buffer: il produttore deve attendere
+        for (int turn = 1; turn <= 5000; turn++) {
+            async.onEvent(new TurnStartEvent(turn));
+        }
+        async.onEvent(new RaceEndEvent(5000, null));
+        async.close();
+
+        assertEquals(5001, received.size(), "Con BLOCK nessun evento deve andare perso.");
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i + 1, received.get(i).getTurn(), "Gli eventi devono arrivare in ordine.");
+        }
+        assertEquals(0, async.getDroppedEvents(), "Con BLOCK non ci sono eventi scartati.");
+    }
+
+    @Test
+    void testDropKeepsCriticalEvents() throws InterruptedException {
+        CountDownLatch consumerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<RaceEvent> received = new CopyOnWriteArrayList<>();
+
+        // Listener lento: resta bloccato sul primo evento finch il test non lo sblocca
+        RaceListener slow = new RaceListener() {
+            @Override
+            public void onEvent(RaceEvent event) {
+                received.add(event);
+                consumerBusy.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        AsyncRaceListener async = new AsyncRaceListener(slow, 4, AsyncRaceListener.BackpressurePolicy.DROP);
+
+        async.onEvent(new TurnStartEvent(0));
+        assertTrue(consumerBusy.await(5, TimeUnit.SECONDS), "Il consumatore deve ricevere il primo evento.");
+        for (int turn = 1; turn <= 100; turn++) {
+            async.onEvent(new TurnStartEvent(turn));
+        }
+        release.countDown();
+        async.onEvent(new RaceEndEvent(100, null));
+        async.close();
+
+        assertTrue(async.getDroppedEvents() > 0, "A buffer pieno gli eventi non critici vanno scartati.");
+        assertEquals(102, received.size() + async.getDroppedEvents(),
+                "Ogni evento deve essere consegnato oppure contato come scartato.");
+        assertEquals(RaceEventType.RACE_END, received.get(received.size() - 1).getType(),
+                "L'evento di fine gara  critico e deve essere sempre consegnato.");
+    }
+
+    @Test
+    void testIdleConsumerIsWokenByProducer() throws InterruptedException {
+        List<RaceEvent> received = new CopyOnWriteArrayList<>();
+        RaceListener recorder = new RaceListener() {
+            @Override
+            public void onEvent(RaceEvent event) {
+                received.add(event);
+            }
+        };
+        AsyncRaceListener async = new AsyncRaceListener(recorder, 16,
+                AsyncRaceListener.BackpressurePolicy.DROP);
+
+        // Tra un evento e l'altro il consumatore resta inattivo e si sospende
+        for (int turn = 1; turn <= 3; turn++) {
+            async.onEvent(new TurnStartEvent(turn));
+            Thread.sleep(20);
+            assertEquals(turn, received.size(), "Il consumatore sospeso deve essere risvegliato.");
+        }
+        async.close();
+        assertEquals(3, received.size(), "close() deve terminare il consumatore sospeso.");
+    }
+
+    @Test
+    void testCapacityIsRoundedToPowerOfTwo() {
+        AsyncRaceListener async = new AsyncRaceListener(new RaceListener() { }, 100,
+                AsyncRaceListener.BackpressurePolicy.SAMPLE);
+        assertEquals(128, async.getCapacity(), "La capacit deve essere arrotondata a 128.");
+        async.close();
+    }
+}
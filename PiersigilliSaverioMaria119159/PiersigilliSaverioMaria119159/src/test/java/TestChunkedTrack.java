@@ -0,0 +1,193 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Fisica.TransitionGraph;
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ChunkedTrack;
+import VectorRace.Posizione.ClearanceTable;
+import VectorRace.Posizione.DistanceField;
+import VectorRace.Posizione.FrontierSearch;
+import VectorRace.Posizione.GameBoard;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.PositionCache;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.VectorDirection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per ChunkedTrack.
+ * Verifica che il contenuto coincida con quello di Track, che le regioni
+ * uniformi non occupino memoria propria e che una gara su una mappa enorme
+ * non allochi strutture sull'intero rettangolo.
+ */
+class TestChunkedTrack {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameCellsAsTrack() throws IOException {
+        ChunkedTrack chunked = new ChunkedTrack();
+        chunked.loadFromFile("test_map.txt");
+        Track track = Track.fromResource("test_map.txt");
+
+        assertEquals(track.getWidth(), chunked.getWidth());
+        assertEquals(track.getHeight(), chunked.getHeight());
+        for (int y = -1; y <= track.getHeight(); y++) {
+            for (int x = -1; x <= track.getWidth(); x++) {
+                assertEquals(track.getCellType(x, y), chunked.getCellType(x, y),
+                        "Cella diversa in (" + x + "," + y + ")");
+            }
+        }
+        assertEquals(track.getStartPosition(), chunked.getStartPosition());
+        assertEquals(track.getFinishPosition(), chunked.getFinishPosition());
+    }
+
+    @Test
+    void testUniformRegionsAreShared() throws IOException {
+        // 1000 x 640: met superiore tutta muro, met inferiore libera, un solo ostacolo isolato
+        int width = 1000;
+        int height = 640;
+        StringBuilder map = new StringBuilder();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                char c = y < height / 2 ? '#' : '.';
+                if (y == height - 1 && x == 0) {
+                    c = 'S';
+                } else if (y == height - 1 && x == width - 1) {
+                    c = 'F';
+                } else if (y == 500 && x == 500) {
+                    c = '#';
+                }
+                map.append(c);
+            }
+            map.append('\n');
+        }
+        Path file = tempDir.resolve("open.txt");
+        Files.write(file, map.toString().getBytes(StandardCharsets.US_ASCII));
+
+        ChunkedTrack track = new ChunkedTrack();
+        track.loadFromPath(file);
+
+        assertEquals(width, track.getWidth());
+        assertEquals(height, track.getHeight());
+        assertEquals(CellType.OBSTACLE, track.getCellType(10, 10));
+        assertEquals(CellType.FREE, track.getCellType(10, 400));
+        assertEquals(CellType.OBSTACLE, track.getCellType(500, 500));
+        assertTrue(track.isFinish(new Position(width - 1, height - 1)));
+        assertEquals(new Position(0, height - 1), track.getStartPosition());
+
+        // Solo le tile con la partenza, il traguardo e l'ostacolo isolato sono miste
+        assertEquals(160, track.getTileCount());
+        assertEquals(3, track.getMaterializedTileCount(),
+                "Le tile uniformi devono essere condivise");
+    }
+
+    @Test
+    void testDenseStructuresAreRejectedForHugeMaps() throws IOException {
+        // 5000 x 4000 celle libere (oltre MAX_DENSE_CELLS), compresse con gzip
+        int width = 5000;
+        int height = 4000;
+        Path file = tempDir.resolve("huge.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            byte[] row = new byte[width + 1];
+            Arrays.fill(row, (byte) '.');
+            row[width] = '\n';
+            for (int y = 0; y < height; y++) {
+                row[0] = (byte) (y == 0 ? 'S' : '.');
+                row[width - 1] = (byte) (y == height - 1 ? 'F' : '.');
+                out.write(row);
+            }
+        }
+        ChunkedTrack track = new ChunkedTrack();
+        track.loadFromPath(file);
+
+        assertThrows(UnsupportedOperationException.class, () -> DistanceField.of(track));
+        assertThrows(UnsupportedOperationException.class, () -> new FrontierSearch().compute(track));
+        assertThrows(UnsupportedOperationException.class, () -> ClearanceTable.of(track));
+        assertThrows(UnsupportedOperationException.class, () -> TransitionGraph.of(track));
+
+        // La cache delle posizioni alloca solo le tile visitate
+        PositionCache cache = PositionCache.of(track);
+        Position far = cache.get(4999, 3999);
+        assertSame(far, cache.get(4999, 3999));
+    }
+
+    @Test
+    void testRaceOnHugeMapDoesNotDensify() throws IOException {
+        // 40000 x 40000 celle: la prima riga contiene partenza e traguardo, le altre sono vuote
+        // (completate con celle libere). Una griglia densa di interi richiederebbe 6,4 GB.
+        int width = 40000;
+        int height = 40000;
+        Path file = tempDir.resolve("open.txt");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] first = new byte[width + 1];
+            Arrays.fill(first, (byte) '.');
+            first[0] = 'S';
+            first[width - 1] = 'F';
+            first[width] = '\n';
+            out.write(first);
+            byte[] empty = new byte[height - 1];
+            Arrays.fill(empty, (byte) '\n');
+            out.write(empty);
+        }
+        ChunkedTrack track = new ChunkedTrack();
+        track.loadFromPath(file);
+        assertEquals(height, track.getHeight());
+
+        GameBoard board = new GameBoard(track);
+        assertTrue(board.isFree(width - 1, height - 1), "Le celle lontane sono libere");
+
+        GameEngine engine = new GameEngine(board, new SimpleVelocityCalculator(), new DefaultInertiaManager(), 3);
+        engine.setHeadless(true);
+        engine.setSimultaneousMoves(true);
+        BasePlayer east = new Runner("Est", VectorDirection.CardinalDirection.E);
+        BasePlayer south = new Runner("Sud", VectorDirection.CardinalDirection.S);
+        engine.addPlayer(east);
+        engine.addPlayer(south);
+
+        RaceResult result = engine.startRace();
+
+        assertNull(result.getWinner());
+        assertTrue(result.getEliminated().isEmpty());
+        assertEquals(new Position(6, 0), east.getCurrentPosition(), "Velocit 1, 2, 3 verso Est");
+        assertEquals(new Position(0, 6), south.getCurrentPosition(), "Velocit 1, 2, 3 verso Sud");
+        assertFalse(board.isFree(6, 0), "La cella del giocatore risulta occupata");
+        assertTrue(board.isFree(0, 0), "La partenza  stata liberata");
+    }
+
+    /**
+     * Giocatore che accelera sempre nella stessa direzione.
+     */
+    private static class Runner extends BasePlayer {
+        private final VectorDirection.CardinalDirection direction;
+
+        Runner(String name, VectorDirection.CardinalDirection direction) {
+            super(name, new Position(0, 0));
+            this.direction = direction;
+        }
+
+        @Override
+        public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+            return direction;
+        }
+
+        @Override
+        public int chooseAcceleration() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import VectorRace.Posizione.ClearanceTable;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.VectorDirection.CardinalDirection;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per ClearanceTable.
+ * Verifica le distanze dagli ostacoli e dai bordi nelle 8 direzioni
+ * il confronto con il conteggio cella per cella e la saturazione dei tratti lunghi.
+ */
+class TestClearanceTable {
+
+    @Test
+    void testClearanceInEveryDirection() throws IOException {
+        Track track = TrackFixtures.fromText("....#\n.....\n#...F\n");
+        ClearanceTable table = ClearanceTable.of(track);
+
+        assertEquals(3, table.clearance(1, 1, CardinalDirection.E), "Fino al bordo destro");
+        assertEquals(3, table.clearance(0, 0, CardinalDirection.E), "Il muro ferma il conteggio");
+        assertEquals(0, table.clearance(1, 2, CardinalDirection.W), "Muro adiacente");
+        assertEquals(1, table.clearance(1, 1, CardinalDirection.N));
+        assertEquals(2, table.clearance(2, 0, CardinalDirection.S));
+        assertEquals(2, table.clearance(2, 0, CardinalDirection.SE), "Anche il traguardo  una cella libera");
+        assertEquals(1, table.clearance(1, 1, CardinalDirection.SE));
+        assertEquals(0, table.clearance(1, 1, CardinalDirection.SW), "Muro in diagonale");
+        assertEquals(1, table.clearance(2, 1, CardinalDirection.NW));
+        assertEquals(0, table.clearance(3, 1, CardinalDirection.NE), "Muro in diagonale");
+        assertEquals(0, table.clearance(-1, 0, CardinalDirection.E), "Fuori dal tracciato non c' spazio libero");
+        assertSame(table, ClearanceTable.of(track), "La tabella deve essere calcolata una sola volta per tracciato");
+    }
+
+    @Test
+    void testMatchesRayMarching() throws IOException {
+        Random random = new Random(5);
+        StringBuilder map = new StringBuilder();
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 60; x++) {
+                map.append(random.nextInt(5) == 0 ? '#' : '.');
+            }
+            map.append('\n');
+        }
+        Track track = TrackFixtures.fromText(map.toString());
+        ClearanceTable table = ClearanceTable.of(track);
+
+        int[] stepX = {0, 1, 1, 1, 0, -1, -1, -1};
+        int[] stepY = {-1, -1, 0, 1, 1, 1, 0, -1};
+        for (CardinalDirection direction : CardinalDirection.values()) {
+            for (int y = 0; y < track.getHeight(); y++) {
+                for (int x = 0; x < track.getWidth(); x++) {
+                    int expected = 0;
+                    Position next = new Position(x + stepX[direction.ordinal()], y + stepY[direction.ordinal()]);
+                    while (track.isFree(next)) {
+                        expected++;
+                        next = new Position(next.getX() + stepX[direction.ordinal()],
+                                next.getY() + stepY[direction.ordinal()]);
+                    }
+                    assertEquals(expected, table.clearance(x, y, direction),
+                            "Distanza diversa in (" + x + "," + y + ") verso " + direction);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLongRunsSaturate() throws IOException {
+        int width = ClearanceTable.MAX_CLEARANCE + 100;
+        StringBuilder map = new StringBuilder(width + 1);
+        for (int x = 0; x < width - 1; x++) {
+            map.append('.');
+        }
+        map.append("F\n");
+        ClearanceTable table = ClearanceTable.of(TrackFixtures.fromText(map.toString()));
+
+        assertEquals(ClearanceTable.MAX_CLEARANCE, table.clearance(0, 0, CardinalDirection.E),
+                "I tratti troppo lunghi devono essere saturati, non troncati");
+        assertEquals(50, table.clearance(width - 51, 0, CardinalDirection.E));
+        assertEquals(ClearanceTable.MAX_CLEARANCE, table.clearance(width - 1, 0, CardinalDirection.W));
+    }
+}
@@ -1,10 +1,13 @@
 import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Fisica.IInertiaManager;
 import VectorRace.Posizione.VectorDirection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,5 +89,56 @@ public class TestDefaultInertiaManager {
         assertTrue(directions.contains(VectorDirection.CardinalDirection.SW), "SW dovrebbe essere consentita.");
         assertTrue(directions.contains(VectorDirection.CardinalDirection.NW), "NW dovrebbe essere consentita.");
     }
-}
 
+    @Test
+    void testDirectionMaskMatchesList() {
+        for (int velocity = 0; velocity <= 4; velocity++) {
+            for (VectorDirection.CardinalDirection previous : VectorDirection.CardinalDirection.values()) {
+                byte mask = inertiaManager.allowedDirectionMask(velocity, previous);
+                List<VectorDirection.CardinalDirection> directions = inertiaManager.allowedDirections(velocity, previous);
+
+                assertEquals(directions.size(), DirectionMask.size(mask));
+                for (VectorDirection.CardinalDirection direction : VectorDirection.CardinalDirection.values()) {
+                    assertEquals(directions.contains(direction), DirectionMask.contains(mask, direction),
+                            "Maschera diversa dalla lista per " + direction);
+                }
+                assertSame(directions, inertiaManager.allowedDirections(velocity, previous),
+                        "La lista deve essere condivisa e non ricreata a ogni chiamata");
+            }
+        }
+    }
+
+    @Test
+    void testNoPreviousDirection() {
+        // Un giocatore che non si  ancora mosso pu scegliere qualunque direzione
+        assertEquals(DirectionMask.ALL, inertiaManager.allowedDirectionMask(3, null));
+        assertEquals(8, inertiaManager.allowedDirections(0, null).size());
+        assertFalse(DirectionMask.contains(DirectionMask.ALL, null));
+    }
+
+    @Test
+    void testDirectionMaskBits() {
+        byte mask = (byte) (DirectionMask.of(VectorDirection.CardinalDirection.NE)
+                | DirectionMask.of(VectorDirection.CardinalDirection.S)
+                | DirectionMask.of(VectorDirection.CardinalDirection.NW));
+        List<VectorDirection.CardinalDirection> directions = DirectionMask.toList(mask);
+
+        List<VectorDirection.CardinalDirection> scanned = new ArrayList<>();
+        for (int bits = mask & 0xFF; bits != 0; bits &= bits - 1) {
+            scanned.add(DirectionMask.lowest(bits));
+        }
+        assertEquals(directions, scanned, "La scansione dei bit segue l'ordine della lista");
+        for (int i = 0; i < directions.size(); i++) {
+            assertEquals(directions.get(i), DirectionMask.get(mask, i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> DirectionMask.get(mask, 3));
+
+        // pick estrae lo stesso numero casuale della scelta sulla lista
+        SplittableRandom expected = new SplittableRandom(7);
+        SplittableRandom actual = new SplittableRandom(7);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(directions.get(expected.nextInt(directions.size())), DirectionMask.pick(mask, actual));
+        }
+        assertNull(DirectionMask.pick(DirectionMask.NONE, actual), "Una maschera vuota non ha direzioni");
+    }
+}
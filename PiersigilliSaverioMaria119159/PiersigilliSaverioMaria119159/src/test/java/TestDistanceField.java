@@ -0,0 +1,130 @@
+import VectorRace.Posizione.DistanceField;
+import VectorRace.Posizione.FrontierSearch;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackCompiler;
+import VectorRace.Posizione.TrackImageImporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per DistanceField.
+ * Verifica le distanze attorno agli ostacoli, i traguardi multipli,
+ * le celle irraggiungibili, il riuso della tabella del formato binario
+ * e la visita parallela per livelli.
+ */
+class TestDistanceField {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDistancesAroundWalls() throws IOException {
+        Track track = TrackFixtures.fromText("..#F\n..#.\n....\n");
+        DistanceField field = DistanceField.of(track);
+
+        assertEquals(0, field.distance(3, 0), "Il traguardo  a distanza 0");
+        assertEquals(1, field.distance(3, 1));
+        assertEquals(3, field.distance(2, 2), "Si passa sotto il muro");
+        assertEquals(5, field.distance(1, 1), "I passi diagonali costano 2");
+        assertEquals(6, field.distance(1, 0), "La distanza aggira il muro invece di attraversarlo");
+        assertEquals(DistanceField.UNREACHABLE, field.distance(2, 0), "Gli ostacoli non hanno distanza");
+        assertEquals(DistanceField.UNREACHABLE, field.distance(-1, 0), "Fuori dal tracciato non c' distanza");
+    }
+
+    @Test
+    void testDiagonalGap() throws IOException {
+        // L'unico passaggio verso il traguardo  in diagonale tra due muri
+        Track track = TrackFixtures.fromText(".#F\n#..\n");
+        DistanceField field = DistanceField.of(track);
+
+        assertEquals(2, field.distance(1, 1));
+        assertEquals(4, field.distance(0, 0), "Il passaggio diagonale deve essere percorribile");
+    }
+
+    @Test
+    void testNearestOfSeveralFinishes() throws IOException {
+        Track track = TrackFixtures.fromText("F.....F\n");
+        DistanceField field = DistanceField.of(track);
+
+        assertEquals(1, field.distance(1, 0));
+        assertEquals(3, field.distance(3, 0), "Conta il traguardo pi vicino");
+        assertEquals(1, field.distance(5, 0), "Anche i traguardi oltre il primo sono considerati");
+    }
+
+    @Test
+    void testUnreachablePocket() throws IOException {
+        Track track = TrackFixtures.fromText("..#.F\n..#..\n###..\n");
+        DistanceField field = DistanceField.of(track);
+
+        assertFalse(field.isReachable(new Position(0, 0)), "Una sacca chiusa non raggiunge il traguardo");
+        assertTrue(field.isReachable(new Position(3, 2)));
+        assertEquals(DistanceField.UNREACHABLE_RANK, field.rankDistance(new Position(0, 0)),
+                "Una cella irraggiungibile deve avere il rango sentinella");
+        assertTrue(field.rankDistance(new Position(3, 2)) < DistanceField.UNREACHABLE_RANK);
+    }
+
+    @Test
+    void testFieldIsSharedAndEmbedded() throws IOException {
+        Path source = tempDir.resolve("source.txt");
+        Files.write(source, "S..#\n.#.F\n....\n".getBytes(StandardCharsets.US_ASCII));
+        Path binary = tempDir.resolve("source.vrt");
+        TrackCompiler.compile(source, binary, true);
+
+        Track text = Track.fromPath(source);
+        Track compiled = Track.fromPath(binary);
+        DistanceField computed = DistanceField.of(text);
+        DistanceField embedded = DistanceField.of(compiled);
+
+        assertSame(computed, DistanceField.of(text), "Il campo deve essere calcolato una sola volta per tracciato");
+        for (int y = 0; y < text.getHeight(); y++) {
+            for (int x = 0; x < text.getWidth(); x++) {
+                assertEquals(computed.distance(x, y), embedded.distance(x, y),
+                        "La tabella del formato binario deve coincidere in (" + x + "," + y + ")");
+            }
+        }
+    }
+
+    @Test
+    void testFrontierSearchMatchesSequential() throws IOException {
+        // 700 x 700 celle con muri casuali e qualche traguardo sparso
+        BufferedImage image = new BufferedImage(700, 700, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(11);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int r = random.nextInt(1000);
+                image.setRGB(x, y, r < 300 ? 0x000000 : r < 301 ? 0xFF0000 : 0xFFFFFF);
+            }
+        }
+        Track track = new TrackImageImporter().importImage(image);
+
+        DistanceField sequential = DistanceField.computeSequential(track);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DistanceField parallel = new FrontierSearch(pool).compute(track);
+            int reachable = 0;
+            for (int y = 0; y < track.getHeight(); y++) {
+                for (int x = 0; x < track.getWidth(); x++) {
+                    assertEquals(sequential.distance(x, y), parallel.distance(x, y),
+                            "Distanza diversa in (" + x + "," + y + ")");
+                    if (parallel.distance(x, y) > 0) {
+                        reachable++;
+                    }
+                }
+            }
+            assertTrue(reachable > 0, "La mappa deve avere celle raggiungibili");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
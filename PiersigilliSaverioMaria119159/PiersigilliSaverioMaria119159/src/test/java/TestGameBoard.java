@@ -75,6 +75,68 @@ class TestGameBoard {
         // isOccupied(0,0) == false
     }
 
+    @Test
+    void testOccupancyFollowsPlayers() {
+        IPlayer player = new FakePlayer("Mover");
+        gameBoard.addPlayer(player);
+
+        // Spostiamo il giocatore da (0,0) a (2,3)
+        gameBoard.updatePlayerPosition(player, new Position(2, 3));
+
+        assertFalse(gameBoard.isFree(new Position(2, 3)),
+                "La cella (2,3) occupata dal giocatore non dovrebbe risultare libera.");
+        assertTrue(gameBoard.isFree(new Position(0, 1)),
+                "Le celle non occupate dovrebbero restare libere.");
+    }
+
+    @Test
+    void testCoordinateChecks() {
+        IPlayer player = new FakePlayer("Mover");
+        gameBoard.addPlayer(player);
+        gameBoard.updatePlayerPosition(player, new Position(2, 3));
+
+        // Le verifiche per coordinate danno gli stessi risultati di quelle per Position
+        assertTrue(gameBoard.isFree(0, 1));
+        assertFalse(gameBoard.isFree(2, 3), "La cella occupata non dovrebbe risultare libera.");
+        assertFalse(gameBoard.isFree(-1, 0), "Fuori dal tracciato non c' spazio libero.");
+        assertTrue(gameBoard.isObstacle(1, 1));
+        assertTrue(gameBoard.isObstacle(5, 5), "Fuori dal tracciato vale come ostacolo.");
+        assertTrue(gameBoard.isFinish(2, 2));
+        assertFalse(gameBoard.isFinish(0, 1));
+
+        // Cos come quelle per coordinate codificate, usate dal motore di gioco
+        for (int y = -1; y <= 5; y++) {
+            for (int x = -1; x <= 5; x++) {
+                long packed = Position.pack(x, y);
+                assertEquals(gameBoard.isFree(x, y), gameBoard.isFree(packed), "isFree in (" + x + "," + y + ")");
+                assertEquals(gameBoard.isObstacle(x, y), gameBoard.isObstacle(packed));
+                assertEquals(gameBoard.isFinish(x, y), gameBoard.isFinish(packed));
+            }
+        }
+    }
+
+    @Test
+    void testSharedCellStaysOccupied() {
+        IPlayer p1 = new FakePlayer("P1");
+        IPlayer p2 = new FakePlayer("P2");
+        gameBoard.addPlayer(p1);
+        gameBoard.addPlayer(p2);
+
+        // Entrambi nella stessa cella, poi uno dei due se ne va
+        gameBoard.updatePlayerPosition(p1, new Position(4, 4));
+        gameBoard.updatePlayerPosition(p2, new Position(4, 4));
+        gameBoard.updatePlayerPosition(p1, new Position(0, 4));
+
+        assertFalse(gameBoard.isFree(new Position(4, 4)),
+                "La cella (4,4)  ancora occupata da P2.");
+        assertFalse(gameBoard.isFree(new Position(0, 4)),
+                "La cella (0,4)  ora occupata da P1.");
+
+        gameBoard.updatePlayerPosition(p2, new Position(4, 3));
+        assertTrue(gameBoard.isFree(new Position(4, 4)),
+                "Quando anche P2 se ne va, la cella (4,4) torna libera.");
+    }
+
     @Test
     void testDisplay() {
         // Aggiungiamo un paio di giocatori
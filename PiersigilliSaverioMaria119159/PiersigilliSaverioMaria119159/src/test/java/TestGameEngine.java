@@ -1,9 +1,17 @@
+import VectorRace.Eventi.RaceEvent;
+import VectorRace.Eventi.RaceEventType;
+import VectorRace.Eventi.RaceListener;
+import VectorRace.Fisica.DirectionMask;
 import VectorRace.Fisica.IInertiaManager;
 import VectorRace.Fisica.IVelocityCalculator;
 import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Giocatori.BotPlayer;
+import VectorRace.Giocatori.IAsyncPlayer;
 import VectorRace.Giocatori.IPlayer;
+import VectorRace.Giocatori.PlayerDecision;
 import VectorRace.Posizione.GameBoard;
 import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
 import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
@@ -11,9 +19,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class TestGameEngine {
 
@@ -101,6 +111,415 @@ class TestGameEngine {
         assertEquals(expected, result, "La posizione calcolata non  corretta.");
     }
 
+    @Test
+    void testEngineOffersDirectionMask() {
+        // Il motore passa la maschera delle direzioni: la variante con la lista non viene usata
+        List<Byte> masks = new ArrayList<>();
+        IPlayer runner = new MockPlayer("Runner") {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                throw new AssertionError("Il motore dovrebbe usare la maschera");
+            }
+
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(byte allowedDirections) {
+                masks.add(allowedDirections);
+                return VectorDirection.CardinalDirection.SE;
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return getVelocity() == 0 ? 1 : 0;
+            }
+        };
+        gameEngine.addPlayer(runner);
+        gameEngine.setHeadless(true);
+
+        RaceResult result = gameEngine.startRace();
+
+        assertSame(runner, result.getWinner(), "Il vincitore dovrebbe essere Runner.");
+        assertEquals(4, masks.size(), "Una scelta per turno.");
+        assertTrue(masks.stream().allMatch(mask -> mask == DirectionMask.ALL),
+                "Con l'inerzia del test tutte le direzioni sono ammesse.");
+    }
+
+    @Test
+    void testHeadlessRaceReturnsWinner() {
+        // Giocatore che punta al traguardo (4,4) muovendosi in diagonale a velocit 1
+        IPlayer runner = new MockPlayer("Runner") {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                return VectorDirection.CardinalDirection.SE;
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return getVelocity() == 0 ? 1 : 0;
+            }
+        };
+        gameEngine.addPlayer(runner);
+        gameEngine.setHeadless(true);
+
+        RaceResult result = gameEngine.startRace();
+
+        assertEquals(RaceResult.Outcome.FINISHED, result.getOutcome(), "La gara dovrebbe concludersi al traguardo.");
+        assertSame(runner, result.getWinner(), "Il vincitore dovrebbe essere Runner.");
+        assertEquals(4, result.getTurns(), "Da (0,0) a (4,4) servono 4 turni a velocit 1.");
+        assertTrue(result.getEliminated().isEmpty(), "Nessun giocatore dovrebbe essere eliminato.");
+
+        RaceResult.PlayerState state = result.getFinalStates().get(0);
+        assertTrue(state.isWinner(), "Lo stato finale dovrebbe segnalare la vittoria.");
+        assertEquals(new Position(4, 4), state.getPosition(), "La posizione finale dovrebbe essere il traguardo.");
+    }
+
+    @Test
+    void testHeadlessRaceStopsAtMaxTurns() {
+        IPlayer player = new MockPlayer("Player1");
+        gameEngine.addPlayer(player);
+        gameEngine.setHeadless(true);
+
+        RaceResult result = gameEngine.startRace();
+
+        assertEquals(RaceResult.Outcome.MAX_TURNS, result.getOutcome(), "Senza traguardo la gara termina per limite di turni.");
+        assertFalse(result.hasWinner(), "Non dovrebbe esserci un vincitore.");
+        assertEquals(5, result.getTurns(), "Dovrebbero essere giocati tutti i 5 turni.");
+        assertEquals(1, result.getFinalStates().size(), "Dovrebbe esserci lo stato finale dell'unico giocatore.");
+    }
+
+    @Test
+    void testListenerReceivesRaceEvents() {
+        IPlayer runner = new MockPlayer("Runner") {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                return VectorDirection.CardinalDirection.SE;
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return getVelocity() == 0 ? 1 : 0;
+            }
+        };
+        gameEngine.addPlayer(runner);
+        gameEngine.setHeadless(true);
+
+        // Registra il tipo di ogni evento ricevuto
+        List<RaceEventType> received = new ArrayList<>();
+        gameEngine.addListener(new RaceListener() {
+            @Override
+            public void onEvent(RaceEvent event) {
+                received.add(event.getType());
+            }
+        });
+
+        gameEngine.startRace();
+
+        // 4 turni, ognuno con inizio turno e mossa; poi traguardo e fine gara
+        assertEquals(10, received.size(), "Dovrebbero essere pubblicati 10 eventi.");
+        assertEquals(RaceEventType.TURN_START, received.get(0), "Il primo evento  l'inizio del turno.");
+        assertEquals(RaceEventType.MOVE, received.get(1), "Dopo l'inizio del turno arriva la mossa.");
+        assertEquals(RaceEventType.FINISH, received.get(8), "La penultima notifica  il traguardo.");
+        assertEquals(RaceEventType.RACE_END, received.get(9), "L'ultimo evento  la fine della gara.");
+    }
+
+    @Test
+    void testSimultaneousMovesApplyTogether() {
+        // Due giocatori partono da (0,0): uno va verso Est, l'altro verso Sud-Est
+        IPlayer east = new MockPlayer("East");
+        IPlayer southEast = new MockPlayer("SouthEast") {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                return VectorDirection.CardinalDirection.SE;
+            }
+        };
+        GameEngine engine = new GameEngine(mockBoard, mockVelocityCalculator, mockInertiaManager, 1);
+        engine.addPlayer(east);
+        engine.addPlayer(southEast);
+        engine.setHeadless(true);
+        engine.setSimultaneousMoves(true);
+
+        engine.startRace();
+
+        assertEquals(new Position(1, 0), east.getCurrentPosition(), "East dovrebbe trovarsi in (1,0).");
+        assertEquals(new Position(1, 1), southEast.getCurrentPosition(), "SouthEast dovrebbe trovarsi in (1,1).");
+    }
+
+    @Test
+    void testSimultaneousMovesContestedCell() {
+        // Entrambi i giocatori puntano sempre alla stessa cella: nessuno dei due deve muoversi
+        IPlayer player1 = new MockPlayer("Player1");
+        IPlayer player2 = new MockPlayer("Player2");
+        gameEngine.addPlayer(player1);
+        gameEngine.addPlayer(player2);
+        gameEngine.setHeadless(true);
+        gameEngine.setSimultaneousMoves(true);
+
+        List<RaceEventType> received = new ArrayList<>();
+        gameEngine.addListener(new RaceListener() {
+            @Override
+            public void onEvent(RaceEvent event) {
+                received.add(event.getType());
+            }
+        });
+
+        RaceResult result = gameEngine.startRace();
+
+        assertEquals(RaceResult.Outcome.MAX_TURNS, result.getOutcome(), "Nessuno dovrebbe arrivare al traguardo.");
+        assertEquals(new Position(0, 0), player1.getCurrentPosition(), "Player1 non dovrebbe muoversi.");
+        assertEquals(new Position(0, 0), player2.getCurrentPosition(), "Player2 non dovrebbe muoversi.");
+        assertEquals(2 * gameEngine.getMaxTurns(),
+                received.stream().filter(type -> type == RaceEventType.COLLISION).count(),
+                "A ogni turno entrambi i giocatori dovrebbero subire una collisione.");
+    }
+
+    @Test
+    void testDecisionTimeoutAppliesDefaultMove() {
+        // Giocatore che impiega troppo tempo a scegliere la direzione
+        IPlayer slow = new MockPlayer("Slow") {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.chooseDirection(dirs);
+            }
+        };
+        IPlayer fast = new MockPlayer("Fast");
+        gameEngine.addPlayer(slow);
+        gameEngine.addPlayer(fast);
+        gameEngine.setHeadless(true);
+        gameEngine.setDecisionTimeout(50);
+
+        long start = System.nanoTime();
+        RaceResult result = gameEngine.startRace();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1500, "La gara non deve attendere il giocatore lento.");
+        // Il giocatore lento sfora al primo turno e, ancora impegnato, non viene pi interpellato
+        assertEquals(5, result.getFinalStates().get(0).getDecisionOverruns(),
+                "Slow dovrebbe sforare il tempo limite a ogni turno.");
+        assertEquals(0, result.getFinalStates().get(1).getDecisionOverruns(),
+                "Fast non dovrebbe mai sforare il tempo limite.");
+        assertEquals(0, slow.getVelocity(), "La mossa di default non deve accelerare.");
+    }
+
+    @Test
+    void testTimeoutRemovedWhileDecisionIsPending() {
+        for (boolean simultaneous : new boolean[]{false, true}) {
+            // Il primo turno sfora il limite; dal secondo il limite viene tolto
+            // mentre il giocatore lento sta ancora elaborando la prima decisione
+            CountDownLatch firstCall = new CountDownLatch(1);
+            IPlayer slow = new MockPlayer("Slow") {
+                @Override
+                public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                    if (firstCall.getCount() > 0) {
+                        firstCall.countDown();
+                        try {
+                            Thread.sleep(2000);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return super.chooseDirection(dirs);
+                }
+            };
+            GameEngine engine = new GameEngine(new MockGameBoard(), mockVelocityCalculator, mockInertiaManager, 5);
+            engine.addPlayer(slow);
+            engine.setHeadless(true);
+            engine.setSimultaneousMoves(simultaneous);
+            engine.setDecisionTimeout(50);
+            engine.addListener(new RaceListener() {
+                @Override
+                public void onEvent(RaceEvent event) {
+                    if (event.getType() == RaceEventType.TURN_START && event.getTurn() == 2) {
+                        engine.setDecisionTimeout(0);
+                    }
+                }
+            });
+
+            long start = System.nanoTime();
+            RaceResult result = engine.startRace();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(elapsedMillis < 1500, "Senza limite non si attende la decisione di un turno precedente.");
+            assertEquals(5, result.getFinalStates().get(0).getDecisionOverruns(),
+                    "Finch la prima decisione  in corso si applica la mossa di default.");
+        }
+    }
+
+    @Test
+    void testStateIsNotWrittenDuringPendingDecision() throws InterruptedException {
+        // Giocatore lento che controlla che il proprio stato non cambi mentre decide
+        CountDownLatch decided = new CountDownLatch(1);
+        List<Position> observed = new ArrayList<>();
+        IPlayer slow = new MockPlayer("Slow") {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                Position before = getCurrentPosition();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                observed.add(before);
+                observed.add(getCurrentPosition());
+                decided.countDown();
+                return super.chooseDirection(dirs);
+            }
+        };
+        gameEngine.addPlayer(slow);
+        slow.setVelocity(1);
+        gameEngine.setHeadless(true);
+        gameEngine.setDecisionTimeout(20);
+
+        RaceResult result = gameEngine.startRace();
+        assertTrue(decided.await(5, TimeUnit.SECONDS), "La decisione lenta deve terminare.");
+
+        // La mossa di default (Est a velocit 1) sposta il giocatore mentre la decisione  in corso
+        assertEquals(new Position(5, 0), result.getFinalStates().get(0).getPosition());
+        assertEquals(observed.get(0), observed.get(1), "Lo stato non va scritto durante una decisione in corso.");
+    }
+
+    @Test
+    void testAsyncPlayerDecisionsAreAwaited() {
+        // Giocatore asincrono: la decisione arriva da un altro thread dopo un breve ritardo
+        class AsyncRunner extends MockPlayer implements IAsyncPlayer {
+            AsyncRunner() {
+                super("AsyncRunner");
+            }
+
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+                throw new AssertionError("Il motore non deve usare i metodi sincroni.");
+            }
+
+            @Override
+            public CompletableFuture<PlayerDecision> decide(Iterable<VectorDirection.CardinalDirection> dirs) {
+                int acceleration = getVelocity() == 0 ? 1 : 0;
+                return CompletableFuture.supplyAsync(
+                        () -> new PlayerDecision(VectorDirection.CardinalDirection.SE, acceleration),
+                        CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS));
+            }
+        }
+        IPlayer runner = new AsyncRunner();
+        gameEngine.addPlayer(runner);
+        gameEngine.setHeadless(true);
+
+        RaceResult result = gameEngine.startRace();
+
+        assertSame(runner, result.getWinner(), "Il giocatore asincrono dovrebbe vincere la gara.");
+        assertEquals(4, result.getTurns(), "Da (0,0) a (4,4) servono 4 turni a velocit 1.");
+    }
+
+    @Test
+    void testSameSeedReproducesRace() {
+        // Due gare con bot casuali e lo stesso seme devono concludersi nello stesso modo
+        RaceResult first = runSeededRace(42L);
+        RaceResult second = runSeededRace(42L);
+
+        assertEquals(42L, first.getSeed(), "Il risultato deve riportare il seme della gara.");
+        for (int i = 0; i < first.getFinalStates().size(); i++) {
+            RaceResult.PlayerState a = first.getFinalStates().get(i);
+            RaceResult.PlayerState b = second.getFinalStates().get(i);
+            assertEquals(a.getPosition(), b.getPosition(), "Le posizioni finali devono coincidere.");
+            assertEquals(a.getVelocity(), b.getVelocity(), "Le velocit finali devono coincidere.");
+            assertEquals(a.getDirection(), b.getDirection(), "Le direzioni finali devono coincidere.");
+        }
+    }
+
+    @Test
+    void testPlayerStateIsMirroredIntoPlayers() {
+        for (boolean simultaneous : new boolean[]{false, true}) {
+            // Cinque giocatori, uno per riga, vanno verso Est; quello della riga 1 colpisce l'ostacolo in (3,1)
+            MockGameBoard board = new MockGameBoard();
+            board.addObstacle(new Position(3, 1));
+            GameEngine engine = new GameEngine(board, mockVelocityCalculator, mockInertiaManager, 2);
+            List<IPlayer> runners = new ArrayList<>();
+            for (int row = 0; row < 5; row++) {
+                IPlayer runner = new MockPlayer("Runner" + row);
+                engine.addPlayer(runner);
+                runner.setCurrentPosition(new Position(0, row));
+                runners.add(runner);
+            }
+            engine.setHeadless(true);
+            engine.setSimultaneousMoves(simultaneous);
+
+            RaceResult result = engine.startRace();
+
+            assertEquals(List.of(runners.get(1)), result.getEliminated(), "Solo Runner1 dovrebbe essere eliminato.");
+            assertEquals(4, engine.getPlayers().size(), "Dovrebbero restare in gara quattro giocatori.");
+            Map<IPlayer, VectorDirection.CardinalDirection> directions = engine.getPreviousDirections();
+            assertEquals(4, directions.size(), "Le direzioni riguardano solo i giocatori in gara.");
+            for (int row = 0; row < 5; row++) {
+                IPlayer runner = runners.get(row);
+                RaceResult.PlayerState state = result.getFinalStates().get(row);
+                Position expected = row == 1 ? new Position(1, 1) : new Position(3, row);
+                assertEquals(expected, state.getPosition(), "Posizione finale errata per Runner" + row);
+                assertEquals(expected, runner.getCurrentPosition(), "La posizione va ricopiata nel giocatore.");
+                assertEquals(2, state.getVelocity(), "Velocit finale errata per Runner" + row);
+                assertEquals(2, runner.getVelocity(), "La velocit va ricopiata nel giocatore.");
+                assertEquals(row == 1 ? null : VectorDirection.CardinalDirection.E, state.getDirection(),
+                        "Direzione finale errata per Runner" + row);
+                assertEquals(state.getDirection(), directions.get(runner));
+            }
+        }
+    }
+
+    @Test
+    void testOnlyChangedStateIsWrittenIntoPlayers() {
+        // Un giocatore a velocit costante: la velocit non va ricopiata, la posizione s
+        class Cruiser extends MockPlayer {
+            int velocityWrites;
+            int positionWrites;
+
+            Cruiser() {
+                super("Cruiser");
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return 0;
+            }
+
+            @Override
+            public void setVelocity(int velocity) {
+                velocityWrites++;
+                super.setVelocity(velocity);
+            }
+
+            @Override
+            public void setCurrentPosition(Position position) {
+                positionWrites++;
+                super.setCurrentPosition(position);
+            }
+        }
+        Cruiser cruiser = new Cruiser();
+        gameEngine.addPlayer(cruiser);
+        cruiser.setVelocity(1);
+        cruiser.velocityWrites = 0;
+        cruiser.positionWrites = 0;
+        gameEngine.setHeadless(true);
+
+        gameEngine.startRace();
+
+        assertEquals(0, cruiser.velocityWrites, "La velocit non  cambiata e non va riscritta.");
+        assertTrue(cruiser.positionWrites > 0, "La posizione cambia a ogni mossa e va ricopiata.");
+        assertEquals(new Position(5, 0), cruiser.getCurrentPosition(), "Cinque turni a velocit 1 verso Est.");
+        List<IPlayer> players = gameEngine.getPlayers();
+        assertSame(players, gameEngine.getPlayers(), "Senza iscrizioni o eliminazioni la vista non va ricostruita.");
+        assertEquals(List.of(cruiser), players);
+    }
+
+    private RaceResult runSeededRace(long seed) {
+        GameEngine engine = new GameEngine(new MockGameBoard(), mockVelocityCalculator, mockInertiaManager, 5);
+        engine.addPlayer(new BotPlayer("Random1", new Position(0, 0)));
+        engine.addPlayer(new BotPlayer("Random2", new Position(0, 0)));
+        engine.setHeadless(true);
+        engine.setSeed(seed);
+        return engine.startRace();
+    }
+
     // Mock classes for testing
     private static class MockGameBoard extends GameBoard {
         private int playerCount = 0;
@@ -115,8 +534,13 @@ class TestGameEngine {
         }
 
         @Override
-        public boolean isObstacle(Position pos) {
-            return obstacles.contains(pos);
+        public boolean isObstacle(int x, int y) {
+            return obstacles.contains(new Position(x, y));
+        }
+
+        @Override
+        public boolean isFree(int x, int y) {
+            return !obstacles.contains(new Position(x, y)) && super.isFree(x, y);
         }
 
         @Override
@@ -162,6 +586,17 @@ class TestGameEngine {
             return position.equals(new Position(4, 4));
         }
 
+        // Anche le varianti con le coordinate (usate dal motore) considerano libero l'esterno
+        @Override
+        public boolean isFree(int x, int y) {
+            return true;
+        }
+
+        @Override
+        public boolean isObstacle(int x, int y) {
+            return false;
+        }
+
         @Override
         public Position getStartPosition() {
             return new Position(0, 0);
@@ -63,5 +63,30 @@ class TestPosition {
         // Un oggetto deve essere uguale a se stesso
         assertEquals(p, p, "Un oggetto deve essere uguale a se stesso");
     }
-}
 
+    @Test
+    void testPackRoundTrip() {
+        int[][] coordinates = {{0, 0}, {3, 4}, {-1, 7}, {5, -2}, {Integer.MAX_VALUE, Integer.MIN_VALUE}};
+        for (int[] c : coordinates) {
+            long packed = Position.pack(c[0], c[1]);
+            assertEquals(c[0], Position.unpackX(packed));
+            assertEquals(c[1], Position.unpackY(packed));
+            assertEquals(packed, new Position(c[0], c[1]).pack());
+        }
+        assertNotEquals(Position.pack(1, 2), Position.pack(2, 1));
+    }
+
+    @Test
+    void testPackedOffset() {
+        // Lo spostamento attraversa lo zero su entrambi gli assi senza interferenze tra x e y
+        assertEquals(Position.pack(-2, 1), Position.offset(Position.pack(1, -2), -3, 3));
+        assertEquals(Position.pack(4, 0), Position.offset(Position.pack(1, 3), 3, -3));
+    }
+
+    @Test
+    void testHashCodeConsistentWithEquals() {
+        // Posizioni uguali devono avere lo stesso hash
+        assertEquals(new Position(7, 9).hashCode(), new Position(7, 9).hashCode());
+        assertNotEquals(new Position(1, 2).hashCode(), new Position(2, 1).hashCode());
+    }
+}
@@ -0,0 +1,40 @@
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.PositionCache;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.VectorDirection;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per PositionCache.
+ * Verifica la condivisione e l'immutabilit delle posizioni delle celle.
+ */
+class TestPositionCache {
+
+    @Test
+    void testSharedImmutablePositions() throws IOException {
+        Track track = Track.fromResource("test_map.txt");
+        PositionCache cache = PositionCache.of(track);
+
+        Position position = cache.get(1, 2);
+        assertEquals(new Position(1, 2), position);
+        assertSame(position, cache.get(1, 2), "La stessa cella deve restituire la stessa istanza");
+        assertSame(position, cache.get(Position.pack(1, 2)));
+        assertSame(position, cache.offset(cache.get(0, 1), VectorDirection.CardinalDirection.SE, 1));
+        assertSame(cache, PositionCache.of(track), "La cache deve essere condivisa per tracciato");
+        assertThrows(UnsupportedOperationException.class, () -> position.setX(0),
+                "Le posizioni condivise non devono essere modificabili");
+    }
+
+    @Test
+    void testOutsideTrack() throws IOException {
+        PositionCache cache = PositionCache.of(Track.fromResource("test_map.txt"));
+
+        Position outside = cache.get(-1, 5);
+        assertEquals(new Position(-1, 5), outside, "Anche fuori dal tracciato si ottiene la posizione corretta");
+        assertThrows(UnsupportedOperationException.class, () -> outside.setY(0));
+    }
+}
@@ -0,0 +1,113 @@
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.VectorDirection;
+import VectorRace.Visualizzazione.TerminalRenderer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per TerminalRenderer.
+ * Verifica che il primo frame disegni l'intero tracciato e che i successivi
+ * aggiornino soltanto le celle cambiate.
+ */
+class TestTerminalRenderer {
+
+    private static final String CSI = "\u001B[";
+
+    private ByteArrayOutputStream output;
+    private TerminalRenderer renderer;
+    private IPlayer player;
+    private List<IPlayer> players;
+    private Map<IPlayer, VectorDirection.CardinalDirection> previousDirections;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // test_map.txt:
+        //  .#S
+        //  F..
+        //  ..#
+        Track track = new Track();
+        track.loadFromFile("test_map.txt");
+
+        output = new ByteArrayOutputStream();
+        renderer = new TerminalRenderer(track, new PrintStream(output, true, StandardCharsets.UTF_8));
+        player = new FakePlayer("Alice", new Position(0, 0));
+        players = List.of(player);
+        previousDirections = new HashMap<>();
+    }
+
+    /**
+     * Disegna un frame e restituisce solo ci che  stato scritto per quel frame.
+     */
+    private String renderFrame() {
+        output.reset();
+        renderer.render(players, previousDirections);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testFirstFrameDrawsWholeTrack() {
+        String frame = renderFrame();
+
+        assertTrue(frame.startsWith(CSI + "2J"), "Il primo frame deve pulire lo schermo.");
+        assertTrue(frame.contains("A#S\nF..\n..#\n"),
+                "Il primo frame deve contenere tracciato, partenza, traguardo e giocatore.");
+        assertTrue(frame.contains("Alice - Velocit: 0, Posizione: (0, 0), Direzione: N/D"),
+                "Lo stato del giocatore deve essere stampato.");
+    }
+
+    @Test
+    void testNextFrameUpdatesOnlyChangedCells() {
+        renderFrame();
+        player.setCurrentPosition(new Position(1, 2));
+
+        String frame = renderFrame();
+
+        assertFalse(frame.contains(CSI + "2J"), "I frame successivi non devono ridisegnare tutto.");
+        assertFalse(frame.contains("F.."), "Le righe del tracciato non devono essere ristampate.");
+        assertTrue(frame.startsWith(CSI + "1;1H." + CSI + "3;2HA"),
+                "Devono essere aggiornate solo la cella lasciata e quella raggiunta.");
+    }
+
+    @Test
+    void testUnchangedFrameWritesOnlyStatus() {
+        renderFrame();
+
+        String frame = renderFrame();
+
+        // Il tracciato  alto 3 righe: lo stato parte dalla quinta riga dello schermo.
+        assertTrue(frame.startsWith(CSI + "5;1H"),
+                "Se nessuno si muove, deve essere aggiornata solo l'area di stato.");
+    }
+
+    /**
+     * Giocatore di prova che non prende decisioni.
+     */
+    private static class FakePlayer extends BasePlayer {
+        public FakePlayer(String name, Position start) {
+            super(name, start);
+        }
+
+        @Override
+        public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> dirs) {
+            return null;
+        }
+
+        @Override
+        public int chooseAcceleration() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import VectorRace.Giocatori.GreedyBot;
+import VectorRace.Giocatori.SafeRunnerBot;
+import VectorRace.Torneo.BotStats;
+import VectorRace.Torneo.Tournament;
+import VectorRace.Torneo.TournamentResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per Tournament.
+ * Verifica che tutte le gare vengano disputate e che le statistiche siano coerenti.
+ */
+class TestTournament {
+
+    private Tournament createTournament(int races) {
+        Tournament tournament = new Tournament(List.of("track.txt"), races, 20);
+        tournament.addBot("g", (name, track, players) -> new GreedyBot(name, track.getStartPosition(), track));
+        tournament.addBot("s", (name, track, players) -> new SafeRunnerBot(name, track.getStartPosition(), track, players));
+        return tournament;
+    }
+
+    @Test
+    void testAllRacesAreAggregated() throws IOException {
+        Tournament tournament = createTournament(50);
+        tournament.setParallelism(4);
+
+        TournamentResult result = tournament.run();
+
+        assertEquals(50, result.getRaces(), "Dovrebbero essere disputate tutte le 50 gare.");
+
+        int totalWins = 0;
+        for (BotStats stats : result.getAllStats()) {
+            assertEquals(50, stats.getRaces(), "Ogni bot partecipa a tutte le gare.");
+            assertTrue(stats.getWinRate() >= 0 && stats.getWinRate() <= 1, "Il tasso di vittoria deve essere tra 0 e 1.");
+            assertTrue(stats.getAverageTurns() > 0, "Ogni gara dura almeno un turno.");
+            totalWins += stats.getWins();
+        }
+        assertEquals(result.getRaces() - result.getRacesWithoutWinner(), totalWins,
+                "Ogni gara con vincitore deve contare una sola vittoria.");
+    }
+
+    @Test
+    void testSingleThreadRun() throws IOException {
+        Tournament tournament = createTournament(10);
+        tournament.setParallelism(1);
+
+        TournamentResult result = tournament.run();
+
+        assertEquals(10, result.getRaces(), "Anche con un solo thread vanno disputate tutte le gare.");
+        assertNotNull(result.getStats("g"), "Le statistiche del bot 'g' devono essere presenti.");
+    }
+
+    @Test
+    void testSameSeedIsReproducible() throws IOException {
+        // Stesso seme, numero di thread diverso: le statistiche devono coincidere
+        Tournament sequential = createTournament(40);
+        sequential.setSeed(1234L);
+        sequential.setParallelism(1);
+        Tournament parallel = createTournament(40);
+        parallel.setSeed(1234L);
+        parallel.setParallelism(4);
+
+        TournamentResult first = sequential.run();
+        TournamentResult second = parallel.run();
+
+        assertEquals(first.getAverageTurns(), second.getAverageTurns(), "La durata media deve coincidere.");
+        for (BotStats stats : first.getAllStats()) {
+            BotStats other = second.getStats(stats.getName());
+            assertEquals(stats.getWins(), other.getWins(), "Le vittorie di " + stats.getName() + " devono coincidere.");
+            assertEquals(stats.getCrashes(), other.getCrashes(), "Le eliminazioni di " + stats.getName() + " devono coincidere.");
+        }
+    }
+
+    @Test
+    void testDuplicateBotName() {
+        Tournament tournament = createTournament(1);
+        assertThrows(IllegalArgumentException.class,
+                () -> tournament.addBot("g", (name, track, players) -> null),
+                "Non si pu iscrivere due volte lo stesso nome.");
+    }
+
+    @Test
+    void testMissingTrack() {
+        Tournament tournament = new Tournament(List.of("non_existent_file.txt"), 1, 20);
+        tournament.addBot("g", (name, track, players) -> new GreedyBot(name, track.getStartPosition(), track));
+        assertThrows(IOException.class, tournament::run, "Un tracciato inesistente deve generare IOException.");
+    }
+}
@@ -1,10 +1,23 @@
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ChunkedTrack;
+import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackCompiler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,6 +99,146 @@ class TestTrack {
                 "Fuori dai limiti, non dovrebbe risultare libero");
     }
 
+    @Test
+    void testCellTypes() throws IOException {
+        track.loadFromFile("test_map.txt");
+
+        // .#S / F.. / ..#
+        assertEquals(CellType.FREE, track.getCellType(0, 0), "(0,0) dovrebbe essere una cella libera");
+        assertEquals(CellType.OBSTACLE, track.getCellType(1, 0), "(1,0) dovrebbe essere un ostacolo");
+        assertEquals(CellType.START, track.getCellType(2, 0), "(2,0) dovrebbe essere una partenza");
+        assertEquals(CellType.FINISH, track.getCellType(0, 1), "(0,1) dovrebbe essere un traguardo");
+        assertEquals(CellType.OBSTACLE, track.getCellType(-1, 0), "Fuori dai limiti la cella  un ostacolo");
+
+        // Partenza e traguardo restano percorribili
+        assertTrue(track.isFree(new Position(2, 0)), "La partenza dovrebbe essere libera");
+        assertEquals('.', track.getCell(new Position(0, 1)), "Il traguardo dovrebbe valere '.'");
+        assertFalse(track.isFinish(new Position(2, 0)), "La partenza non  un traguardo");
+    }
+
+    @Test
+    void testLoadFromPath(@TempDir Path tempDir) throws IOException {
+        // File su disco con terminatori di riga Windows e una riga pi corta delle altre
+        Path file = tempDir.resolve("crlf_map.txt");
+        Files.write(file, ".#S\r\nF.\r\n..#\r\n".getBytes(StandardCharsets.US_ASCII));
+
+        track.loadFromPath(file);
+
+        assertEquals(3, track.getWidth(), "La larghezza dovrebbe essere quella della riga pi lunga");
+        assertEquals(3, track.getHeight(), "I terminatori CRLF non devono generare righe vuote");
+        assertEquals(new Position(2, 0), track.getStartPosition(), "La partenza dovrebbe essere (2,0)");
+        assertTrue(track.isFinish(new Position(0, 1)), "(0,1) dovrebbe essere un traguardo");
+        assertTrue(track.isFree(new Position(2, 1)), "Le celle oltre la fine della riga sono libere");
+        assertTrue(track.isObstacle(new Position(2, 2)), "(2,2) dovrebbe essere un ostacolo");
+    }
+
+    @Test
+    void testLargeTrackParsedInParallel(@TempDir Path tempDir) throws IOException {
+        // Circa 1,5 MB con righe di lunghezza variabile e terminatori misti:
+        // abbastanza grande da essere diviso in pi intervalli di righe
+        Random random = new Random(42);
+        StringBuilder map = new StringBuilder();
+        for (int y = 0; y < 1500; y++) {
+            int length = 900 + random.nextInt(100);
+            for (int x = 0; x < length; x++) {
+                int r = random.nextInt(100);
+                map.append(r < 20 ? '#' : r == 20 ? 'S' : r == 21 ? 'F' : '.');
+            }
+            map.append(y % 2 == 0 ? "\r\n" : "\n");
+        }
+        Path file = tempDir.resolve("large_map.txt");
+        Files.write(file, map.toString().getBytes(StandardCharsets.US_ASCII));
+
+        track.loadFromPath(file);
+        // ChunkedTrack interpreta lo stesso file in sequenza
+        ChunkedTrack sequential = new ChunkedTrack();
+        sequential.loadFromPath(file);
+
+        assertEquals(sequential.getWidth(), track.getWidth());
+        assertEquals(1500, track.getHeight());
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                assertEquals(sequential.getCellType(x, y), track.getCellType(x, y),
+                        "Cella diversa in (" + x + "," + y + ")");
+            }
+        }
+        assertEquals(sequential.getAllStartPositions(), track.getAllStartPositions(),
+                "Le partenze devono essere nello stesso ordine della lettura sequenziale");
+        assertEquals(sequential.getAllFinishPositions(), track.getAllFinishPositions());
+    }
+
+    @Test
+    void testLoadCompressed(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("map.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(".#S\nF..\n..#\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        track.loadFromPath(file);
+        Track fromStream = new Track();
+        try (InputStream in = Files.newInputStream(file)) {
+            fromStream.loadFromStream(in);
+        }
+
+        for (Track loaded : List.of(track, fromStream)) {
+            assertEquals(3, loaded.getWidth());
+            assertEquals(3, loaded.getHeight());
+            assertEquals(new Position(2, 0), loaded.getStartPosition());
+            assertTrue(loaded.isFinish(new Position(0, 1)));
+        }
+    }
+
+    @Test
+    void testLargeCompressedTrackIsStreamed(@TempDir Path tempDir) throws IOException {
+        // Circa 1,5 MB con terminatori misti: il contenuto decompresso viene letto a blocchi,
+        // quindi righe e sequenze "\r\n" cadono a cavallo tra un blocco e il successivo
+        Random random = new Random(7);
+        StringBuilder map = new StringBuilder();
+        for (int y = 0; y < 1500; y++) {
+            int length = 900 + random.nextInt(100);
+            for (int x = 0; x < length; x++) {
+                int r = random.nextInt(100);
+                map.append(r < 20 ? '#' : r == 20 ? 'S' : r == 21 ? 'F' : '.');
+            }
+            map.append(y % 3 == 0 ? "\r\n" : y % 3 == 1 ? "\n" : "\r");
+        }
+        Path plain = tempDir.resolve("large_map.txt");
+        Files.write(plain, map.toString().getBytes(StandardCharsets.US_ASCII));
+        Path binary = tempDir.resolve("large_map.vrt");
+        TrackCompiler.compile(plain, binary, false);
+
+        Track expected = Track.fromPath(plain);
+        List<ITrack> loaded = new ArrayList<>();
+        for (Path source : List.of(plain, binary)) {
+            Path compressed = tempDir.resolve(source.getFileName() + ".gz");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+                Files.copy(source, out);
+            }
+            loaded.add(Track.fromPath(compressed));
+            ChunkedTrack chunked = new ChunkedTrack();
+            chunked.loadFromPath(compressed);
+            loaded.add(chunked);
+        }
+
+        for (ITrack other : loaded) {
+            assertEquals(expected.getWidth(), other.getWidth());
+            assertEquals(expected.getHeight(), other.getHeight());
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = 0; x < expected.getWidth(); x++) {
+                    assertEquals(expected.getCellType(x, y), other.getCellType(x, y),
+                            "Cella diversa in (" + x + "," + y + ")");
+                }
+            }
+            assertEquals(expected.getStartPosition(), other.getStartPosition());
+        }
+    }
+
+    @Test
+    void testLoadFromPathNotFound(@TempDir Path tempDir) {
+        assertThrows(IOException.class, () -> track.loadFromPath(tempDir.resolve("missing.txt")),
+                "Un file inesistente dovrebbe generare IOException");
+    }
+
     @Test
     void testMultipleStartFinishPositions() throws IOException {
         // Se vuoi testare che la classe gestisce pi start e finish,
@@ -103,5 +256,22 @@ class TestTrack {
         List<Position> finishes = track.getAllFinishPositions();
         assertTrue(finishes.size() > 1, "Ci aspettiamo pi di una posizione di finish");
     }
-}
 
+    @Test
+    void testLoadedTrackIsImmutable() throws IOException {
+        Track loaded = Track.fromResource("multi_sf_map.txt");
+
+        List<Position> starts = loaded.getAllStartPositions();
+        assertThrows(UnsupportedOperationException.class, () -> starts.add(new Position(0, 0)),
+                "La lista delle partenze non deve essere modificabile");
+        assertThrows(UnsupportedOperationException.class, () -> starts.get(0).setX(5),
+                "Le posizioni di partenza non devono essere modificabili");
+        assertThrows(UnsupportedOperationException.class,
+                () -> loaded.getAllFinishPositions().clear(),
+                "La lista dei traguardi non deve essere modificabile");
+        assertThrows(IllegalStateException.class, () -> loaded.loadFromFile("test_map.txt"),
+                "Un tracciato gi caricato non pu essere ricaricato");
+        assertTrue(loaded.getAllStartPositions().size() > 1,
+                "Il contenuto del tracciato deve restare invariato");
+    }
+}
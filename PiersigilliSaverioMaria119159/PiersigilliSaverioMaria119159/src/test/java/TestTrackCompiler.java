@@ -0,0 +1,106 @@
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per TrackCompiler.
+ * Verifica che un tracciato compilato nel formato binario venga ricaricato identico.
+ */
+class TestTrackCompiler {
+
+    private Path resource(String name) throws URISyntaxException {
+        return Paths.get(getClass().getClassLoader().getResource(name).toURI());
+    }
+
+    @Test
+    void testBinaryRoundTrip(@TempDir Path tempDir) throws IOException, URISyntaxException {
+        Path source = resource("multi_sf_map.txt");
+        Path binary = tempDir.resolve("multi_sf_map.vrt");
+
+        TrackCompiler.compile(source, binary, true);
+
+        Track text = new Track();
+        text.loadFromPath(source);
+        Track compiled = new Track();
+        compiled.loadFromPath(binary);
+
+        assertEquals(text.getWidth(), compiled.getWidth(), "La larghezza deve coincidere.");
+        assertEquals(text.getHeight(), compiled.getHeight(), "L'altezza deve coincidere.");
+        assertEquals(text.getAllStartPositions(), compiled.getAllStartPositions(), "Le partenze devono coincidere.");
+        assertEquals(text.getAllFinishPositions(), compiled.getAllFinishPositions(), "I traguardi devono coincidere.");
+        for (int y = 0; y < text.getHeight(); y++) {
+            for (int x = 0; x < text.getWidth(); x++) {
+                assertEquals(text.getCellType(x, y), compiled.getCellType(x, y),
+                        "La cella (" + x + "," + y + ") deve coincidere.");
+            }
+        }
+    }
+
+    @Test
+    void testTruncatedBinaryIsRejected(@TempDir Path tempDir) throws IOException, URISyntaxException {
+        Path binary = tempDir.resolve("test_map.vrt");
+        TrackCompiler.compile(resource("test_map.txt"), binary, false);
+
+        // Tronchiamo il file a met delle celle
+        byte[] content = Files.readAllBytes(binary);
+        Files.write(binary, Arrays.copyOf(content, content.length - 8));
+
+        Track track = new Track();
+        assertThrows(IOException.class, () -> track.loadFromPath(binary),
+                "Un tracciato binario troncato deve generare IOException.");
+    }
+
+    @Test
+    void testCorruptHeaderIsRejected(@TempDir Path tempDir) throws IOException, URISyntaxException {
+        Path binary = tempDir.resolve("test_map.vrt");
+        TrackCompiler.compile(resource("test_map.txt"), binary, false);
+        byte[] original = Files.readAllBytes(binary);
+
+        // Posizioni nel file di test_map (3x3, una partenza e un traguardo):
+        // 12 altezza, 20 indice della partenza, 32 prima cella
+        int[][] corruptions = {
+                {12, Integer.MAX_VALUE},   // dimensioni oltre la capacit di un array
+                {12, 1000},                // celle dichiarate oltre la lunghezza del file
+                {12, -3},                  // altezza negativa
+                {20, 99},                  // partenza fuori dal tracciato
+        };
+        for (int[] corruption : corruptions) {
+            byte[] content = original.clone();
+            ByteBuffer.wrap(content).putInt(corruption[0], corruption[1]);
+            Files.write(binary, content);
+            assertThrows(IOException.class, () -> new Track().loadFromPath(binary),
+                    "Il valore " + corruption[1] + " in posizione " + corruption[0] + " deve essere rifiutato.");
+        }
+
+        byte[] content = original.clone();
+        content[32] = 7;
+        Files.write(binary, content);
+        IOException e = assertThrows(IOException.class, () -> new Track().loadFromPath(binary));
+        assertTrue(e.getMessage().contains("(0,0)"), "Il messaggio indica la cella non valida.");
+    }
+
+    @Test
+    void testCompiledTrackStillWorks(@TempDir Path tempDir) throws IOException, URISyntaxException {
+        Path binary = tempDir.resolve("test_map.vrt");
+        TrackCompiler.compile(resource("test_map.txt"), binary, true);
+
+        Track track = new Track();
+        track.loadFromPath(binary);
+
+        assertEquals(new Position(2, 0), track.getStartPosition(), "La partenza dovrebbe essere (2,0).");
+        assertTrue(track.isFinish(new Position(0, 1)), "(0,1) dovrebbe essere un traguardo.");
+        assertTrue(track.isObstacle(new Position(1, 0)), "(1,0) dovrebbe essere un ostacolo.");
+    }
+}
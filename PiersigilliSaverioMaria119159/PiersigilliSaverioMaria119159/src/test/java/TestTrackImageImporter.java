@@ -0,0 +1,115 @@
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackImageImporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per TrackImageImporter.
+ * Verifica la conversione dei colori in celle, la tabella configurabile
+ * e l'importazione parallela delle immagini grandi.
+ */
+class TestTrackImageImporter {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testImportPng() throws IOException {
+        // Stessa mappa di test_map.txt: .#S / F.. / ..#
+        BufferedImage image = new BufferedImage(3, 3, BufferedImage.TYPE_INT_RGB);
+        fill(image, 0xFFFFFF);
+        image.setRGB(1, 0, 0x000000);
+        image.setRGB(2, 0, 0x00FF00);
+        image.setRGB(0, 1, 0xFF0000);
+        image.setRGB(2, 2, 0x000000);
+        Path file = tempDir.resolve("map.png");
+        ImageIO.write(image, "png", file.toFile());
+
+        Track track = new TrackImageImporter().importImage(file);
+        Track text = Track.fromResource("test_map.txt");
+
+        assertEquals(3, track.getWidth());
+        assertEquals(3, track.getHeight());
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                assertEquals(text.getCellType(x, y), track.getCellType(x, y),
+                        "Cella diversa in (" + x + "," + y + ")");
+            }
+        }
+        assertEquals(new Position(2, 0), track.getStartPosition());
+        assertEquals(new Position(0, 1), track.getFinishPosition());
+    }
+
+    @Test
+    void testCustomColorMapping() throws IOException {
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0x808080);
+        image.setRGB(1, 0, 0x0000FF);
+        TrackImageImporter importer = new TrackImageImporter();
+        importer.setDefaultCell(CellType.OBSTACLE);
+        importer.setColor(0x0000FF, CellType.FINISH);
+
+        Track track = importer.importImage(image);
+
+        assertEquals(CellType.OBSTACLE, track.getCellType(0, 0), "I colori sconosciuti usano la cella di default");
+        assertEquals(CellType.FINISH, track.getCellType(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> importer.setColor(0, (byte) 9));
+    }
+
+    @Test
+    void testLargeImageMatchesPixels() throws IOException {
+        // 1200 x 1000 pixel: oltre la soglia dell'importazione parallela
+        BufferedImage image = new BufferedImage(1200, 1000, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        int[] palette = {0xFFFFFF, 0x000000, 0x00FF00, 0xFF0000};
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int r = random.nextInt(100);
+                image.setRGB(x, y, palette[r < 70 ? 0 : r < 97 ? 1 : r < 98 ? 2 : 3]);
+            }
+        }
+
+        Track track = new TrackImageImporter().importImage(image);
+
+        int starts = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y) & 0xFFFFFF;
+                byte expected = rgb == 0x000000 ? CellType.OBSTACLE
+                        : rgb == 0x00FF00 ? CellType.START
+                        : rgb == 0xFF0000 ? CellType.FINISH : CellType.FREE;
+                assertEquals(expected, track.getCellType(x, y), "Cella diversa in (" + x + "," + y + ")");
+                if (expected == CellType.START) {
+                    assertEquals(new Position(x, y), track.getAllStartPositions().get(starts++),
+                            "Le partenze devono essere nell'ordine delle righe");
+                }
+            }
+        }
+        assertEquals(starts, track.getAllStartPositions().size());
+    }
+
+    @Test
+    void testUnsupportedImage() {
+        assertThrows(IOException.class, () -> new TrackImageImporter()
+                .importImage(new ByteArrayInputStream(new byte[]{'.', '#', 'S'})));
+    }
+
+    private static void fill(BufferedImage image, int rgb) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+    }
+}
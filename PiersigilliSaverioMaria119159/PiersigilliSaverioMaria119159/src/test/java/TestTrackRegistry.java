@@ -0,0 +1,114 @@
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per TrackRegistry.
+ * Verifica la condivisione dei tracciati, il riconoscimento dei file modificati
+ * e la conservazione dei dati derivati.
+ */
+class TestTrackRegistry {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testResourceIsLoadedOnce() throws IOException {
+        TrackRegistry registry = new TrackRegistry(4);
+
+        Track first = registry.getResource("test_map.txt");
+        Track second = registry.getResource("test_map.txt");
+
+        assertSame(first, second, "La stessa risorsa deve restituire lo stesso tracciato");
+        assertEquals(1, registry.getMisses(), "Il tracciato deve essere interpretato una sola volta");
+        assertEquals(1, registry.getHits(), "La seconda richiesta deve essere servita dal registro");
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void testSameContentIsShared() throws IOException {
+        Path a = tempDir.resolve("a.txt");
+        Path b = tempDir.resolve("b.txt");
+        Files.write(a, "S.F\n...\n".getBytes(StandardCharsets.US_ASCII));
+        Files.write(b, "S.F\n...\n".getBytes(StandardCharsets.US_ASCII));
+        TrackRegistry registry = new TrackRegistry(4);
+
+        assertSame(registry.getPath(a), registry.getPath(b),
+                "File diversi con lo stesso contenuto devono condividere il tracciato");
+        assertEquals(1, registry.getMisses());
+    }
+
+    @Test
+    void testModifiedFileIsReloaded() throws IOException {
+        Path file = tempDir.resolve("track.txt");
+        Files.write(file, "S.F\n".getBytes(StandardCharsets.US_ASCII));
+        TrackRegistry registry = new TrackRegistry(4);
+        Track before = registry.getPath(file);
+
+        Files.write(file, "S..F\n".getBytes(StandardCharsets.US_ASCII));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        Track after = registry.getPath(file);
+
+        assertNotSame(before, after, "Un file modificato deve essere ricaricato");
+        assertEquals(3, before.getWidth(), "Il tracciato gi distribuito non deve cambiare");
+        assertEquals(4, after.getWidth());
+    }
+
+    @Test
+    void testDerivedDataIsComputedOnce() throws IOException {
+        TrackRegistry registry = new TrackRegistry(4);
+        AtomicInteger computations = new AtomicInteger();
+        Track.DerivedKey<Integer> key = new Track.DerivedKey<>("contatore", Integer.class);
+
+        Integer first = registry.getResource("test_map.txt")
+                .getDerived(key, track -> computations.incrementAndGet());
+        Integer second = registry.getResource("test_map.txt")
+                .getDerived(key, track -> computations.incrementAndGet());
+
+        assertEquals(first, second);
+        assertEquals(1, computations.get(), "Il dato derivato deve essere calcolato una sola volta");
+
+        // Una seconda chiave dello stesso tipo ha un valore indipendente
+        Track.DerivedKey<Integer> other = new Track.DerivedKey<>("altro", Integer.class);
+        assertEquals(42, registry.getResource("test_map.txt").getDerived(other, track -> 42));
+        assertEquals(first, registry.getResource("test_map.txt").getDerived(key, track -> -1));
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneLoad() throws Exception {
+        Path file = tempDir.resolve("shared.txt");
+        Files.write(file, "S..F\n....\n".getBytes(StandardCharsets.US_ASCII));
+        TrackRegistry registry = new TrackRegistry(4);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Track>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(pool.submit(() -> registry.getPath(file)));
+            }
+            Track first = results.get(0).get();
+            for (Future<Track> result : results) {
+                assertSame(first, result.get(), "Tutte le richieste devono ricevere lo stesso tracciato");
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, registry.getMisses(), "Il tracciato deve essere interpretato una sola volta");
+        assertEquals(31, registry.getHits());
+    }
+}
@@ -0,0 +1,95 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.TransitionGraph;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.VectorDirection.CardinalDirection;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe di test per TransitionGraph.
+ * Verifica gli esiti delle mosse e il confronto con le regole di inerzia e di movimento.
+ */
+class TestTransitionGraph {
+
+    @Test
+    void testOutcomes() throws IOException {
+        Track track = TrackFixtures.fromText("S.#F\n....\n");
+        TransitionGraph graph = TransitionGraph.of(track);
+
+        int start = graph.stateId(0, 0, 0, null);
+        int east = graph.findEdge(start, CardinalDirection.E, 1);
+        assertEquals(TransitionGraph.FREE, graph.getOutcome(east));
+        assertEquals(graph.stateId(1, 0, 1, CardinalDirection.E), graph.getTarget(east));
+        assertEquals(TransitionGraph.OUT_OF_BOUNDS, graph.getOutcome(graph.findEdge(start, CardinalDirection.N, 1)));
+
+        int moving = graph.getTarget(east);
+        assertEquals(1, graph.getX(moving));
+        assertEquals(0, graph.getY(moving));
+        assertEquals(1, graph.getVelocity(moving));
+        assertEquals(CardinalDirection.E, graph.getHeading(moving));
+        assertEquals(TransitionGraph.CRASH, graph.getOutcome(graph.findEdge(moving, CardinalDirection.E, 0)));
+        int finish = graph.findEdge(moving, CardinalDirection.E, 1);
+        assertEquals(TransitionGraph.FINISH, graph.getOutcome(finish), "Con velocit 2 si salta l'ostacolo");
+        assertEquals(graph.stateId(3, 0, 2, CardinalDirection.E), graph.getTarget(finish));
+
+        int fast = graph.stateId(0, 1, 3, CardinalDirection.E);
+        assertEquals(-1, graph.findEdge(fast, CardinalDirection.W, 0), "A velocit 3 non si pu invertire la direzione");
+        assertEquals(TransitionGraph.NO_STATE, graph.stateId(2, 0, 1, CardinalDirection.E),
+                "Le celle con ostacoli non hanno stati");
+        assertEquals(7 * 4 * 8, graph.getStateCount(), "Solo le 7 celle percorribili hanno stati");
+        assertEquals(graph.stateId(0, 0, 0, TransitionGraph.INITIAL_HEADING), start,
+                "Chi non si  ancora mosso ha la direzione iniziale del motore");
+        assertEquals(TransitionGraph.INITIAL_HEADING, graph.getHeading(start));
+        assertSame(graph, TransitionGraph.of(track), "Il grafo deve essere compilato una sola volta per tracciato");
+    }
+
+    @Test
+    void testMatchesMovementRules() throws IOException {
+        Track track = TrackFixtures.fromText("S...#...\n..#.....\n.....#.F\n#.......\n");
+        TransitionGraph graph = TransitionGraph.of(track);
+        DefaultInertiaManager inertia = new DefaultInertiaManager();
+
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                if (track.isObstacle(new Position(x, y))) {
+                    continue;
+                }
+                for (int velocity = 0; velocity <= TransitionGraph.MAX_VELOCITY; velocity++) {
+                    for (CardinalDirection heading : CardinalDirection.values()) {
+                        int state = graph.stateId(x, y, velocity, heading);
+                        List<CardinalDirection> allowed = inertia.allowedDirections(velocity, heading);
+                        assertEquals(allowed.size() * 3, graph.getEndEdge(state) - graph.getFirstEdge(state));
+                        for (CardinalDirection direction : allowed) {
+                            for (int a = TransitionGraph.MIN_ACCELERATION; a <= TransitionGraph.MAX_ACCELERATION; a++) {
+                                int edge = graph.findEdge(state, direction, a);
+                                assertEquals(direction, graph.getDirection(edge));
+                                assertEquals(a, graph.getAcceleration(edge));
+                                int next = Math.max(0, Math.min(3, velocity + a));
+                                Position target = new Position(x + direction.getDx() * next,
+                                        y + direction.getDy() * next);
+                                byte expected = target.getX() < 0 || target.getX() >= track.getWidth()
+                                        || target.getY() < 0 || target.getY() >= track.getHeight()
+                                        ? TransitionGraph.OUT_OF_BOUNDS
+                                        : track.isObstacle(target) ? TransitionGraph.CRASH
+                                        : track.isFinish(target) ? TransitionGraph.FINISH : TransitionGraph.FREE;
+                                assertEquals(expected, graph.getOutcome(edge),
+                                        "Esito diverso da (" + x + "," + y + ") verso " + direction);
+                                if (expected == TransitionGraph.FREE || expected == TransitionGraph.FINISH) {
+                                    assertEquals(graph.stateId(target.getX(), target.getY(), next, direction),
+                                            graph.getTarget(edge));
+                                } else {
+                                    assertEquals(TransitionGraph.NO_STATE, graph.getTarget(edge));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+import VectorRace.Posizione.Track;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tracciati di prova condivisi dai test, costruiti da una mappa testuale
+ * senza passare dal file system.
+ */
+final class TrackFixtures {
+
+    private TrackFixtures() {
+    }
+
+    /**
+     * Carica un tracciato dal testo della mappa (righe separate da '\n').
+     *
+     * @param map Mappa del tracciato.
+     * @return Il tracciato caricato.
+     * @throws IOException Se la mappa non  valida.
+     */
+    static Track fromText(String map) throws IOException {
+        Track track = new Track();
+        track.loadFromStream(new ByteArrayInputStream(map.getBytes(StandardCharsets.US_ASCII)));
+        return track;
+    }
+}